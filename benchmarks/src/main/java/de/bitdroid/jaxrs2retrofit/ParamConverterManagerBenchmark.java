@@ -0,0 +1,55 @@
+package de.bitdroid.jaxrs2retrofit;
+
+
+import com.squareup.javapoet.ClassName;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+import javax.ws.rs.QueryParam;
+
+import de.bitdroid.jaxrs2retrofit.converter.ParamConverter;
+import de.bitdroid.jaxrs2retrofit.converter.ParamConverterManager;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ParamConverterManagerBenchmark {
+
+	private ParamConverterManager manager;
+	private ClassName knownAnnotation, unknownAnnotation;
+
+	@Setup
+	public void setup() {
+		manager = ParamConverterManager.getDefaultInstance();
+		// new instances, equal but not identical to the registered keys
+		knownAnnotation = ClassName.bestGuess(QueryParam.class.getName());
+		unknownAnnotation = ClassName.bestGuess("de.bitdroid.Unknown");
+	}
+
+
+	@Benchmark
+	public ParamConverter getKnownConverter() {
+		return manager.getConverter(knownAnnotation);
+	}
+
+
+	@Benchmark
+	public ParamConverter getUnknownConverter() {
+		return manager.getConverter(unknownAnnotation);
+	}
+
+}
@@ -0,0 +1,72 @@
+package de.bitdroid.jaxrs2retrofit;
+
+
+import com.squareup.javapoet.AnnotationSpec;
+import com.squareup.javapoet.JavaFile;
+import com.squareup.javapoet.TypeName;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+import de.bitdroid.jaxrs2retrofit.model.ResourceModel;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+public class RetrofitGeneratorBenchmark {
+
+	private RetrofitGenerator generator;
+	private ResourceModel resource;
+
+	@Setup
+	public void setup() {
+		generator = SyntheticResources.createGenerator();
+		resource = SyntheticResources.createResource(0);
+	}
+
+
+	@Benchmark
+	public JavaFile createResource() {
+		return generator.createResource(resource);
+	}
+
+
+	@Benchmark
+	public AnnotationSpec createPathAnnotation() {
+		return generator.createPathAnnotation(HttpMethod.GET, "/api/users/{userId: [0-9]+}", "/posts/{postId}/comments");
+	}
+
+
+	@Benchmark
+	public TypeName createType(TypeState state) {
+		return generator.createType(state.type);
+	}
+
+
+	@State(Scope.Benchmark)
+	public static class TypeState {
+
+		@Param({
+				"java.lang.String",
+				"int",
+				"java.util.List<java.lang.String>",
+				"java.util.Map<java.lang.String,java.util.List<de.bitdroid.Item>>"})
+		public String type;
+
+	}
+
+}
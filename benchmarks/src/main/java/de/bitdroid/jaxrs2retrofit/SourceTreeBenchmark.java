@@ -0,0 +1,88 @@
+package de.bitdroid.jaxrs2retrofit;
+
+
+import com.squareup.javapoet.JavaFile;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import de.bitdroid.jaxrs2retrofit.model.ResourceModel;
+import de.bitdroid.jaxrs2retrofit.model.SourceModel;
+
+/**
+ * Reads, generates and writes a whole source tree like the Gradle task does on a clean build
+ * (without cache). Files are only written during the first invocation, afterwards they are unchanged.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class SourceTreeBenchmark {
+
+	@Param({"10", "1000", "10000"})
+	public int resourceCount;
+
+	@Param({"1", "4"})
+	public int workerCount;
+
+	private File sourceDir, outputDir;
+	private List<File> sourceFiles;
+	private ParallelGenerator generator;
+	private JavaFileWriter writer;
+
+	@Setup
+	public void setup() throws IOException {
+		sourceDir = Files.createTempDirectory(SourceTreeBenchmark.class.getSimpleName() + "-src").toFile();
+		outputDir = Files.createTempDirectory(SourceTreeBenchmark.class.getSimpleName() + "-out").toFile();
+		SyntheticResources.writeSourceTree(sourceDir, resourceCount);
+		sourceFiles = SourceTreeReader.findSourceFiles(sourceDir);
+		generator = new ParallelGenerator(SyntheticResources.createGenerator(), workerCount);
+		writer = new JavaFileWriter(outputDir);
+	}
+
+
+	@TearDown
+	public void tearDown() {
+		generator.close();
+		SyntheticResources.deleteRecursively(sourceDir);
+		SyntheticResources.deleteRecursively(outputDir);
+	}
+
+
+	@Benchmark
+	public int generateTree() throws IOException {
+		final int[] generatedCount = { 0 };
+		new SourceTreeReader(sourceDir, null).read(sourceFiles, new SourceTreeReader.SourceHandler() {
+			@Override
+			public void onSourcesRead(List<SourceModel> sources) throws IOException {
+				List<ResourceModel> resources = new ArrayList<>();
+				for (SourceModel source : sources) resources.addAll(source.getResources());
+				for (JavaFile javaFile : generator.generate(resources, writer)) {
+					if (javaFile != null) ++generatedCount[0];
+				}
+			}
+		});
+		if (generatedCount[0] != resourceCount) throw new IllegalStateException("generated " + generatedCount[0] + " resources");
+		return generatedCount[0];
+	}
+
+}
@@ -0,0 +1,163 @@
+package de.bitdroid.jaxrs2retrofit;
+
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.ws.rs.PathParam;
+import javax.ws.rs.QueryParam;
+
+import de.bitdroid.jaxrs2retrofit.model.AnnotationModel;
+import de.bitdroid.jaxrs2retrofit.model.MethodModel;
+import de.bitdroid.jaxrs2retrofit.model.ParamModel;
+import de.bitdroid.jaxrs2retrofit.model.ResourceModel;
+
+/**
+ * Creates resources and source trees which are similar to what real world JaxRs servers look like.
+ */
+final class SyntheticResources {
+
+	private static final Charset CHARSET = Charset.forName("UTF-8");
+	private static final int CLASSES_PER_PACKAGE = 100;
+	private static final int RESOURCES_PER_DTO = 10;
+
+	private SyntheticResources() { }
+
+
+	static RetrofitGenerator createGenerator() {
+		return new RetrofitGenerator(
+				new GeneratorSettings.Builder("client").setIncludeGenerationDate(false).build(),
+				GeneratorLogger.NONE);
+	}
+
+
+	static ResourceModel createResource(int idx) {
+		List<MethodModel> methods = Arrays.asList(
+				new MethodModel(
+						"getItem",
+						HttpMethod.GET,
+						"/{id}",
+						null,
+						Arrays.asList(
+								createParam("id", String.class.getName(), PathParam.class.getName(), "\"id\""),
+								createParam("expand", boolean.class.getName(), QueryParam.class.getName(), "\"expand\"")),
+						String.class.getName()),
+				new MethodModel(
+						"getItems",
+						HttpMethod.GET,
+						null,
+						null,
+						Arrays.asList(
+								createParam("offset", int.class.getName(), QueryParam.class.getName(), "\"offset\""),
+								createParam("limit", int.class.getName(), QueryParam.class.getName(), "\"limit\"")),
+						"java.util.List<java.lang.String>"),
+				new MethodModel(
+						"addChild",
+						HttpMethod.POST,
+						"/{id: [0-9]+}/children",
+						null,
+						Arrays.asList(
+								createParam("id", long.class.getName(), PathParam.class.getName(), "\"id\""),
+								new ParamModel("child", String.class.getName(), new ArrayList<AnnotationModel>())),
+						void.class.getName()),
+				new MethodModel(
+						"delete",
+						HttpMethod.DELETE,
+						"/{id}",
+						null,
+						Arrays.asList(createParam("id", String.class.getName(), PathParam.class.getName(), "\"id\"")),
+						javax.ws.rs.core.Response.class.getName()));
+
+		String name = "Resource" + idx;
+		return new ResourceModel("server." + name, name, "/api/resource" + idx, "application/json", methods);
+	}
+
+
+	/**
+	 * Writes a source tree of JaxRs resources which use constants of another package,
+	 * plus one DTO class for every few resources.
+	 */
+	static void writeSourceTree(File sourceDir, int resourceCount) throws IOException {
+		writeSource(sourceDir, "bench", "Constants",
+				"package bench;\n"
+				+ "\n"
+				+ "public final class Constants {\n"
+				+ "\tpublic static final String API_ROOT = \"/api\";\n"
+				+ "\tpublic static final String ITEM_PATH = \"/{id}\";\n"
+				+ "}\n");
+
+		for (int i = 0; i < resourceCount; ++i) {
+			String packageName = "bench.p" + (i / CLASSES_PER_PACKAGE);
+			writeSource(sourceDir, packageName, "Resource" + i,
+					"package " + packageName + ";\n"
+					+ "\n"
+					+ "import java.util.List;\n"
+					+ "import javax.ws.rs.*;\n"
+					+ "import javax.ws.rs.core.MediaType;\n"
+					+ "import javax.ws.rs.core.Response;\n"
+					+ "import bench.Constants;\n"
+					+ "\n"
+					+ "@Path(Constants.API_ROOT + \"/resource" + i + "\")\n"
+					+ "@Consumes(MediaType.APPLICATION_JSON)\n"
+					+ "public class Resource" + i + " {\n"
+					+ "\n"
+					+ "\t@GET\n"
+					+ "\t@Path(Constants.ITEM_PATH)\n"
+					+ "\tpublic String getItem(@PathParam(\"id\") String id, @QueryParam(\"expand\") boolean expand) { return null; }\n"
+					+ "\n"
+					+ "\t@GET\n"
+					+ "\tpublic List<String> getItems(@QueryParam(\"offset\") int offset, @QueryParam(\"limit\") int limit) { return null; }\n"
+					+ "\n"
+					+ "\t@POST\n"
+					+ "\t@Path(\"/{id: [0-9]+}/children\")\n"
+					+ "\tpublic void addChild(@PathParam(\"id\") long id, String child) { }\n"
+					+ "\n"
+					+ "\t@DELETE\n"
+					+ "\t@Path(Constants.ITEM_PATH)\n"
+					+ "\tpublic Response delete(@PathParam(\"id\") String id) { return null; }\n"
+					+ "\n"
+					+ "}\n");
+
+			if (i % RESOURCES_PER_DTO == 0) {
+				writeSource(sourceDir, packageName, "Dto" + i,
+						"package " + packageName + ";\n"
+						+ "\n"
+						+ "public class Dto" + i + " {\n"
+						+ "\tprivate String value;\n"
+						+ "\tpublic String getValue() { return value; }\n"
+						+ "}\n");
+			}
+		}
+	}
+
+
+	static void deleteRecursively(File file) {
+		File[] files = file.listFiles();
+		if (files != null) {
+			for (File child : files) deleteRecursively(child);
+		}
+		file.delete();
+	}
+
+
+	private static ParamModel createParam(String name, String type, String annotationType, String value) {
+		Map<String, Object> namedParameterMap = new HashMap<>();
+		namedParameterMap.put("value", value);
+		return new ParamModel(name, type, Arrays.asList(new AnnotationModel(annotationType, namedParameterMap)));
+	}
+
+
+	private static void writeSource(File sourceDir, String packageName, String className, String source) throws IOException {
+		File packageDir = new File(sourceDir, packageName.replace('.', File.separatorChar));
+		Files.createDirectories(packageDir.toPath());
+		Files.write(new File(packageDir, className + ".java").toPath(), source.getBytes(CHARSET));
+	}
+
+}
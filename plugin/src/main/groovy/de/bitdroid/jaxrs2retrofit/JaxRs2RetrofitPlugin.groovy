@@ -25,8 +25,18 @@ public final class JaxRs2RetrofitPlugin implements Plugin<Project> {
             if (hasAndroidApp) variants = project.android.applicationVariants
             else variants = project.android.libraryVariants
 
+            // variants share one task and its output, unless they override its configuration
+            def sharedTask = project.tasks.create('jaxRs2Retrofit', JaxRs2RetrofitTask)
             variants.all { variant ->
-                def task = project.tasks.create("jaxRs2Retrofit-${variant.name}", JaxRs2RetrofitTask)
+                def task = sharedTask
+                Closure configuration = sharedTask.getVariantConfiguration(variant.name)
+                if (configuration != null) {
+                    task = project.tasks.create("jaxRs2Retrofit-${variant.name}", JaxRs2RetrofitTask)
+                    copySettings(sharedTask, task)
+                    task.outputDir = new File(sharedTask.outputDir.parentFile, "${sharedTask.outputDir.name}-${variant.name}")
+                    task.reportFile = new File("${project.buildDir}/reports/jaxrs2retrofit/report-${variant.name}.json")
+                    project.configure(task, configuration)
+                }
                 variant.javaCompile.dependsOn task
                 variant.registerJavaGeneratingTask task, task.outputDir
             }
@@ -34,4 +44,25 @@ public final class JaxRs2RetrofitPlugin implements Plugin<Project> {
 
     }
 
+
+    private static void copySettings(JaxRs2RetrofitTask source, JaxRs2RetrofitTask target) {
+        // output files are not copied, tasks must not write to the same files
+        target.inputDir = source.inputDir
+        target.inputClasses = source.inputClasses
+        target.packageName = source.packageName
+        target.includedClassNamesRegex = source.includedClassNamesRegex
+        target.excludedClassNamesRegex = source.excludedClassNamesRegex
+        target.generateSynchronousMethods = source.generateSynchronousMethods
+        target.generateCallbackMethods = source.generateCallbackMethods
+        target.generateRxJavaMethods = source.generateRxJavaMethods
+        target.paramConverterManager = source.paramConverterManager
+        target.workerCount = source.workerCount
+        target.includeGenerationDate = source.includeGenerationDate
+        target.retrofitVersion = source.retrofitVersion
+        target.generateImplementations = source.generateImplementations
+        target.generateJsonAdapters = source.generateJsonAdapters
+        target.clientJarClasspath = source.clientJarClasspath
+        target.clientJarCompilerArgs = new ArrayList<>(source.clientJarCompilerArgs)
+    }
+
 }
\ No newline at end of file
@@ -1,42 +1,205 @@
 package de.bitdroid.jaxrs2retrofit
 import com.squareup.javapoet.JavaFile
-import com.thoughtworks.qdox.JavaProjectBuilder
-import com.thoughtworks.qdox.model.JavaClass
 import de.bitdroid.jaxrs2retrofit.converter.ParamConverterManager
+import de.bitdroid.jaxrs2retrofit.model.ResourceModel
+import de.bitdroid.jaxrs2retrofit.model.SourceModel
 import org.gradle.api.DefaultTask
+import org.gradle.api.file.FileCollection
+import org.gradle.api.tasks.Input
 import org.gradle.api.tasks.InputDirectory
+import org.gradle.api.tasks.InputFiles
+import org.gradle.api.tasks.Optional
 import org.gradle.api.tasks.OutputDirectory
+import org.gradle.api.tasks.OutputFile
 import org.gradle.api.tasks.TaskAction
 import org.gradle.api.tasks.incremental.IncrementalTaskInputs
 
 public class JaxRs2RetrofitTask extends DefaultTask {
 
-    @InputDirectory File inputDir = new File("${project.projectDir}/src/main/java")
+    private static final String
+            SOURCE_MAPPING_FILE_NAME = 'source-mapping.txt',
+            RESOURCE_CACHE_FILE_NAME = 'resource-cache.bin',
+            SOURCE_INDEX_FILE_NAME = 'source-index.bin'
+
+    @Optional @InputDirectory File inputDir = new File("${project.projectDir}/src/main/java")
+    @Optional @InputFiles FileCollection inputClasses // class files, jars or directories containing them
     @OutputDirectory File outputDir = new File("${project.projectDir}/build/generated/source/jaxrs2retrofit")
-    String packageName = 'de.bitdroid.jaxrs2retrofit'
-    String excludedClassNamesRegex = ''
-    boolean generateSynchronousMethods = true;
-    boolean generateCallbackMethods = true;
-    boolean generateRxJavaMethods = true;
+    // all settings which change the generated files are inputs, changing them regenerates all files
+    @Input String packageName = 'de.bitdroid.jaxrs2retrofit'
+    @Optional @Input String includedClassNamesRegex = null // null includes all resources
+    @Optional @Input String excludedClassNamesRegex = ''
+    @Input boolean generateSynchronousMethods = true;
+    @Input boolean generateCallbackMethods = true;
+    @Input boolean generateRxJavaMethods = true;
     ParamConverterManager paramConverterManager = ParamConverterManager.getDefaultInstance();
+    // not an input, the generated files do not depend on the number of threads generating them
+    int workerCount = Runtime.getRuntime().availableProcessors()
+    @Input boolean includeGenerationDate = false
+    @Input int retrofitVersion = 1 // 2 generates methods returning calls, for OkHttp 3 clients
+    @Input boolean generateImplementations = false // Retrofit 1 only, classes executing requests without a proxy
+    @Input boolean generateJsonAdapters = false // Gson type adapters for request and response bodies
+    @Optional @OutputFile File reportFile = new File("${project.buildDir}/reports/jaxrs2retrofit/report.json")
+    @Optional @OutputFile File clientJar = null // compiles all generated files into this jar
+    @Optional @InputFiles FileCollection clientJarClasspath // e.g. entities used by the resources
+    @Input List<String> clientJarCompilerArgs = []
+
+    private final Map<String, Closure> variantConfigurations = new HashMap<>()
+
+    /**
+     * Android only: generates the files of one variant with a separate task, which starts with the
+     * settings of this task and is then configured by the closure. All other variants share this task.
+     */
+    public void variant(String variantName, Closure configuration) {
+        variantConfigurations.put(variantName, configuration)
+    }
+
+    /**
+     * @return the configuration of a variant or null if the variant uses this task
+     */
+    public Closure getVariantConfiguration(String variantName) {
+        return variantConfigurations.get(variantName)
+    }
+
+    @Input
+    public String getParamConverterFingerprint() {
+        // the manager itself cannot be serialized, use a description of all registered converters instead
+        return paramConverterManager.fingerprint
+    }
 
     @TaskAction
     public void execute(IncrementalTaskInputs inputs) {
+        GeneratorSettings settings = new GeneratorSettings.Builder(packageName)
+                .setIncludedClassNamesRegex(includedClassNamesRegex)
+                .setExcludedClassNamesRegex(excludedClassNamesRegex)
+                .setGenerateSynchronousMethods(generateSynchronousMethods)
+                .setGenerateCallbackMethods(generateCallbackMethods)
+                .setGenerateRxJavaMethods(generateRxJavaMethods)
+                .setParamConverterManager(paramConverterManager)
+                .setIncludeGenerationDate(includeGenerationDate)
+                .setRetrofitVersion(RetrofitVersion.forNumber(retrofitVersion))
+                .setGenerateImplementations(generateImplementations)
+                .setGenerateJsonAdapters(generateJsonAdapters)
+                .build()
         RetrofitGenerator generator = new RetrofitGenerator(
-                new GeneratorSettings(
-                        packageName,
-                        excludedClassNamesRegex,
-                        generateSynchronousMethods,
-                        generateCallbackMethods,
-                        generateRxJavaMethods,
-                        paramConverterManager));
-        JavaProjectBuilder builder = new JavaProjectBuilder();
-        builder.addSourceTree(inputDir);
-        for (JavaClass javaClass : builder.getClasses()) {
-            JavaFile javaFile = generator.createResource(javaClass);
-            if (javaFile == null) continue;
-            javaFile.writeTo(outputDir);
+                settings,
+                { String message -> logger.info(message) } as GeneratorLogger);
+
+        GenerationMetrics metrics = new GenerationMetrics()
+        File mappingFile = new File(getTemporaryDir(), SOURCE_MAPPING_FILE_NAME)
+        File cacheFile = new File(getTemporaryDir(), RESOURCE_CACHE_FILE_NAME)
+        SourceMapping mapping = SourceMapping.read(mappingFile)
+        ResourceModelCache cache = ResourceModelCache.read(cacheFile)
+        // tasks of other projects (and later builds in the same daemon) reading the same sources reuse their resources
+        if (inputDir != null) cache.shareEntries(inputDir)
+        File indexFile = new File(getTemporaryDir(), SOURCE_INDEX_FILE_NAME)
+        SourceIndex index = SourceIndex.read(indexFile)
+        List<File> sourcesToRead = new ArrayList<>()
+        List<File> classesToRead = new ArrayList<>()
+        Set<File> previousFiles = new HashSet<>()
+
+        if (inputs.incremental) {
+            // regenerate changed resources and those which use constants of changed files
+            // changes of the client jar classpath only require compiling the jar again, removed input
+            // classes are no longer part of the inputs but still have generated files
+            Set<File> outOfDateFiles = new HashSet<>()
+            Set<File> removedFiles = new HashSet<>()
+            inputs.outOfDate { change -> outOfDateFiles.add(change.file) }
+            inputs.removed { change -> removedFiles.add(change.file) }
+            Set<File> changedFiles = new HashSet<>()
+            Set<File> generatedSources = mapping.sources
+            for (File file : outOfDateFiles) {
+                if (isResourceInput(file)) changedFiles.add(file)
+            }
+            for (File file : removedFiles) {
+                if (isResourceInput(file) || generatedSources.contains(file)) changedFiles.add(file)
+            }
+            Set<File> sourcesToGenerate = new TreeSet<>(changedFiles)
+            sourcesToGenerate.addAll(mapping.getDependentSources(changedFiles))
+
+            for (File source : sourcesToGenerate) {
+                previousFiles.addAll(mapping.remove(source))
+                if (!source.isFile()) continue
+                if (source.name.endsWith('.java')) sourcesToRead.add(source)
+                else if (ClassFileResourceReader.isClassOrJarFile(source)) classesToRead.add(source)
+            }
+        } else {
+            for (File source : mapping.getSources()) {
+                previousFiles.addAll(mapping.remove(source))
+            }
+            long scanStartTime = System.nanoTime()
+            if (inputDir != null) sourcesToRead = SourceTreeReader.findSourceFiles(inputDir)
+            if (inputClasses != null) {
+                for (File file : inputClasses.asFileTree.files) {
+                    if (ClassFileResourceReader.isClassOrJarFile(file)) classesToRead.add(file)
+                }
+            }
+            metrics.addPhaseTime(GenerationMetrics.Phase.SCAN, scanStartTime)
+        }
+
+        // read resources sequentially (QDox is not thread safe) and generate them in parallel, one batch
+        // of sources at a time to keep memory usage independent of the size of the source tree.
+        // Unchanged files are not rewritten, only those which are no longer generated are deleted.
+        JavaFileWriter writer = new JavaFileWriter(outputDir)
+        ParallelGenerator parallelGenerator = new ParallelGenerator(generator, workerCount, metrics)
+        def generateSources = { List<SourceModel> sources ->
+            List<ResourceModel> resources = new ArrayList<>()
+            List<SourceModel> resourceSources = new ArrayList<>()
+            for (SourceModel source : sources) {
+                for (ResourceModel resource : source.resources) {
+                    resources.add(resource)
+                    resourceSources.add(source)
+                }
+            }
+
+            List<JavaFile> javaFiles = parallelGenerator.generate(resources, writer)
+            for (int i = 0; i < javaFiles.size(); ++i) {
+                if (javaFiles.get(i) == null) continue
+                SourceModel source = resourceSources.get(i)
+                File generatedFile = writer.getFile(javaFiles.get(i))
+                mapping.put(source.sourceFile, generatedFile, source.dependencies)
+                previousFiles.remove(generatedFile)
+            }
+        }
+
+        try {
+            if (!sourcesToRead.isEmpty()) {
+                // files without resources (or excluded ones) are skipped before parsing
+                new SourceTreeReader(inputDir, cache, SourceTreeReader.DEFAULT_BATCH_SIZE, metrics, index, settings.classNameFilter,
+                        settings.generateJsonAdapters)
+                        .read(sourcesToRead, generateSources as SourceTreeReader.SourceHandler)
+            }
+            ClassFileResourceReader classReader = new ClassFileResourceReader()
+            for (File classFile : classesToRead) {
+                // constants of compiled classes are inlined, hence there are no dependencies
+                long parseStartTime = System.nanoTime()
+                List<ResourceModel> classResources = classReader.read(classFile)
+                metrics.addPhaseTime(GenerationMetrics.Phase.PARSE, parseStartTime)
+                generateSources([ new SourceModel(classFile, classResources, new HashSet<File>()) ])
+            }
+        } finally {
+            // the threads are shared by all batches of this run
+            parallelGenerator.close()
         }
+        deleteGeneratedFiles(previousFiles)
+
+        // shared by all implementations, hence not mapped to any source
+        JavaFile supportFile = generator.createImplementationSupport()
+        if (generateImplementations) writer.write(supportFile)
+        else writer.getFile(supportFile).delete()
+
+        if (clientJar != null) {
+            // unchanged files of incremental runs are not generated again, hence compile all files of the output dir
+            long compileStartTime = System.nanoTime()
+            Collection<File> classpath = (clientJarClasspath == null) ? [] : clientJarClasspath.files
+            new ClientJarCompiler(classpath, clientJarCompilerArgs)
+                    .compileFiles(SourceTreeReader.findSourceFiles(outputDir), clientJar)
+            metrics.addPhaseTime(GenerationMetrics.Phase.WRITING, compileStartTime)
+        }
+
+        mapping.write(mappingFile)
+        cache.write(cacheFile)
+        index.write(indexFile)
+        if (reportFile != null) metrics.writeReport(reportFile)
     }
 
 
@@ -45,4 +208,30 @@ public class JaxRs2RetrofitTask extends DefaultTask {
         return 'Creates Retrofit interfaces base on JAX RS resources.';
     }
 
+
+    /**
+     * @return true if the file is part of the input dir or the input classes, i.e. not only of other inputs
+     */
+    private boolean isResourceInput(File file) {
+        if (inputDir != null && isInDir(file, inputDir.absoluteFile)) return true
+        if (inputClasses == null) return false
+        for (File inputFile : inputClasses.files) {
+            if (file == inputFile.absoluteFile || isInDir(file, inputFile.absoluteFile)) return true
+        }
+        return false
+    }
+
+
+    private static boolean isInDir(File file, File dir) {
+        for (File parent = file.parentFile; parent != null; parent = parent.parentFile) {
+            if (parent == dir) return true
+        }
+        return false
+    }
+
+
+    private static void deleteGeneratedFiles(Collection<File> generatedFiles) {
+        for (File file : generatedFiles) file.delete()
+    }
+
  }
@@ -0,0 +1,129 @@
+package de.bitdroid.jaxrs2retrofit;
+
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import de.bitdroid.jaxrs2retrofit.converter.ParamConverterManager;
+import de.bitdroid.jaxrs2retrofit.model.ResourceModel;
+import de.bitdroid.jaxrs2retrofit.model.SourceModel;
+
+/**
+ * Generates the clients of multiple modules (see {@link BatchManifest}) in one process. Modules
+ * are processed in parallel, each on one thread with its own QDox models, while resolved types,
+ * converters and the resources of source dirs used by multiple modules are shared.
+ */
+public final class BatchGenerator {
+
+	private final int workerCount;
+	private final ParamConverterManager paramConverterManager;
+	private final TypeNameResolver typeResolver = new TypeNameResolver();
+	private final GeneratorLogger logger;
+
+	/**
+	 * @param workerCount max number of modules which are generated at once
+	 * @param logger receives one message per generated module
+	 */
+	public BatchGenerator(int workerCount, ParamConverterManager paramConverterManager, GeneratorLogger logger) {
+		this.workerCount = Math.max(1, workerCount);
+		this.paramConverterManager = paramConverterManager;
+		this.logger = logger;
+	}
+
+
+	public void generate(List<BatchManifest.Module> modules) throws IOException {
+		if (modules.isEmpty()) return;
+		ExecutorService executor = Executors.newFixedThreadPool(Math.min(workerCount, modules.size()));
+		try {
+			List<Future<Void>> futures = new ArrayList<>(modules.size());
+			for (final BatchManifest.Module module : modules) {
+				futures.add(executor.submit(new Callable<Void>() {
+					@Override
+					public Void call() throws IOException {
+						generate(module);
+						return null;
+					}
+				}));
+			}
+			for (Future<Void> future : futures) future.get();
+
+		} catch (InterruptedException ie) {
+			Thread.currentThread().interrupt();
+			throw new IOException(ie);
+
+		} catch (ExecutionException ee) {
+			Throwable cause = ee.getCause();
+			if (cause instanceof IOException) throw (IOException) cause;
+			if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+			if (cause instanceof Error) throw (Error) cause;
+			throw new IOException(cause);
+
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+
+	private void generate(BatchManifest.Module module) throws IOException {
+		long startTime = System.nanoTime();
+		GeneratorSettings settings = module.createSettings(paramConverterManager);
+		RetrofitGenerator generator = new RetrofitGenerator(settings, GeneratorLogger.NONE, typeResolver);
+		GenerationMetrics metrics = new GenerationMetrics();
+
+		// modules reading the same source dir reuse each other's resources
+		File cacheFile = module.getCacheFile();
+		ResourceModelCache cache = (cacheFile == null) ? ResourceModelCache.create() : ResourceModelCache.read(cacheFile);
+		if (!module.getReadClasses()) cache.shareEntries(module.getInputFile());
+		File indexFile = (cacheFile == null) ? null : new File(cacheFile.getPath() + Main.INDEX_FILE_SUFFIX);
+		SourceIndex index = (indexFile == null) ? SourceIndex.create() : SourceIndex.read(indexFile);
+
+		File jarFile = module.getJarFile();
+		File inputFile = module.getInputFile();
+		// modules are already generated in parallel, hence one thread per module
+		try (final ResourceOutput output = new ResourceOutput(
+				new ParallelGenerator(generator, 1, metrics),
+				metrics,
+				(module.getOutputDir() == null) ? null : new JavaFileWriter(module.getOutputDir()),
+				(module.getSrcJarFile() == null) ? null : new SrcJarWriter(module.getSrcJarFile()),
+				(jarFile == null) ? null : new ClientJarCompiler(module.getJarClasspath(), new ArrayList<String>()),
+				jarFile,
+				settings.getGenerateImplementations() ? generator.createImplementationSupport() : null)) {
+
+			if (module.getReadClasses()) {
+				long parseStartTime = System.nanoTime();
+				List<ResourceModel> resources = new ClassFileResourceReader().read(inputFile);
+				metrics.addPhaseTime(GenerationMetrics.Phase.PARSE, parseStartTime);
+				output.write(Arrays.asList(new SourceModel(inputFile, resources, new HashSet<File>())));
+			} else {
+				long scanStartTime = System.nanoTime();
+				List<File> sourceFiles = SourceTreeReader.findSourceFiles(inputFile);
+				metrics.addPhaseTime(GenerationMetrics.Phase.SCAN, scanStartTime);
+				new SourceTreeReader(inputFile, cache, SourceTreeReader.DEFAULT_BATCH_SIZE, metrics, index, settings.getClassNameFilter(),
+						settings.getGenerateJsonAdapters())
+						.read(sourceFiles, new SourceTreeReader.SourceHandler() {
+							@Override
+							public void onSourcesRead(List<SourceModel> sources) throws IOException {
+								output.write(sources);
+							}
+						});
+			}
+		}
+
+		if (cacheFile != null) cache.write(cacheFile);
+		if (indexFile != null) index.write(indexFile);
+		if (module.getReportFile() != null) metrics.writeReport(module.getReportFile());
+		logger.info("Generated " + metrics.getResourceCount() + " resource(s) of " + module.getName()
+				+ " in " + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime) + " ms");
+	}
+
+}
@@ -0,0 +1,175 @@
+package de.bitdroid.jaxrs2retrofit;
+
+
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+
+import de.bitdroid.jaxrs2retrofit.converter.ParamConverterManager;
+
+/**
+ * JSON file describing multiple modules whose clients should be generated in one run, e.g.
+ * <pre>
+ * {
+ *   "modules": [
+ *     {
+ *       "name": "users",
+ *       "src": "users/src/main/java",
+ *       "packageName": "client.users",
+ *       "excludedClassNamesRegex": "Admin.*",
+ *       "generateCallbackMethods": false,
+ *       "out": "build/clients/users"
+ *     }
+ *   ]
+ * }
+ * </pre>
+ * Relative paths are resolved against the dir of the manifest file.
+ */
+public final class BatchManifest {
+
+	private static final Charset CHARSET = Charset.forName("UTF-8");
+
+	private List<Module> modules = new ArrayList<>();
+
+	private BatchManifest() { }
+
+
+	public List<Module> getModules() {
+		return modules;
+	}
+
+
+	/**
+	 * @throws IllegalArgumentException if the manifest is not valid
+	 */
+	public static BatchManifest read(File manifestFile) throws IOException {
+		BatchManifest manifest;
+		try (Reader reader = new InputStreamReader(Files.newInputStream(manifestFile.toPath()), CHARSET)) {
+			manifest = new Gson().fromJson(reader, BatchManifest.class);
+		} catch (JsonParseException jpe) {
+			throw new IllegalArgumentException("invalid manifest " + manifestFile, jpe);
+		}
+		if (manifest == null || manifest.modules == null) throw new IllegalArgumentException("no modules in " + manifestFile);
+
+		File baseDir = manifestFile.getAbsoluteFile().getParentFile();
+		for (int i = 0; i < manifest.modules.size(); ++i) {
+			Module module = manifest.modules.get(i);
+			if (module.name == null) module.name = "module " + i;
+			module.baseDir = baseDir;
+			if ((module.src == null) == (module.classes == null)) {
+				throw new IllegalArgumentException(module.name + ": either src or classes is required");
+			}
+			if (module.out == null && module.srcjar == null && module.jar == null) {
+				throw new IllegalArgumentException(module.name + ": at least one of out, srcjar or jar is required");
+			}
+			if (module.out != null && module.srcjar != null) {
+				throw new IllegalArgumentException(module.name + ": out and srcjar cannot be combined");
+			}
+			if (module.retrofitVersion != 1 && module.retrofitVersion != 2) {
+				throw new IllegalArgumentException(module.name + ": unsupported retrofitVersion " + module.retrofitVersion);
+			}
+			if (module.generateImplementations && module.retrofitVersion != 1) {
+				throw new IllegalArgumentException(module.name + ": implementations can only be generated for Retrofit 1");
+			}
+		}
+		return manifest;
+	}
+
+
+	/**
+	 * Sources and settings of one module. Same options as for a single run of the command line tool.
+	 */
+	public static final class Module {
+
+		private transient File baseDir;
+
+		private String name;
+		private String src, classes;
+		private String packageName = "client";
+		private String includedClassNamesRegex, excludedClassNamesRegex;
+		private boolean generateSynchronousMethods = true, generateCallbackMethods = true, generateRxJavaMethods = true;
+		private boolean includeGenerationDate = true;
+		private int retrofitVersion = 1;
+		private boolean generateImplementations = false;
+		private boolean generateJsonAdapters = false;
+		private String out, srcjar, jar;
+		private List<String> jarClasspath = new ArrayList<>();
+		private String cache, report;
+
+		private Module() { }
+
+		public String getName() {
+			return name;
+		}
+
+		/**
+		 * @return the source dir or the class input (file, jar or dir) of this module
+		 */
+		public File getInputFile() {
+			return resolve(src != null ? src : classes);
+		}
+
+		public boolean getReadClasses() {
+			return src == null;
+		}
+
+		public GeneratorSettings createSettings(ParamConverterManager paramConverterManager) {
+			return new GeneratorSettings.Builder(packageName)
+					.setIncludedClassNamesRegex(includedClassNamesRegex)
+					.setExcludedClassNamesRegex(excludedClassNamesRegex)
+					.setGenerateSynchronousMethods(generateSynchronousMethods)
+					.setGenerateCallbackMethods(generateCallbackMethods)
+					.setGenerateRxJavaMethods(generateRxJavaMethods)
+					.setParamConverterManager(paramConverterManager)
+					.setIncludeGenerationDate(includeGenerationDate)
+					.setRetrofitVersion(RetrofitVersion.forNumber(retrofitVersion))
+					.setGenerateImplementations(generateImplementations)
+					.setGenerateJsonAdapters(generateJsonAdapters)
+					.build();
+		}
+
+		public File getOutputDir() {
+			return resolve(out);
+		}
+
+		public File getSrcJarFile() {
+			return resolve(srcjar);
+		}
+
+		public File getJarFile() {
+			return resolve(jar);
+		}
+
+		public List<File> getJarClasspath() {
+			List<File> files = new ArrayList<>();
+			if (jarClasspath != null) {
+				for (String path : jarClasspath) files.add(resolve(path));
+			}
+			return files;
+		}
+
+		public File getCacheFile() {
+			return resolve(cache);
+		}
+
+		public File getReportFile() {
+			return resolve(report);
+		}
+
+		private File resolve(String path) {
+			if (path == null) return null;
+			File file = new File(path);
+			return file.isAbsolute() ? file : new File(baseDir, path);
+		}
+
+	}
+
+}
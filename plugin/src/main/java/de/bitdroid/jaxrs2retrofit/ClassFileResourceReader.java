@@ -0,0 +1,498 @@
+package de.bitdroid.jaxrs2retrofit;
+
+
+import org.objectweb.asm.AnnotationVisitor;
+import org.objectweb.asm.ClassReader;
+import org.objectweb.asm.ClassVisitor;
+import org.objectweb.asm.Label;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.Type;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Array;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Enumeration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+import javax.ws.rs.Consumes;
+import javax.ws.rs.Path;
+
+import de.bitdroid.jaxrs2retrofit.model.AnnotationModel;
+import de.bitdroid.jaxrs2retrofit.model.MethodModel;
+import de.bitdroid.jaxrs2retrofit.model.ParamModel;
+import de.bitdroid.jaxrs2retrofit.model.ResourceModel;
+
+/**
+ * Reads {@link ResourceModel}s from compiled JaxRs classes, either single class files,
+ * directories or jars. Only annotations and method signatures are visited, all constants
+ * have already been inlined by the compiler.
+ */
+public final class ClassFileResourceReader {
+
+	private static final String
+			CLASS_FILE_SUFFIX = ".class",
+			JAR_FILE_SUFFIX = ".jar",
+			ZIP_FILE_SUFFIX = ".zip";
+
+	private static final int SKIPPED_CLASS_ACCESS = Opcodes.ACC_SYNTHETIC | Opcodes.ACC_ANNOTATION;
+	private static final int SKIPPED_METHOD_ACCESS = Opcodes.ACC_SYNTHETIC | Opcodes.ACC_BRIDGE;
+
+
+	/**
+	 * @param file a class file, jar or directory containing class files
+	 * @return all resources of the passed file, classes in directories are read in alphabetical order
+	 */
+	public List<ResourceModel> read(File file) throws IOException {
+		List<ResourceModel> resources = new ArrayList<>();
+		if (file.isDirectory()) {
+			File[] files = file.listFiles();
+			if (files == null) return resources;
+			Arrays.sort(files);
+			for (File child : files) {
+				if (child.isDirectory() || isClassOrJarFile(child)) resources.addAll(read(child));
+			}
+
+		} else if (file.getName().endsWith(CLASS_FILE_SUFFIX)) {
+			try (InputStream inputStream = new FileInputStream(file)) {
+				ResourceModel resource = readResource(inputStream);
+				if (resource != null) resources.add(resource);
+			}
+
+		} else {
+			try (ZipFile zipFile = new ZipFile(file)) {
+				Enumeration<? extends ZipEntry> entries = zipFile.entries();
+				while (entries.hasMoreElements()) {
+					ZipEntry entry = entries.nextElement();
+					if (entry.isDirectory() || !entry.getName().endsWith(CLASS_FILE_SUFFIX)) continue;
+					try (InputStream inputStream = zipFile.getInputStream(entry)) {
+						ResourceModel resource = readResource(inputStream);
+						if (resource != null) resources.add(resource);
+					}
+				}
+			}
+		}
+		return resources;
+	}
+
+
+	/**
+	 * @return the resource or null if the class is not a JaxRs resource
+	 */
+	public ResourceModel readResource(InputStream classFile) throws IOException {
+		ResourceClassVisitor visitor = new ResourceClassVisitor();
+		new ClassReader(classFile).accept(visitor, ClassReader.SKIP_FRAMES);
+		return visitor.getResource();
+	}
+
+
+	public static boolean isClassOrJarFile(File file) {
+		String name = file.getName();
+		return name.endsWith(CLASS_FILE_SUFFIX) || name.endsWith(JAR_FILE_SUFFIX) || name.endsWith(ZIP_FILE_SUFFIX);
+	}
+
+
+	/**
+	 * @return the evaluated value of an annotation (or its default value), multiple values
+	 * (e.g. content types) are separated by commas
+	 */
+	private static String getValue(Map<String, Object> annotationValues, Class<? extends Annotation> annotationType) {
+		Object value = annotationValues.get("value");
+		if (value == null) {
+			try {
+				value = annotationType.getMethod("value").getDefaultValue();
+			} catch (NoSuchMethodException nsme) {
+				throw new IllegalArgumentException(nsme);
+			}
+		}
+		if (value instanceof String[]) value = Arrays.asList((String[]) value);
+		if (!(value instanceof List)) return value.toString();
+
+		StringBuilder builder = new StringBuilder();
+		for (Object arrayValue : (List<?>) value) {
+			if (builder.length() > 0) builder.append(", ");
+			builder.append(arrayValue);
+		}
+		return builder.toString();
+	}
+
+
+	/**
+	 * Converts a type descriptor or signature to a Java type name, e.g.
+	 * {@code Ljava/util/List<Ljava/lang/String;>;} to {@code java.util.List<java.lang.String>}.
+	 * Nested classes are separated by dots.
+	 */
+	private static String getTypeName(String signature) {
+		StringBuilder builder = new StringBuilder();
+		appendType(signature, 0, builder);
+		return builder.toString();
+	}
+
+
+	private static int appendType(String signature, int idx, StringBuilder builder) {
+		char c = signature.charAt(idx);
+		switch (c) {
+			case 'L':
+				++idx;
+				while (true) {
+					c = signature.charAt(idx++);
+					if (c == ';') {
+						return idx;
+					} else if (c == '/' || c == '.' || c == '$') {
+						builder.append('.');
+					} else if (c == '<') {
+						builder.append('<');
+						boolean firstArgument = true;
+						while (signature.charAt(idx) != '>') {
+							if (!firstArgument) builder.append(',');
+							firstArgument = false;
+							idx = appendTypeArgument(signature, idx, builder);
+						}
+						++idx;
+						builder.append('>');
+					} else {
+						builder.append(c);
+					}
+				}
+
+			case 'T':
+				int endIdx = signature.indexOf(';', idx);
+				builder.append(signature, idx + 1, endIdx);
+				return endIdx + 1;
+
+			case '[':
+				idx = appendType(signature, idx + 1, builder);
+				builder.append("[]");
+				return idx;
+
+			default:
+				builder.append(Type.getType(String.valueOf(c)).getClassName());
+				return idx + 1;
+		}
+	}
+
+
+	private static int appendTypeArgument(String signature, int idx, StringBuilder builder) {
+		switch (signature.charAt(idx)) {
+			case '*':
+				builder.append('?');
+				return idx + 1;
+			case '+':
+				builder.append("? extends ");
+				return appendType(signature, idx + 1, builder);
+			case '-':
+				builder.append("? super ");
+				return appendType(signature, idx + 1, builder);
+			default:
+				return appendType(signature, idx, builder);
+		}
+	}
+
+
+	/**
+	 * @return the source code representation of an annotation value, same as when reading source files
+	 */
+	static String toSourceCode(Object value) {
+		if (value instanceof String) {
+			return "\"" + escape(value.toString(), '"') + "\"";
+		} else if (value instanceof Character) {
+			return "'" + escape(value.toString(), '\'') + "'";
+		} else if (value instanceof Long) {
+			return value + "L";
+		} else if (value instanceof Float) {
+			return value + "f";
+		} else if (value instanceof Type) {
+			return getTypeName(((Type) value).getDescriptor()) + ".class";
+		} else if (value instanceof List) {
+			StringBuilder builder = new StringBuilder("{");
+			for (Object arrayValue : (List<?>) value) {
+				if (builder.length() > 1) builder.append(", ");
+				builder.append(toSourceCode(arrayValue));
+			}
+			return builder.append('}').toString();
+		} else if (value.getClass().isArray()) {
+			// primitive arrays
+			List<Object> values = new ArrayList<>();
+			for (int i = 0; i < Array.getLength(value); ++i) {
+				values.add(Array.get(value, i));
+			}
+			return toSourceCode(values);
+		} else {
+			return value.toString();
+		}
+	}
+
+
+	private static String escape(String value, char quote) {
+		StringBuilder builder = new StringBuilder();
+		for (char c : value.toCharArray()) {
+			if (c == quote || c == '\\') builder.append('\\').append(c);
+			else if (c == '\n') builder.append("\\n");
+			else if (c == '\r') builder.append("\\r");
+			else if (c == '\t') builder.append("\\t");
+			else if (c < 0x20) builder.append(String.format("\\u%04x", (int) c));
+			else builder.append(c);
+		}
+		return builder.toString();
+	}
+
+
+	private static final class ResourceClassVisitor extends ClassVisitor {
+
+		private final Map<String, Map<String, Object>> annotations = new LinkedHashMap<>();
+		private final List<ResourceMethodVisitor> methods = new ArrayList<>();
+		private String qualifiedName;
+		private boolean skipped;
+
+		public ResourceClassVisitor() {
+			super(Opcodes.ASM5);
+		}
+
+		@Override
+		public void visit(int version, int access, String name, String signature, String superName, String[] interfaces) {
+			qualifiedName = getTypeName("L" + name + ";");
+			skipped = (access & SKIPPED_CLASS_ACCESS) != 0;
+		}
+
+		@Override
+		public AnnotationVisitor visitAnnotation(String desc, boolean visible) {
+			return new ValuesAnnotationVisitor(getAnnotationValues(annotations, desc));
+		}
+
+		@Override
+		public MethodVisitor visitMethod(int access, String name, String desc, String signature, String[] exceptions) {
+			if ((access & SKIPPED_METHOD_ACCESS) != 0 || name.startsWith("<")) return null;
+			ResourceMethodVisitor method = new ResourceMethodVisitor(access, name, desc, signature);
+			methods.add(method);
+			return method;
+		}
+
+		public ResourceModel getResource() {
+			Map<String, Object> jaxRsPath = annotations.get(Path.class.getName());
+			if (skipped || jaxRsPath == null) return null; // no a valid JAX RS resource
+			Map<String, Object> jaxRsConsumes = annotations.get(Consumes.class.getName());
+
+			List<MethodModel> methodModels = new ArrayList<>();
+			for (ResourceMethodVisitor method : methods) {
+				MethodModel methodModel = method.getMethod();
+				if (methodModel != null) methodModels.add(methodModel);
+			}
+
+			return new ResourceModel(
+					qualifiedName,
+					qualifiedName.substring(qualifiedName.lastIndexOf('.') + 1),
+					getValue(jaxRsPath, Path.class),
+					(jaxRsConsumes == null) ? null : getValue(jaxRsConsumes, Consumes.class),
+					methodModels);
+		}
+
+	}
+
+
+	private static final class ResourceMethodVisitor extends MethodVisitor {
+
+		private final String name, desc, signature;
+		private final Type[] paramTypes;
+		private final int[] paramSlots;
+		private final String[] paramNames;
+		private final Map<String, Map<String, Object>> annotations = new LinkedHashMap<>();
+		private final List<Map<String, Map<String, Object>>> paramAnnotations = new ArrayList<>();
+		private int parameterIdx = 0;
+
+		public ResourceMethodVisitor(int access, String name, String desc, String signature) {
+			super(Opcodes.ASM5);
+			this.name = name;
+			this.desc = desc;
+			this.signature = signature;
+			this.paramTypes = Type.getArgumentTypes(desc);
+			this.paramSlots = new int[paramTypes.length];
+			this.paramNames = new String[paramTypes.length];
+
+			// local variable slots of parameters, long and double take up two slots
+			int slot = ((access & Opcodes.ACC_STATIC) != 0) ? 0 : 1;
+			for (int i = 0; i < paramTypes.length; ++i) {
+				paramSlots[i] = slot;
+				slot += paramTypes[i].getSize();
+				paramNames[i] = "arg" + i;
+				paramAnnotations.add(new LinkedHashMap<String, Map<String, Object>>());
+			}
+		}
+
+		@Override
+		public void visitParameter(String name, int access) {
+			// only present when compiled with -parameters
+			if (name != null && parameterIdx < paramNames.length) paramNames[parameterIdx] = name;
+			++parameterIdx;
+		}
+
+		@Override
+		public AnnotationVisitor visitAnnotation(String desc, boolean visible) {
+			return new ValuesAnnotationVisitor(getAnnotationValues(annotations, desc));
+		}
+
+		@Override
+		public AnnotationVisitor visitParameterAnnotation(int parameter, String desc, boolean visible) {
+			if (parameter >= paramAnnotations.size()) return null;
+			return new ValuesAnnotationVisitor(getAnnotationValues(paramAnnotations.get(parameter), desc));
+		}
+
+		@Override
+		public void visitLocalVariable(String name, String desc, String signature, Label start, Label end, int index) {
+			// only present when compiled with debug information
+			if (parameterIdx > 0) return;
+			for (int i = 0; i < paramSlots.length; ++i) {
+				if (paramSlots[i] == index) paramNames[i] = name;
+			}
+		}
+
+		public MethodModel getMethod() {
+			// find method type and path
+			Map<String, Object> jaxRsMethodPath = null;
+			Map<String, Object> jaxRsConsumes = null;
+			HttpMethod httpMethod = null;
+			for (Map.Entry<String, Map<String, Object>> annotation : annotations.entrySet()) {
+				String annotationType = annotation.getKey();
+				if (annotationType.equals(Path.class.getName())) {
+					jaxRsMethodPath = annotation.getValue();
+				} else if (annotationType.equals(Consumes.class.getName())) {
+					jaxRsConsumes = annotation.getValue();
+				} else if (httpMethod == null) {
+					httpMethod = HttpMethod.forJaxRsClassName(annotationType);
+				}
+			}
+			if (httpMethod == null) return null; // not a valid resource method
+
+			List<String> paramTypeNames = getParamTypeNames();
+			List<ParamModel> params = new ArrayList<>();
+			for (int i = 0; i < paramTypes.length; ++i) {
+				List<AnnotationModel> annotationModels = new ArrayList<>();
+				for (Map.Entry<String, Map<String, Object>> annotation : paramAnnotations.get(i).entrySet()) {
+					// values are stored as source code, same as when reading source files
+					Map<String, Object> namedParameterMap = new LinkedHashMap<>();
+					for (Map.Entry<String, Object> entry : annotation.getValue().entrySet()) {
+						namedParameterMap.put(entry.getKey(), toSourceCode(entry.getValue()));
+					}
+					annotationModels.add(new AnnotationModel(annotation.getKey(), namedParameterMap));
+				}
+				params.add(new ParamModel(paramNames[i], paramTypeNames.get(i), annotationModels));
+			}
+
+			// generic return type is only part of the signature
+			String returnType = (signature == null)
+					? getTypeName(Type.getReturnType(desc).getDescriptor())
+					: getTypeName(signature.substring(signature.lastIndexOf(')') + 1));
+
+			return new MethodModel(
+					name,
+					httpMethod,
+					(jaxRsMethodPath == null) ? null : getValue(jaxRsMethodPath, Path.class),
+					(jaxRsConsumes == null) ? null : getValue(jaxRsConsumes, Consumes.class),
+					params,
+					returnType);
+		}
+
+		/**
+		 * @return the param types of the signature (generic arguments are only part of the signature),
+		 * or of the descriptor if the method is not generic
+		 */
+		private List<String> getParamTypeNames() {
+			List<String> typeNames = new ArrayList<>();
+			if (signature != null) {
+				// skip type params of the method, e.g. <T:Ljava/lang/Object;>
+				int idx = signature.indexOf('(') + 1;
+				while (signature.charAt(idx) != ')') {
+					StringBuilder builder = new StringBuilder();
+					idx = appendType(signature, idx, builder);
+					typeNames.add(builder.toString());
+				}
+				if (typeNames.size() == paramTypes.length) return typeNames;
+				typeNames.clear();
+			}
+			for (Type paramType : paramTypes) typeNames.add(getTypeName(paramType.getDescriptor()));
+			return typeNames;
+		}
+
+	}
+
+
+	private static Map<String, Object> getAnnotationValues(Map<String, Map<String, Object>> annotations, String desc) {
+		Map<String, Object> values = new LinkedHashMap<>();
+		annotations.put(getTypeName(desc), values);
+		return values;
+	}
+
+
+	/**
+	 * Stores all annotation values, enums as their source code and arrays as lists.
+	 * Nested annotations are ignored.
+	 */
+	private static final class ValuesAnnotationVisitor extends AnnotationVisitor {
+
+		private final Map<String, Object> values;
+		private final List<Object> arrayValues;
+
+		public ValuesAnnotationVisitor(Map<String, Object> values) {
+			super(Opcodes.ASM5);
+			this.values = values;
+			this.arrayValues = null;
+		}
+
+		private ValuesAnnotationVisitor(List<Object> arrayValues) {
+			super(Opcodes.ASM5);
+			this.values = null;
+			this.arrayValues = arrayValues;
+		}
+
+		@Override
+		public void visit(String name, Object value) {
+			put(name, value);
+		}
+
+		@Override
+		public void visitEnum(String name, String desc, String value) {
+			put(name, new EnumValue(getTypeName(desc) + "." + value));
+		}
+
+		@Override
+		public AnnotationVisitor visitArray(String name) {
+			List<Object> array = new ArrayList<>();
+			put(name, array);
+			return new ValuesAnnotationVisitor(array);
+		}
+
+		private void put(String name, Object value) {
+			if (values != null) values.put(name, value);
+			else arrayValues.add(value);
+		}
+
+	}
+
+
+	/**
+	 * Enum constant whose string representation is its source code.
+	 */
+	private static final class EnumValue {
+
+		private final String sourceCode;
+
+		public EnumValue(String sourceCode) {
+			this.sourceCode = sourceCode;
+		}
+
+		@Override
+		public String toString() {
+			return sourceCode;
+		}
+
+	}
+
+}
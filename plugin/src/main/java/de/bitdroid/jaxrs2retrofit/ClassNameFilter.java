@@ -0,0 +1,39 @@
+package de.bitdroid.jaxrs2retrofit;
+
+
+import java.util.regex.Pattern;
+
+/**
+ * Decides which JaxRs resources are generated based on their simple class name.
+ * Patterns are compiled once, hence one filter can be used for all resources of a run
+ * and from multiple threads at once.
+ */
+public final class ClassNameFilter {
+
+	public static final ClassNameFilter ACCEPT_ALL = new ClassNameFilter(null, null);
+
+	private final Pattern includePattern, excludePattern;
+
+	/**
+	 * @param includedClassNamesRegex only classes matching this regex are accepted, null or empty
+	 *                                to accept all classes
+	 * @param excludedClassNamesRegex classes matching this regex are not accepted, null or empty
+	 *                                to exclude no classes
+	 */
+	public ClassNameFilter(String includedClassNamesRegex, String excludedClassNamesRegex) {
+		this.includePattern = compile(includedClassNamesRegex);
+		this.excludePattern = compile(excludedClassNamesRegex);
+	}
+
+
+	public boolean accepts(String className) {
+		if (includePattern != null && !includePattern.matcher(className).matches()) return false;
+		return excludePattern == null || !excludePattern.matcher(className).matches();
+	}
+
+
+	private static Pattern compile(String regex) {
+		return (regex == null || regex.isEmpty()) ? null : Pattern.compile(regex);
+	}
+
+}
@@ -0,0 +1,206 @@
+package de.bitdroid.jaxrs2retrofit;
+
+
+import com.squareup.javapoet.JavaFile;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.security.CodeSource;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.Collection;
+import java.util.GregorianCalendar;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.jar.Attributes;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+import java.util.jar.Manifest;
+
+import javax.tools.Diagnostic;
+import javax.tools.DiagnosticCollector;
+import javax.tools.FileObject;
+import javax.tools.ForwardingJavaFileManager;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.SimpleJavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.StandardLocation;
+import javax.tools.ToolProvider;
+
+/**
+ * Compiles generated Retrofit files in memory and packages the resulting classes into one jar,
+ * without writing sources or class files to disk. Retrofit, RxJava and Gson are always part of the
+ * classpath, all other classes used by the resources (e.g. entities) have to be passed.
+ * Requires a JDK, as the compiler is not part of plain JREs.
+ */
+public final class ClientJarCompiler {
+
+	private static final Charset CHARSET = Charset.forName("UTF-8");
+	// fixed time stamp, the same classes should always result in the same jar
+	private static final long ENTRY_TIME = new GregorianCalendar(1980, Calendar.FEBRUARY, 1).getTimeInMillis();
+
+	private final List<File> classpath = new ArrayList<>();
+	private final List<String> compilerOptions = new ArrayList<>();
+
+	/**
+	 * @param classpath jars and directories required for compiling the generated files
+	 * @param compilerArgs additional javac arguments, e.g. {@code -source 1.7 -target 1.7}
+	 */
+	public ClientJarCompiler(Collection<File> classpath, Collection<String> compilerArgs) {
+		Set<File> files = new LinkedHashSet<>(classpath);
+		files.add(getLibraryLocation(retrofit.RestAdapter.class));
+		files.add(getLibraryLocation(rx.Observable.class));
+		files.add(getLibraryLocation(com.google.gson.Gson.class));
+		files.remove(null);
+		this.classpath.addAll(files);
+		this.compilerOptions.add("-proc:none"); // the generator itself is an annotation processor
+		this.compilerOptions.addAll(compilerArgs);
+	}
+
+
+	/**
+	 * Compiles generated files which have not been written to disk.
+	 */
+	public void compile(Collection<JavaFile> javaFiles, File jarFile) throws IOException {
+		List<JavaFileObject> sources = new ArrayList<>();
+		for (JavaFile javaFile : javaFiles) sources.add(new SourceFileObject(javaFile));
+		compile(sources, new ArrayList<File>(), jarFile);
+	}
+
+
+	/**
+	 * Compiles generated files which have already been written to disk, e.g. by a
+	 * previous run which only regenerated some files.
+	 */
+	public void compileFiles(Collection<File> sourceFiles, File jarFile) throws IOException {
+		compile(new ArrayList<JavaFileObject>(), sourceFiles, jarFile);
+	}
+
+
+	private void compile(List<JavaFileObject> sources, Collection<File> sourceFiles, File jarFile) throws IOException {
+		JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+		if (compiler == null) throw new IllegalStateException("no Java compiler found, compiling requires a JDK");
+
+		DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+		StandardJavaFileManager standardFileManager = compiler.getStandardFileManager(diagnostics, null, CHARSET);
+		try (ClassFileManager fileManager = new ClassFileManager(standardFileManager)) {
+			standardFileManager.setLocation(StandardLocation.CLASS_PATH, classpath);
+			List<JavaFileObject> compilationUnits = new ArrayList<>(sources);
+			for (JavaFileObject source : standardFileManager.getJavaFileObjectsFromFiles(sourceFiles)) {
+				compilationUnits.add(source);
+			}
+
+			boolean success = compilationUnits.isEmpty()
+					|| compiler.getTask(null, fileManager, diagnostics, compilerOptions, null, compilationUnits).call();
+			if (!success) {
+				StringBuilder message = new StringBuilder("failed to compile generated files:");
+				for (Diagnostic<? extends JavaFileObject> diagnostic : diagnostics.getDiagnostics()) {
+					if (diagnostic.getKind() != Diagnostic.Kind.ERROR) continue;
+					message.append('\n').append(diagnostic.toString());
+				}
+				throw new IOException(message.toString());
+			}
+			writeJar(fileManager.classFiles, jarFile);
+		}
+	}
+
+
+	private static void writeJar(Map<String, ClassFileObject> classFiles, File jarFile) throws IOException {
+		File parentDir = jarFile.getAbsoluteFile().getParentFile();
+		if (parentDir != null) Files.createDirectories(parentDir.toPath());
+
+		Manifest manifest = new Manifest();
+		manifest.getMainAttributes().put(Attributes.Name.MANIFEST_VERSION, "1.0");
+		try (JarOutputStream outputStream = new JarOutputStream(new BufferedOutputStream(new FileOutputStream(jarFile)), manifest)) {
+			for (Map.Entry<String, ClassFileObject> classFile : classFiles.entrySet()) {
+				JarEntry entry = new JarEntry(classFile.getKey().replace('.', '/') + JavaFileObject.Kind.CLASS.extension);
+				entry.setTime(ENTRY_TIME);
+				outputStream.putNextEntry(entry);
+				classFile.getValue().content.writeTo(outputStream);
+				outputStream.closeEntry();
+			}
+		}
+	}
+
+
+	/**
+	 * @return the jar or directory a class was loaded from, null if unknown
+	 */
+	private static File getLibraryLocation(Class<?> libraryClass) {
+		CodeSource codeSource = libraryClass.getProtectionDomain().getCodeSource();
+		if (codeSource == null || codeSource.getLocation() == null) return null;
+		try {
+			return new File(codeSource.getLocation().toURI());
+		} catch (URISyntaxException | IllegalArgumentException e) {
+			return null;
+		}
+	}
+
+
+	private static final class SourceFileObject extends SimpleJavaFileObject {
+
+		private final JavaFile javaFile;
+
+		public SourceFileObject(JavaFile javaFile) {
+			super(URI.create("string:///" + SrcJarWriter.getPath(javaFile)), Kind.SOURCE);
+			this.javaFile = javaFile;
+		}
+
+		@Override
+		public CharSequence getCharContent(boolean ignoreEncodingErrors) {
+			return javaFile.toString();
+		}
+
+	}
+
+
+	private static final class ClassFileObject extends SimpleJavaFileObject {
+
+		private final ByteArrayOutputStream content = new ByteArrayOutputStream();
+
+		public ClassFileObject(String className) {
+			super(URI.create("mem:///" + className.replace('.', '/') + Kind.CLASS.extension), Kind.CLASS);
+		}
+
+		@Override
+		public OutputStream openOutputStream() {
+			return content;
+		}
+
+	}
+
+
+	/**
+	 * Keeps all class files in memory, sorted by name.
+	 */
+	private static final class ClassFileManager extends ForwardingJavaFileManager<StandardJavaFileManager> {
+
+		private final Map<String, ClassFileObject> classFiles = new TreeMap<>();
+
+		public ClassFileManager(StandardJavaFileManager fileManager) {
+			super(fileManager);
+		}
+
+		@Override
+		public JavaFileObject getJavaFileForOutput(Location location, String className, JavaFileObject.Kind kind, FileObject sibling) throws IOException {
+			if (kind != JavaFileObject.Kind.CLASS) return super.getJavaFileForOutput(location, className, kind, sibling);
+			ClassFileObject classFile = new ClassFileObject(className);
+			classFiles.put(className, classFile);
+			return classFile;
+		}
+
+	}
+
+}
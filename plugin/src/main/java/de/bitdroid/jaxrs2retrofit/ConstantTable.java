@@ -0,0 +1,387 @@
+package de.bitdroid.jaxrs2retrofit;
+
+
+import com.thoughtworks.qdox.library.ClassLibrary;
+import com.thoughtworks.qdox.model.JavaClass;
+import com.thoughtworks.qdox.model.JavaField;
+
+import java.io.File;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Evaluated values of constants (static final fields) of one source tree, indexed by the
+ * qualified name of their class plus their field name. Constants are evaluated once when
+ * first referenced, including references to other (nested or cross package) classes and
+ * concatenations, and are then shared by all resources that are read during one run, even
+ * if those are parsed into different QDox models.
+ * Like QDox itself this class is not thread safe.
+ */
+public final class ConstantTable {
+
+	private final Map<String, Constant> constants = new HashMap<>();
+	// class name + referenced name --> key of the constant (null if not resolvable),
+	// since resolving names depends on imports
+	private final Map<String, String> resolvedReferences = new HashMap<>();
+	private final Set<String> evaluatingKeys = new HashSet<>();
+
+
+	/**
+	 * @param context class in which the name is used, for resolving imports, nested classes etc.
+	 * @param name simple or qualified name of a field, e.g. {@code PATH}, {@code Constants.PATH} or
+	 *             {@code de.bitdroid.Constants.Nested.PATH}
+	 * @return the constant or null if the name cannot be resolved or the field has no constant value
+	 */
+	public Constant get(JavaClass context, String name) {
+		String referenceKey = context.getFullyQualifiedName() + " " + name;
+		if (resolvedReferences.containsKey(referenceKey)) {
+			String key = resolvedReferences.get(referenceKey);
+			return (key == null) ? null : constants.get(key);
+		}
+
+		JavaField field = resolveField(context, name);
+		String key = (field == null) ? null : getKey(field);
+		resolvedReferences.put(referenceKey, key); // null if not resolvable
+		if (key == null) return null;
+
+		if (!constants.containsKey(key)) {
+			// cyclic constants cannot be evaluated, stops the recursion as well
+			if (!evaluatingKeys.add(key)) return null;
+			try {
+				constants.put(key, evaluate(field));
+			} finally {
+				evaluatingKeys.remove(key);
+			}
+		}
+		return constants.get(key);
+	}
+
+
+	/**
+	 * Drops all constants which were evaluated from one of the passed files, e.g. because
+	 * those have been changed since. References are resolved again as well, as imports or
+	 * the classes they point to might have changed.
+	 */
+	public void invalidate(Collection<File> changedFiles) {
+		Iterator<Constant> iterator = constants.values().iterator();
+		while (iterator.hasNext()) {
+			Constant constant = iterator.next();
+			if (constant == null) continue;
+			for (File changedFile : changedFiles) {
+				if (constant.getSourceFiles().contains(changedFile)) {
+					iterator.remove();
+					break;
+				}
+			}
+		}
+		resolvedReferences.clear();
+	}
+
+
+	private Constant evaluate(JavaField field) {
+		JavaClass declaringClass = field.getDeclaringClass();
+		String expression = field.getInitializationExpression();
+		if (expression == null || expression.isEmpty()) return evaluateCompiled(field);
+
+		Set<File> sourceFiles = new HashSet<>();
+		File sourceFile = SourceTreeReader.getSourceFile(declaringClass);
+		if (sourceFile != null) sourceFiles.add(sourceFile);
+
+		Object value;
+		try {
+			value = new ExpressionEvaluator(declaringClass, expression, sourceFiles).evaluate();
+		} catch (IllegalArgumentException iae) {
+			// not a simple constant expression, use the plain code without quotes
+			if (expression.startsWith("\"")) expression = expression.substring(1);
+			if (expression.endsWith("\"")) expression = expression.substring(0, expression.length() - 1);
+			value = expression;
+		}
+		return new Constant(value, sourceFiles);
+	}
+
+
+	/**
+	 * Fields of classes that are not part of the source tree (e.g. {@link javax.ws.rs.core.MediaType})
+	 * have no initializer, but their value can be read via reflection.
+	 */
+	private Constant evaluateCompiled(JavaField field) {
+		try {
+			Class<?> declaringClass = Class.forName(getBinaryName(field.getDeclaringClass()), false, getClass().getClassLoader());
+			Field compiledField = declaringClass.getDeclaredField(field.getName());
+			int modifiers = compiledField.getModifiers();
+			if (!Modifier.isStatic(modifiers) || !Modifier.isFinal(modifiers)) return null;
+			compiledField.setAccessible(true);
+			return new Constant(compiledField.get(null), Collections.<File>emptySet());
+		} catch (Exception | LinkageError e) {
+			return null;
+		}
+	}
+
+
+	private JavaField resolveField(JavaClass context, String name) {
+		String[] parts = name.split("\\.");
+		String fieldName = parts[parts.length - 1];
+
+		// fields of the class itself or of its enclosing classes
+		if (parts.length == 1) {
+			for (JavaClass javaClass = context; javaClass != null; javaClass = javaClass.getDeclaringClass()) {
+				JavaField field = findField(javaClass, fieldName);
+				if (field != null) return field;
+			}
+			return null;
+		}
+
+		JavaClass targetClass = resolveClass(context, parts);
+		return (targetClass == null) ? null : findField(targetClass, fieldName);
+	}
+
+
+	/**
+	 * @param parts all parts of a qualified field name, the last one (the field) is ignored
+	 */
+	private JavaClass resolveClass(JavaClass context, String[] parts) {
+		ClassLibrary library = context.getJavaClassLibrary();
+
+		// first part is a simple class name, other parts (except for the field) are nested classes
+		JavaClass targetClass = null;
+		for (JavaClass javaClass = context; javaClass != null && targetClass == null; javaClass = javaClass.getDeclaringClass()) {
+			if (javaClass.getName().equals(parts[0])) targetClass = javaClass;
+			else targetClass = javaClass.getNestedClassByName(parts[0]);
+		}
+		if (targetClass == null) {
+			String className = context.resolveFullyQualifiedName(parts[0]);
+			if (className != null && library.hasClassReference(className)) targetClass = library.getJavaClass(className);
+		}
+		if (targetClass != null) return resolveNestedClass(targetClass, parts, 1);
+
+		// otherwise the first parts are a package
+		StringBuilder className = new StringBuilder(parts[0]);
+		for (int i = 1; i < parts.length - 1; ++i) {
+			className.append('.').append(parts[i]);
+			if (library.hasClassReference(className.toString())) {
+				return resolveNestedClass(library.getJavaClass(className.toString()), parts, i + 1);
+			}
+		}
+		return null;
+	}
+
+
+	private static JavaClass resolveNestedClass(JavaClass javaClass, String[] parts, int firstNestedIdx) {
+		for (int i = firstNestedIdx; i < parts.length - 1 && javaClass != null; ++i) {
+			javaClass = javaClass.getNestedClassByName(parts[i]);
+		}
+		return javaClass;
+	}
+
+
+	private static JavaField findField(JavaClass javaClass, String fieldName) {
+		// constants of interfaces and super classes are inherited
+		for (JavaClass currentClass = javaClass; currentClass != null; currentClass = currentClass.getSuperJavaClass()) {
+			JavaField field = currentClass.getFieldByName(fieldName);
+			if (field != null) return field;
+			for (JavaClass interfaceClass : currentClass.getInterfaces()) {
+				field = findField(interfaceClass, fieldName);
+				if (field != null) return field;
+			}
+		}
+		return null;
+	}
+
+
+	private static String getBinaryName(JavaClass javaClass) {
+		JavaClass declaringClass = javaClass.getDeclaringClass();
+		if (declaringClass == null) return javaClass.getFullyQualifiedName();
+		return getBinaryName(declaringClass) + "$" + javaClass.getName();
+	}
+
+
+	private static String getKey(JavaField field) {
+		return field.getDeclaringClass().getFullyQualifiedName() + "#" + field.getName();
+	}
+
+
+	public static final class Constant {
+
+		private final Object value;
+		private final Set<File> sourceFiles;
+
+		private Constant(Object value, Set<File> sourceFiles) {
+			this.value = value;
+			this.sourceFiles = sourceFiles;
+		}
+
+
+		public Object getValue() {
+			return value;
+		}
+
+
+		/**
+		 * @return all source files that are required for evaluating this constant, e.g. the
+		 * file declaring it and the files declaring other constants it is concatenated from
+		 */
+		public Set<File> getSourceFiles() {
+			return sourceFiles;
+		}
+
+	}
+
+
+	/**
+	 * Evaluates the initializers of constants, which are only available as code. Supports literals,
+	 * references to other constants, concatenation (or addition) and parentheses, which should
+	 * be more than enough for paths and media types.
+	 */
+	private final class ExpressionEvaluator {
+
+		private final JavaClass context;
+		private final String expression;
+		private final Set<File> sourceFiles;
+		private int pos = 0;
+
+		ExpressionEvaluator(JavaClass context, String expression, Set<File> sourceFiles) {
+			this.context = context;
+			this.expression = expression;
+			this.sourceFiles = sourceFiles;
+		}
+
+
+		/**
+		 * @throws IllegalArgumentException if the expression is not supported
+		 */
+		Object evaluate() {
+			Object value = readSum();
+			skipWhitespace();
+			if (pos != expression.length()) throw error();
+			return value;
+		}
+
+
+		private Object readSum() {
+			Object value = readOperand();
+			skipWhitespace();
+			while (pos < expression.length() && expression.charAt(pos) == '+') {
+				++pos;
+				value = add(value, readOperand());
+				skipWhitespace();
+			}
+			return value;
+		}
+
+
+		private Object readOperand() {
+			skipWhitespace();
+			if (pos >= expression.length()) throw error();
+			char c = expression.charAt(pos);
+			if (c == '(') {
+				++pos;
+				Object value = readSum();
+				if (pos >= expression.length() || expression.charAt(pos) != ')') throw error();
+				++pos;
+				return value;
+			} else if (c == '"') {
+				return readQuoted('"');
+			} else if (c == '\'') {
+				String value = readQuoted('\'');
+				if (value.length() != 1) throw error();
+				return value.charAt(0);
+			} else if (Character.isDigit(c)) {
+				return readNumber();
+			} else if (Character.isJavaIdentifierStart(c)) {
+				return readReference();
+			}
+			throw error();
+		}
+
+
+		private String readQuoted(char quote) {
+			StringBuilder builder = new StringBuilder();
+			++pos;
+			while (pos < expression.length()) {
+				char c = expression.charAt(pos++);
+				if (c == quote) return builder.toString();
+				if (c != '\\') {
+					builder.append(c);
+					continue;
+				}
+				if (pos >= expression.length()) break;
+				char escaped = expression.charAt(pos++);
+				switch (escaped) {
+					case 'n': builder.append('\n'); break;
+					case 'r': builder.append('\r'); break;
+					case 't': builder.append('\t'); break;
+					case 'b': builder.append('\b'); break;
+					case 'f': builder.append('\f'); break;
+					case 'u':
+						if (pos + 4 > expression.length()) throw error();
+						builder.append((char) Integer.parseInt(expression.substring(pos, pos + 4), 16));
+						pos += 4;
+						break;
+					default: builder.append(escaped);
+				}
+			}
+			throw error();
+		}
+
+
+		private Object readNumber() {
+			int start = pos;
+			while (pos < expression.length() && Character.isDigit(expression.charAt(pos))) ++pos;
+			String digits = expression.substring(start, pos);
+			if (pos < expression.length() && Character.toUpperCase(expression.charAt(pos)) == 'L') {
+				++pos;
+				return Long.parseLong(digits);
+			}
+			if (pos < expression.length() && (expression.charAt(pos) == '.' || Character.isLetter(expression.charAt(pos)))) {
+				throw error(); // floating point, hex etc. are not used for paths
+			}
+			return Integer.parseInt(digits);
+		}
+
+
+		private Object readReference() {
+			int start = pos;
+			while (pos < expression.length()
+					&& (Character.isJavaIdentifierPart(expression.charAt(pos)) || expression.charAt(pos) == '.')) {
+				++pos;
+			}
+			Constant constant = get(context, expression.substring(start, pos));
+			if (constant == null || constant.getValue() == null) throw error();
+			sourceFiles.addAll(constant.getSourceFiles());
+			return constant.getValue();
+		}
+
+
+		private Object add(Object left, Object right) {
+			if (left instanceof String || right instanceof String) return String.valueOf(left) + right;
+			if (left instanceof Long || right instanceof Long) return toNumber(left).longValue() + toNumber(right).longValue();
+			return toNumber(left).intValue() + toNumber(right).intValue();
+		}
+
+
+		private Number toNumber(Object value) {
+			if (value instanceof Number) return (Number) value;
+			if (value instanceof Character) return (int) (Character) value;
+			throw error();
+		}
+
+
+		private void skipWhitespace() {
+			while (pos < expression.length() && Character.isWhitespace(expression.charAt(pos))) ++pos;
+		}
+
+
+		private IllegalArgumentException error() {
+			return new IllegalArgumentException("unsupported constant expression: " + expression);
+		}
+
+	}
+
+}
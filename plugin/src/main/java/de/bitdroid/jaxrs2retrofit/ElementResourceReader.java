@@ -0,0 +1,273 @@
+package de.bitdroid.jaxrs2retrofit;
+
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.NestingKind;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.lang.model.util.Elements;
+import javax.lang.model.util.Types;
+import javax.ws.rs.Consumes;
+import javax.ws.rs.Path;
+
+import de.bitdroid.jaxrs2retrofit.model.AnnotationModel;
+import de.bitdroid.jaxrs2retrofit.model.EntityModel;
+import de.bitdroid.jaxrs2retrofit.model.MethodModel;
+import de.bitdroid.jaxrs2retrofit.model.ParamModel;
+import de.bitdroid.jaxrs2retrofit.model.ResourceModel;
+
+/**
+ * Reads {@link ResourceModel}s from JaxRs classes during annotation processing. Other than
+ * with {@link QDoxResourceReader} all constants have already been evaluated by the compiler.
+ */
+public final class ElementResourceReader {
+
+	private static final String SERIALIZED_NAME_ANNOTATION = "com.google.gson.annotations.SerializedName";
+
+	private final Elements elements;
+	private final Types types;
+	private final boolean readEntities;
+
+	public ElementResourceReader(Elements elements, Types types) {
+		this(elements, types, false);
+	}
+
+
+	/**
+	 * @param readEntities whether to read the entities of resources, which are only required
+	 *                     for generating JSON adapters
+	 */
+	public ElementResourceReader(Elements elements, Types types, boolean readEntities) {
+		this.elements = elements;
+		this.types = types;
+		this.readEntities = readEntities;
+	}
+
+
+	/**
+	 * @return the resource or null if the class is not a JaxRs resource
+	 */
+	public ResourceModel readResource(TypeElement jaxRsClass) {
+		return readResource(jaxRsClass, new HashSet<TypeElement>());
+	}
+
+
+	/**
+	 * @param referencedElements will be filled with all entity classes (including their
+	 *                           super classes) which were read for the resource
+	 * @return the resource or null if the class is not a JaxRs resource
+	 */
+	public ResourceModel readResource(TypeElement jaxRsClass, Set<TypeElement> referencedElements) {
+		// find path annotation
+		AnnotationMirror jaxRsPath = null;
+		AnnotationMirror jaxRsConsumes = null;
+		for (AnnotationMirror annotation : jaxRsClass.getAnnotationMirrors()) {
+			String annotationType = getTypeName(annotation);
+			if (annotationType.equals(Path.class.getName())) {
+				jaxRsPath = annotation;
+			} else if (annotationType.equals(Consumes.class.getName())) {
+				jaxRsConsumes = annotation;
+			}
+		}
+		if (jaxRsPath == null) return null; // no a valid JAX RS resource
+
+		List<MethodModel> methods = new ArrayList<>();
+		// classes which are no entities are mapped to null
+		Map<String, EntityModel> entities = new LinkedHashMap<>();
+		for (ExecutableElement jaxRsMethod : ElementFilter.methodsIn(jaxRsClass.getEnclosedElements())) {
+			MethodModel method = readMethod(jaxRsMethod);
+			if (method == null) continue;
+			methods.add(method);
+			if (!readEntities) continue;
+
+			// entities are the return type and the body param
+			readEntities(jaxRsMethod.getReturnType(), entities, referencedElements);
+			List<? extends VariableElement> jaxRsParameters = jaxRsMethod.getParameters();
+			for (int i = 0; i < jaxRsParameters.size(); ++i) {
+				if (method.getParams().get(i).isBody()) readEntities(jaxRsParameters.get(i).asType(), entities, referencedElements);
+			}
+		}
+		entities.values().removeAll(Collections.singleton(null));
+
+		return new ResourceModel(
+				jaxRsClass.getQualifiedName().toString(),
+				jaxRsClass.getSimpleName().toString(),
+				readValue(jaxRsPath),
+				(jaxRsConsumes == null) ? null : readValue(jaxRsConsumes),
+				methods,
+				new ArrayList<>(entities.values()));
+	}
+
+
+	private MethodModel readMethod(ExecutableElement jaxRsMethod) {
+		// find method type and path
+		AnnotationMirror jaxRsMethodPath = null;
+		AnnotationMirror jaxRsConsumes = null;
+		HttpMethod httpMethod = null;
+		for (AnnotationMirror annotation : jaxRsMethod.getAnnotationMirrors()) {
+			String annotationType = getTypeName(annotation);
+			if (annotationType.equals(Path.class.getName())) {
+				jaxRsMethodPath = annotation;
+			} else if (annotationType.equals(Consumes.class.getName())) {
+				jaxRsConsumes = annotation;
+			} else if (httpMethod == null) {
+				httpMethod = HttpMethod.forJaxRsClassName(annotationType);
+			}
+		}
+		if (httpMethod == null) return null; // not a valid resource method
+
+		List<ParamModel> params = new ArrayList<>();
+		for (VariableElement jaxRsParameter : jaxRsMethod.getParameters()) {
+			params.add(readParameter(jaxRsParameter));
+		}
+
+		return new MethodModel(
+				jaxRsMethod.getSimpleName().toString(),
+				httpMethod,
+				(jaxRsMethodPath == null) ? null : readValue(jaxRsMethodPath),
+				(jaxRsConsumes == null) ? null : readValue(jaxRsConsumes),
+				params,
+				jaxRsMethod.getReturnType().toString());
+	}
+
+
+	private ParamModel readParameter(VariableElement jaxRsParameter) {
+		List<AnnotationModel> annotations = new ArrayList<>();
+		for (AnnotationMirror annotation : jaxRsParameter.getAnnotationMirrors()) {
+			// values are stored as source code, same as when reading source files
+			Map<String, Object> namedParameterMap = new LinkedHashMap<>();
+			for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> entry : annotation.getElementValues().entrySet()) {
+				namedParameterMap.put(entry.getKey().getSimpleName().toString(), entry.getValue().toString());
+			}
+			annotations.add(new AnnotationModel(getTypeName(annotation), namedParameterMap));
+		}
+
+		return new ParamModel(
+				jaxRsParameter.getSimpleName().toString(),
+				jaxRsParameter.asType().toString(),
+				annotations);
+	}
+
+
+	/**
+	 * Reads the entity of a type, its generic arguments and all of their fields. Classes of the
+	 * Java platform (e.g. strings and collections) are handled by Gson without reflection anyway.
+	 */
+	private void readEntities(TypeMirror type, Map<String, EntityModel> entities, Set<TypeElement> referencedElements) {
+		if (type.getKind() == TypeKind.ARRAY) {
+			readEntities(((ArrayType) type).getComponentType(), entities, referencedElements);
+			return;
+		}
+		if (type.getKind() != TypeKind.DECLARED) return;
+		for (TypeMirror typeArgument : ((DeclaredType) type).getTypeArguments()) readEntities(typeArgument, entities, referencedElements);
+
+		TypeElement typeElement = (TypeElement) ((DeclaredType) type).asElement();
+		String name = typeElement.getQualifiedName().toString();
+		if (entities.containsKey(name)) return;
+		entities.put(name, null);
+		Set<Modifier> modifiers = typeElement.getModifiers();
+		if (isPlatformClass(name) || typeElement.getKind() != ElementKind.CLASS
+				|| !modifiers.contains(Modifier.PUBLIC) || modifiers.contains(Modifier.ABSTRACT)
+				|| !typeElement.getTypeParameters().isEmpty()
+				|| (typeElement.getNestingKind() != NestingKind.TOP_LEVEL
+						&& (typeElement.getNestingKind() != NestingKind.MEMBER || !modifiers.contains(Modifier.STATIC)))) return;
+
+		// fields of sub classes first, same as Gson
+		EntityBuilder builder = new EntityBuilder(name);
+		List<VariableElement> fields = new ArrayList<>();
+		for (TypeElement c = typeElement; !c.getQualifiedName().contentEquals(Object.class.getName()); ) {
+			if (isPlatformClass(c.getQualifiedName().toString()) || !c.getTypeParameters().isEmpty()) return;
+			referencedElements.add(c);
+			for (VariableElement field : ElementFilter.fieldsIn(c.getEnclosedElements())) {
+				Set<Modifier> fieldModifiers = field.getModifiers();
+				if (fieldModifiers.contains(Modifier.STATIC) || fieldModifiers.contains(Modifier.TRANSIENT)) continue;
+				String serializedName = null;
+				for (AnnotationMirror annotation : field.getAnnotationMirrors()) {
+					if (getTypeName(annotation).equals(SERIALIZED_NAME_ANNOTATION)) serializedName = readValue(annotation);
+				}
+				builder.addField(
+						field.getSimpleName().toString(),
+						field.asType().toString(),
+						serializedName,
+						fieldModifiers.contains(Modifier.PUBLIC),
+						fieldModifiers.contains(Modifier.FINAL));
+				fields.add(field);
+			}
+			if (c.getSuperclass().getKind() != TypeKind.DECLARED) break;
+			c = (TypeElement) types.asElement(c.getSuperclass());
+		}
+		for (ExecutableElement method : ElementFilter.methodsIn(elements.getAllMembers(typeElement))) {
+			Set<Modifier> methodModifiers = method.getModifiers();
+			if (!methodModifiers.contains(Modifier.PUBLIC) || methodModifiers.contains(Modifier.STATIC)) continue;
+			builder.addMethod(method.getSimpleName().toString(), method.getReturnType().toString(), getParameterTypes(method));
+		}
+		for (ExecutableElement constructor : ElementFilter.constructorsIn(typeElement.getEnclosedElements())) {
+			if (!constructor.getModifiers().contains(Modifier.PUBLIC)) continue;
+			List<String> paramNames = new ArrayList<>();
+			for (VariableElement param : constructor.getParameters()) paramNames.add(param.getSimpleName().toString());
+			builder.addConstructor(paramNames, getParameterTypes(constructor));
+		}
+
+		EntityModel entity = builder.build();
+		if (entity == null) return;
+		entities.put(name, entity);
+		for (VariableElement field : fields) readEntities(field.asType(), entities, referencedElements);
+	}
+
+
+	private static List<String> getParameterTypes(ExecutableElement method) {
+		List<String> types = new ArrayList<>();
+		for (VariableElement param : method.getParameters()) types.add(param.asType().toString());
+		return types;
+	}
+
+
+	private static boolean isPlatformClass(String name) {
+		return name.startsWith("java.") || name.startsWith("javax.");
+	}
+
+
+	/**
+	 * @return the evaluated value of an annotation, multiple values (e.g. content types) are
+	 * separated by commas
+	 */
+	private String readValue(AnnotationMirror annotation) {
+		for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> entry : elements.getElementValuesWithDefaults(annotation).entrySet()) {
+			if (!entry.getKey().getSimpleName().contentEquals("value")) continue;
+
+			Object value = entry.getValue().getValue();
+			if (!(value instanceof List)) return value.toString();
+
+			StringBuilder builder = new StringBuilder();
+			for (Object arrayValue : (List<?>) value) {
+				if (builder.length() > 0) builder.append(", ");
+				builder.append(((AnnotationValue) arrayValue).getValue());
+			}
+			return builder.toString();
+		}
+		return null;
+	}
+
+
+	private static String getTypeName(AnnotationMirror annotation) {
+		return ((TypeElement) annotation.getAnnotationType().asElement()).getQualifiedName().toString();
+	}
+
+}
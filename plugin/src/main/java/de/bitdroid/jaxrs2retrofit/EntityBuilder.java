@@ -0,0 +1,161 @@
+package de.bitdroid.jaxrs2retrofit;
+
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import de.bitdroid.jaxrs2retrofit.model.EntityModel;
+import de.bitdroid.jaxrs2retrofit.model.PropertyModel;
+
+/**
+ * Collects the members of one entity class (independent of how the class has been read) and
+ * decides how each field serialized by Gson can be accessed without reflection. Readers pass the
+ * serialized fields (non static and non transient) of the class and its super classes, as well
+ * as the public methods and constructors.
+ */
+final class EntityBuilder {
+
+	private final String qualifiedName;
+	private final List<Field> fields = new ArrayList<>();
+	private final Map<String, String> getterTypes = new HashMap<>();
+	private final Map<String, String> setterTypes = new HashMap<>();
+	private final List<Map<String, String>> constructors = new ArrayList<>();
+	private final List<List<String>> constructorParamNames = new ArrayList<>();
+
+	/**
+	 * @param qualifiedName canonical name of the class
+	 */
+	EntityBuilder(String qualifiedName) {
+		this.qualifiedName = qualifiedName;
+	}
+
+
+	/**
+	 * @param serializedName value of the Gson {@code SerializedName} annotation or null
+	 * @param isPublic whether the field can be read directly
+	 * @param isFinal whether the field cannot be written directly
+	 */
+	void addField(String name, String type, String serializedName, boolean isPublic, boolean isFinal) {
+		fields.add(new Field(name, type, serializedName == null ? name : serializedName, isPublic, isFinal));
+	}
+
+
+	/**
+	 * @param paramTypes the types of all params of a public method, which is not static
+	 */
+	void addMethod(String name, String returnType, List<String> paramTypes) {
+		if (paramTypes.isEmpty()) getterTypes.put(name, returnType);
+		else if (paramTypes.size() == 1) setterTypes.put(name, paramTypes.get(0));
+	}
+
+
+	/**
+	 * @param paramNames names of all params of a public constructor, empty for the default constructor
+	 */
+	void addConstructor(List<String> paramNames, List<String> paramTypes) {
+		Map<String, String> params = new HashMap<>();
+		for (int i = 0; i < paramNames.size(); ++i) params.put(paramNames.get(i), paramTypes.get(i));
+		constructors.add(params);
+		constructorParamNames.add(paramNames);
+	}
+
+
+	/**
+	 * @return the entity or null if a field cannot be accessed without reflection
+	 */
+	EntityModel build() {
+		Set<String> jsonNames = new HashSet<>();
+		List<String> getters = new ArrayList<>();
+		for (Field field : fields) {
+			// Gson fails on duplicate names, so should the generated adapters
+			if (!jsonNames.add(field.jsonName)) return null;
+			String getter = null;
+			if (!field.isPublic) {
+				getter = findMethod(getterTypes, "get", field);
+				if (getter == null && field.type.equals("boolean")) getter = findMethod(getterTypes, "is", field);
+				if (getter == null) return null;
+			}
+			getters.add(getter);
+		}
+
+		// prefer default constructor and setters, as Gson does not call any constructor either
+		if (constructorParamNames.contains(new ArrayList<String>())) {
+			List<String> setters = findSetters(new HashSet<String>());
+			if (setters != null) return createEntity(getters, setters, null);
+		}
+
+		// otherwise a constructor whose params match fields by name, all other fields need setters
+		for (int i = 0; i < constructors.size(); ++i) {
+			Map<String, String> params = constructors.get(i);
+			int matchingParams = 0;
+			for (Field field : fields) {
+				if (field.type.equals(params.get(field.name))) ++matchingParams;
+			}
+			if (params.isEmpty() || matchingParams != params.size()) continue;
+			List<String> setters = findSetters(params.keySet());
+			if (setters != null) return createEntity(getters, setters, constructorParamNames.get(i));
+		}
+		return null;
+	}
+
+
+	/**
+	 * @param constructorParams fields which do not need setters
+	 * @return the setter of each field (null if set directly or via the constructor), or null
+	 * if a field cannot be set
+	 */
+	private List<String> findSetters(Set<String> constructorParams) {
+		List<String> setters = new ArrayList<>();
+		for (Field field : fields) {
+			String setter = null;
+			if (!constructorParams.contains(field.name) && (!field.isPublic || field.isFinal)) {
+				setter = findMethod(setterTypes, "set", field);
+				if (setter == null) return null;
+			}
+			setters.add(setter);
+		}
+		return setters;
+	}
+
+
+	private EntityModel createEntity(List<String> getters, List<String> setters, List<String> constructorParams) {
+		List<PropertyModel> properties = new ArrayList<>();
+		for (int i = 0; i < fields.size(); ++i) {
+			Field field = fields.get(i);
+			properties.add(new PropertyModel(
+					field.name,
+					field.jsonName,
+					field.type,
+					getters.get(i),
+					setters.get(i)));
+		}
+		return new EntityModel(qualifiedName, properties, constructorParams);
+	}
+
+
+	private static String findMethod(Map<String, String> methodTypes, String prefix, Field field) {
+		String name = prefix + Character.toUpperCase(field.name.charAt(0)) + field.name.substring(1);
+		return field.type.equals(methodTypes.get(name)) ? name : null;
+	}
+
+
+	private static final class Field {
+
+		private final String name, type, jsonName;
+		private final boolean isPublic, isFinal;
+
+		public Field(String name, String type, String jsonName, boolean isPublic, boolean isFinal) {
+			this.name = name;
+			this.type = type;
+			this.jsonName = jsonName;
+			this.isPublic = isPublic;
+			this.isFinal = isFinal;
+		}
+
+	}
+
+}
@@ -0,0 +1,196 @@
+package de.bitdroid.jaxrs2retrofit;
+
+
+import com.google.gson.GsonBuilder;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import de.bitdroid.jaxrs2retrofit.model.MethodModel;
+import de.bitdroid.jaxrs2retrofit.model.ResourceModel;
+
+/**
+ * Collects timings and counts of one generation run and writes them as JSON report.
+ * Can be used from multiple threads at once, phase times are summed over all threads.
+ */
+public final class GenerationMetrics {
+
+	public enum Phase {
+
+		/** finding source files and skipping those without resources */
+		SCAN("scan"),
+		/** parsing source or class files */
+		PARSE("parse"),
+		/** reading resources from parsed sources, which is mostly evaluating annotation values */
+		CONSTANT_EVALUATION("constantEvaluation"),
+		/** building the Retrofit files */
+		SPEC_BUILDING("specBuilding"),
+		/** comparing and writing generated files */
+		WRITING("writing");
+
+		private final String key;
+
+		Phase(String key) {
+			this.key = key;
+		}
+
+	}
+
+	private static final Charset CHARSET = Charset.forName("UTF-8");
+	private static final double NANOS_PER_MILLI = 1000 * 1000;
+
+	private final long startTime = System.nanoTime();
+	private final Map<Phase, AtomicLong> phaseTimes = new EnumMap<>(Phase.class);
+	private final ConcurrentMap<String, Long> classTimes = new ConcurrentHashMap<>();
+	private final AtomicInteger
+			resourceCount = new AtomicInteger(),
+			methodCount = new AtomicInteger(),
+			paramCount = new AtomicInteger(),
+			cacheHitCount = new AtomicInteger(),
+			cacheMissCount = new AtomicInteger(),
+			writtenFileCount = new AtomicInteger(),
+			unchangedFileCount = new AtomicInteger(),
+			filteredFileCount = new AtomicInteger();
+
+	public GenerationMetrics() {
+		// populate all phases upfront, the map itself is never modified afterwards
+		for (Phase phase : Phase.values()) phaseTimes.put(phase, new AtomicLong());
+	}
+
+
+	/**
+	 * @param startTime start of the measured time as returned by {@link System#nanoTime()}
+	 */
+	public void addPhaseTime(Phase phase, long startTime) {
+		phaseTimes.get(phase).addAndGet(System.nanoTime() - startTime);
+	}
+
+
+	public void addClassTime(String qualifiedName, long nanos) {
+		classTimes.put(qualifiedName, nanos);
+	}
+
+
+	public void addGeneratedResource(ResourceModel resource) {
+		resourceCount.incrementAndGet();
+		methodCount.addAndGet(resource.getMethods().size());
+		for (MethodModel method : resource.getMethods()) {
+			paramCount.addAndGet(method.getParams().size());
+		}
+	}
+
+
+	public void addCacheResult(boolean hit) {
+		if (hit) cacheHitCount.incrementAndGet();
+		else cacheMissCount.incrementAndGet();
+	}
+
+
+	public void addWrittenFile(boolean written) {
+		if (written) writtenFileCount.incrementAndGet();
+		else unchangedFileCount.incrementAndGet();
+	}
+
+
+	/**
+	 * Counts a source file that was skipped before parsing it.
+	 */
+	public void addFilteredFile() {
+		filteredFileCount.incrementAndGet();
+	}
+
+
+	public long getPhaseTime(Phase phase) {
+		return phaseTimes.get(phase).get();
+	}
+
+
+	public int getResourceCount() {
+		return resourceCount.get();
+	}
+
+
+	public int getMethodCount() {
+		return methodCount.get();
+	}
+
+
+	public int getParamCount() {
+		return paramCount.get();
+	}
+
+
+	public int getCacheHitCount() {
+		return cacheHitCount.get();
+	}
+
+
+	public int getCacheMissCount() {
+		return cacheMissCount.get();
+	}
+
+
+	public int getWrittenFileCount() {
+		return writtenFileCount.get();
+	}
+
+
+	public int getUnchangedFileCount() {
+		return unchangedFileCount.get();
+	}
+
+
+	public int getFilteredFileCount() {
+		return filteredFileCount.get();
+	}
+
+
+	/**
+	 * Writes all metrics as JSON, times are in milliseconds.
+	 */
+	public void writeReport(File reportFile) throws IOException {
+		Map<String, Object> report = new LinkedHashMap<>();
+		report.put("totalTime", toMillis(System.nanoTime() - startTime));
+
+		Map<String, Object> phases = new LinkedHashMap<>();
+		for (Phase phase : Phase.values()) phases.put(phase.key, toMillis(getPhaseTime(phase)));
+		report.put("phaseTimes", phases);
+
+		report.put("resources", getResourceCount());
+		report.put("methods", getMethodCount());
+		report.put("params", getParamCount());
+		report.put("cacheHits", getCacheHitCount());
+		report.put("cacheMisses", getCacheMissCount());
+		report.put("writtenFiles", getWrittenFileCount());
+		report.put("unchangedFiles", getUnchangedFileCount());
+		report.put("filteredFiles", getFilteredFileCount());
+
+		Map<String, Object> classes = new TreeMap<>();
+		for (Map.Entry<String, Long> entry : classTimes.entrySet()) classes.put(entry.getKey(), toMillis(entry.getValue()));
+		report.put("classTimes", classes);
+
+		File reportDir = reportFile.getAbsoluteFile().getParentFile();
+		if (reportDir != null) Files.createDirectories(reportDir.toPath());
+		try (Writer writer = new OutputStreamWriter(Files.newOutputStream(reportFile.toPath()), CHARSET)) {
+			new GsonBuilder().setPrettyPrinting().create().toJson(report, writer);
+		}
+	}
+
+
+	private static double toMillis(long nanos) {
+		return Math.round(nanos / NANOS_PER_MILLI * 1000) / 1000.0;
+	}
+
+}
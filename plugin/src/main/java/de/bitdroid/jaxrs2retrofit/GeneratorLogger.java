@@ -0,0 +1,41 @@
+package de.bitdroid.jaxrs2retrofit;
+
+
+/**
+ * Receives progress messages of the {@link RetrofitGenerator}. Since one generator can be used
+ * from multiple threads at once, implementations have to be thread safe.
+ */
+public interface GeneratorLogger {
+
+	/**
+	 * Prints all messages to {@link System#out}.
+	 */
+	GeneratorLogger SYSTEM_OUT = new GeneratorLogger() {
+		@Override
+		public void info(String message) {
+			System.out.println(message);
+		}
+	};
+
+	/**
+	 * Prints all messages to {@link System#err}, e.g. when the generated files are printed to {@link System#out}.
+	 */
+	GeneratorLogger SYSTEM_ERR = new GeneratorLogger() {
+		@Override
+		public void info(String message) {
+			System.err.println(message);
+		}
+	};
+
+	/**
+	 * Drops all messages.
+	 */
+	GeneratorLogger NONE = new GeneratorLogger() {
+		@Override
+		public void info(String message) { }
+	};
+
+
+	void info(String message);
+
+}
@@ -4,16 +4,24 @@ package de.bitdroid.jaxrs2retrofit;
 import de.bitdroid.jaxrs2retrofit.converter.ParamConverterManager;
 
 /**
- * Collection of configurable options for the Retrofit generator.
+ * Collection of configurable options for the Retrofit generator. Immutable, except for the
+ * registered converters of the {@link ParamConverterManager}.
  */
-public class GeneratorSettings {
+public final class GeneratorSettings {
 
 	private final String packageName;
-	private final String excludedClassNamesRegex;
+	private final String includedClassNamesRegex, excludedClassNamesRegex;
+	private final ClassNameFilter classNameFilter;
 	private final ParamConverterManager paramConverterManager;
 	private final boolean generateSynchronousMethods, generateCallbackMethods, generateRxJavaMethods;
+	private final boolean includeGenerationDate;
+	private final RetrofitVersion retrofitVersion;
+	private final boolean generateImplementations;
+	private final boolean generateJsonAdapters;
 
 	/**
+	 * Settings which include the generation date in the generated files, see {@link Builder}
+	 * for all other options.
 	 * @param packageName package name of the generated classes
 	 * @param excludedClassNamesRegex regex for excluding JaxRs resources
 	 * @param paramConverterManager manager for all JaxRs param conversions
@@ -29,22 +37,51 @@ public class GeneratorSettings {
 			boolean generateRxJavaMethods,
 			ParamConverterManager paramConverterManager) {
 
-		this.packageName = packageName;
-		this.excludedClassNamesRegex = excludedClassNamesRegex;
-		this.generateSynchronousMethods = generateSynchronousMethods;
-		this.generateCallbackMethods = generateCallbackMethods;
-		this.generateRxJavaMethods = generateRxJavaMethods;
-		this.paramConverterManager = paramConverterManager;
+		this(new Builder(packageName)
+				.setExcludedClassNamesRegex(excludedClassNamesRegex)
+				.setGenerateSynchronousMethods(generateSynchronousMethods)
+				.setGenerateCallbackMethods(generateCallbackMethods)
+				.setGenerateRxJavaMethods(generateRxJavaMethods)
+				.setParamConverterManager(paramConverterManager));
+	}
+
+	private GeneratorSettings(Builder builder) {
+		if (builder.generateImplementations && builder.retrofitVersion != RetrofitVersion.RETROFIT_1) {
+			throw new IllegalArgumentException("implementations can only be generated for Retrofit 1");
+		}
+		this.packageName = builder.packageName;
+		this.includedClassNamesRegex = builder.includedClassNamesRegex;
+		this.excludedClassNamesRegex = builder.excludedClassNamesRegex;
+		this.classNameFilter = new ClassNameFilter(includedClassNamesRegex, excludedClassNamesRegex);
+		this.generateSynchronousMethods = builder.generateSynchronousMethods;
+		this.generateCallbackMethods = builder.generateCallbackMethods;
+		this.generateRxJavaMethods = builder.generateRxJavaMethods;
+		this.paramConverterManager = builder.paramConverterManager;
+		this.includeGenerationDate = builder.includeGenerationDate;
+		this.retrofitVersion = builder.retrofitVersion;
+		this.generateImplementations = builder.generateImplementations;
+		this.generateJsonAdapters = builder.generateJsonAdapters;
 	}
 
 	public String getPackageName() {
 		return packageName;
 	}
 
+	public String getIncludedClassNamesRegex() {
+		return includedClassNamesRegex;
+	}
+
 	public String getExcludedClassNamesRegex() {
 		return excludedClassNamesRegex;
 	}
 
+	/**
+	 * @return the compiled include and exclude regex
+	 */
+	public ClassNameFilter getClassNameFilter() {
+		return classNameFilter;
+	}
+
 	public boolean getGenerateSynchronousMethods() {
 		return generateSynchronousMethods;
 	}
@@ -61,4 +98,140 @@ public class GeneratorSettings {
 		return paramConverterManager;
 	}
 
+	public boolean getIncludeGenerationDate() {
+		return includeGenerationDate;
+	}
+
+	public RetrofitVersion getRetrofitVersion() {
+		return retrofitVersion;
+	}
+
+	public boolean getGenerateImplementations() {
+		return generateImplementations;
+	}
+
+	public boolean getGenerateJsonAdapters() {
+		return generateJsonAdapters;
+	}
+
+
+	/**
+	 * Creates settings option by option. Options which are not set generate synchronous, callback
+	 * and RxJava methods for Retrofit 1 with the default converters, for all JaxRs resources and
+	 * with the generation date.
+	 */
+	public static final class Builder {
+
+		private final String packageName;
+		private String includedClassNamesRegex = null;
+		private String excludedClassNamesRegex = "";
+		private boolean generateSynchronousMethods = true, generateCallbackMethods = true, generateRxJavaMethods = true;
+		private ParamConverterManager paramConverterManager = ParamConverterManager.getDefaultInstance();
+		private boolean includeGenerationDate = true;
+		private RetrofitVersion retrofitVersion = RetrofitVersion.RETROFIT_1;
+		private boolean generateImplementations = false;
+		private boolean generateJsonAdapters = false;
+
+		/**
+		 * @param packageName package name of the generated classes
+		 */
+		public Builder(String packageName) {
+			this.packageName = packageName;
+		}
+
+		/**
+		 * @param includedClassNamesRegex regex for including JaxRs resources, null or empty for all resources
+		 */
+		public Builder setIncludedClassNamesRegex(String includedClassNamesRegex) {
+			this.includedClassNamesRegex = includedClassNamesRegex;
+			return this;
+		}
+
+		/**
+		 * @param excludedClassNamesRegex regex for excluding JaxRs resources
+		 */
+		public Builder setExcludedClassNamesRegex(String excludedClassNamesRegex) {
+			this.excludedClassNamesRegex = excludedClassNamesRegex;
+			return this;
+		}
+
+		/**
+		 * @param generateSynchronousMethods whether blocking Retrofit methods should be generated
+		 */
+		public Builder setGenerateSynchronousMethods(boolean generateSynchronousMethods) {
+			this.generateSynchronousMethods = generateSynchronousMethods;
+			return this;
+		}
+
+		/**
+		 * @param generateCallbackMethods whether Retrofit methods using {@link retrofit.Callback} should be generated.
+		 */
+		public Builder setGenerateCallbackMethods(boolean generateCallbackMethods) {
+			this.generateCallbackMethods = generateCallbackMethods;
+			return this;
+		}
+
+		/**
+		 * @param generateRxJavaMethods whether Retrofit methods returning {@link rx.Observable} should be generated.
+		 */
+		public Builder setGenerateRxJavaMethods(boolean generateRxJavaMethods) {
+			this.generateRxJavaMethods = generateRxJavaMethods;
+			return this;
+		}
+
+		/**
+		 * @param paramConverterManager manager for all JaxRs param conversions
+		 */
+		public Builder setParamConverterManager(ParamConverterManager paramConverterManager) {
+			this.paramConverterManager = paramConverterManager;
+			return this;
+		}
+
+		/**
+		 * @param includeGenerationDate whether the javadoc of generated files should contain the generation date.
+		 *                              Without it the same input will always result in the same output.
+		 */
+		public Builder setIncludeGenerationDate(boolean includeGenerationDate) {
+			this.includeGenerationDate = includeGenerationDate;
+			return this;
+		}
+
+		/**
+		 * @param retrofitVersion Retrofit API the files are generated for. Retrofit 2 methods return
+		 *                        calls, which can be executed synchronously or with a callback, hence
+		 *                        one method is generated for synchronous and callback methods.
+		 */
+		public Builder setRetrofitVersion(RetrofitVersion retrofitVersion) {
+			this.retrofitVersion = retrofitVersion;
+			return this;
+		}
+
+		/**
+		 * @param generateImplementations whether every Retrofit interface should contain a class implementing it,
+		 *                                which executes requests without a proxy. Retrofit 1 only.
+		 */
+		public Builder setGenerateImplementations(boolean generateImplementations) {
+			this.generateImplementations = generateImplementations;
+			return this;
+		}
+
+		/**
+		 * @param generateJsonAdapters whether every Retrofit interface should contain Gson type adapters for
+		 *                             the entities of the resource (e.g. request and response bodies), which
+		 *                             do not use reflection.
+		 */
+		public Builder setGenerateJsonAdapters(boolean generateJsonAdapters) {
+			this.generateJsonAdapters = generateJsonAdapters;
+			return this;
+		}
+
+		/**
+		 * @throws IllegalArgumentException if implementations are requested for Retrofit 2
+		 */
+		public GeneratorSettings build() {
+			return new GeneratorSettings(this);
+		}
+
+	}
+
 }
@@ -0,0 +1,55 @@
+package de.bitdroid.jaxrs2retrofit;
+
+
+import com.squareup.javapoet.JavaFile;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.util.Arrays;
+
+/**
+ * Writes generated files to an output directory, but only if their content has changed.
+ * Untouched files keep their modification date, which allows Gradle and javac to skip
+ * recompiling classes that depend on them. Can be used from multiple threads at once.
+ */
+public final class JavaFileWriter {
+
+	private static final Charset CHARSET = Charset.forName("UTF-8");
+
+	private final File outputDir;
+
+	public JavaFileWriter(File outputDir) {
+		this.outputDir = outputDir;
+	}
+
+
+	/**
+	 * @return true if the file was written, false if an identical file already existed
+	 */
+	public boolean write(JavaFile javaFile) throws IOException {
+		File file = getFile(javaFile);
+		byte[] content = javaFile.toString().getBytes(CHARSET);
+
+		// compare sizes first to avoid reading files which have obviously changed
+		if (file.isFile() && file.length() == content.length
+				&& Arrays.equals(content, Files.readAllBytes(file.toPath()))) {
+			return false;
+		}
+
+		Files.createDirectories(file.getParentFile().toPath());
+		Files.write(file.toPath(), content);
+		return true;
+	}
+
+
+	/**
+	 * @return the location of a generated file inside the output directory
+	 */
+	public File getFile(JavaFile javaFile) {
+		String packageDir = javaFile.packageName.replace('.', File.separatorChar);
+		return new File(new File(outputDir, packageDir), javaFile.typeSpec.name + ".java");
+	}
+
+}
@@ -0,0 +1,180 @@
+package de.bitdroid.jaxrs2retrofit;
+
+
+import com.squareup.javapoet.JavaFile;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.annotation.processing.SupportedOptions;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.TypeElement;
+import javax.tools.Diagnostic;
+import javax.tools.JavaFileObject;
+import javax.ws.rs.Path;
+
+import de.bitdroid.jaxrs2retrofit.model.ResourceModel;
+
+/**
+ * Generates Retrofit files while compiling the JaxRs resources, which saves parsing
+ * the sources a second time. Since the plugin jar might end up on the processor path
+ * unintentionally, nothing is generated unless the {@link #OPTION_PACKAGE} option is set.
+ * <p>
+ * For Gradle's incremental annotation processing the processor is isolating, unless JSON
+ * adapters or implementations are generated: adapters depend on entity classes in other files
+ * as well and all implementations share one support class.
+ */
+@SupportedAnnotationTypes("javax.ws.rs.Path")
+@SupportedOptions({
+		JaxRs2RetrofitProcessor.OPTION_PACKAGE,
+		JaxRs2RetrofitProcessor.OPTION_INCLUDED_CLASSES,
+		JaxRs2RetrofitProcessor.OPTION_EXCLUDED_CLASSES,
+		JaxRs2RetrofitProcessor.OPTION_SYNCHRONOUS_METHODS,
+		JaxRs2RetrofitProcessor.OPTION_CALLBACK_METHODS,
+		JaxRs2RetrofitProcessor.OPTION_RX_JAVA_METHODS,
+		JaxRs2RetrofitProcessor.OPTION_GENERATION_DATE,
+		JaxRs2RetrofitProcessor.OPTION_RETROFIT_VERSION,
+		JaxRs2RetrofitProcessor.OPTION_IMPLEMENTATIONS,
+		JaxRs2RetrofitProcessor.OPTION_JSON_ADAPTERS})
+public final class JaxRs2RetrofitProcessor extends AbstractProcessor {
+
+	public static final String
+			OPTION_PACKAGE = "jaxrs2retrofit.packageName",
+			OPTION_INCLUDED_CLASSES = "jaxrs2retrofit.includedClassNamesRegex",
+			OPTION_EXCLUDED_CLASSES = "jaxrs2retrofit.excludedClassNamesRegex",
+			OPTION_SYNCHRONOUS_METHODS = "jaxrs2retrofit.generateSynchronousMethods",
+			OPTION_CALLBACK_METHODS = "jaxrs2retrofit.generateCallbackMethods",
+			OPTION_RX_JAVA_METHODS = "jaxrs2retrofit.generateRxJavaMethods",
+			OPTION_GENERATION_DATE = "jaxrs2retrofit.includeGenerationDate",
+			OPTION_RETROFIT_VERSION = "jaxrs2retrofit.retrofitVersion",
+			OPTION_IMPLEMENTATIONS = "jaxrs2retrofit.generateImplementations",
+			OPTION_JSON_ADAPTERS = "jaxrs2retrofit.generateJsonAdapters";
+
+	private static final String
+			GRADLE_ISOLATING = "org.gradle.annotation.processing.isolating",
+			GRADLE_AGGREGATING = "org.gradle.annotation.processing.aggregating";
+
+	private RetrofitGenerator generator; // null if disabled
+	private ElementResourceReader reader;
+	private boolean aggregating;
+	private boolean supportWritten;
+
+	@Override
+	public synchronized void init(ProcessingEnvironment processingEnv) {
+		super.init(processingEnv);
+		Map<String, String> options = processingEnv.getOptions();
+		if (!options.containsKey(OPTION_PACKAGE)) return;
+
+		String excludedClassNamesRegex = options.get(OPTION_EXCLUDED_CLASSES);
+		String retrofitVersion = options.get(OPTION_RETROFIT_VERSION);
+		boolean generateImplementations = getBooleanOption(options, OPTION_IMPLEMENTATIONS, false);
+		boolean generateJsonAdapters = getBooleanOption(options, OPTION_JSON_ADAPTERS, false);
+		this.aggregating = generateImplementations || generateJsonAdapters;
+		// nothing to share unless implementations are generated
+		this.supportWritten = !generateImplementations;
+		this.generator = new RetrofitGenerator(
+				new GeneratorSettings.Builder(options.get(OPTION_PACKAGE))
+						.setIncludedClassNamesRegex(options.get(OPTION_INCLUDED_CLASSES))
+						.setExcludedClassNamesRegex((excludedClassNamesRegex == null) ? "" : excludedClassNamesRegex)
+						.setGenerateSynchronousMethods(getBooleanOption(options, OPTION_SYNCHRONOUS_METHODS, true))
+						.setGenerateCallbackMethods(getBooleanOption(options, OPTION_CALLBACK_METHODS, true))
+						.setGenerateRxJavaMethods(getBooleanOption(options, OPTION_RX_JAVA_METHODS, true))
+						.setIncludeGenerationDate(getBooleanOption(options, OPTION_GENERATION_DATE, false))
+						.setRetrofitVersion((retrofitVersion == null) ? RetrofitVersion.RETROFIT_1 : RetrofitVersion.forNumber(Integer.parseInt(retrofitVersion)))
+						.setGenerateImplementations(generateImplementations)
+						.setGenerateJsonAdapters(generateJsonAdapters)
+						.build(),
+				GeneratorLogger.NONE);
+		this.reader = new ElementResourceReader(processingEnv.getElementUtils(), processingEnv.getTypeUtils(), generateJsonAdapters);
+	}
+
+
+	/**
+	 * Also tells Gradle (which registers this processor as dynamic) whether the processor is
+	 * isolating or aggregating.
+	 */
+	@Override
+	public Set<String> getSupportedOptions() {
+		Set<String> options = new HashSet<>(super.getSupportedOptions());
+		options.add(aggregating ? GRADLE_AGGREGATING : GRADLE_ISOLATING);
+		return options;
+	}
+
+
+	@Override
+	public SourceVersion getSupportedSourceVersion() {
+		return SourceVersion.latestSupported();
+	}
+
+
+	@Override
+	public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+		if (generator == null) return false;
+
+		List<Element> generatedResources = new ArrayList<>();
+		for (Element element : roundEnv.getElementsAnnotatedWith(Path.class)) {
+			// methods can be annotated with @Path as well
+			if (element.getKind() != ElementKind.CLASS && element.getKind() != ElementKind.INTERFACE) continue;
+			TypeElement jaxRsClass = (TypeElement) element;
+
+			// entities are only read for JSON adapters, in which case the processor is aggregating
+			Set<TypeElement> originatingElements = new LinkedHashSet<>();
+			originatingElements.add(jaxRsClass);
+			ResourceModel resource = reader.readResource(jaxRsClass, originatingElements);
+			JavaFile javaFile = (resource == null) ? null : generator.createResource(resource);
+			if (javaFile == null) continue;
+
+			// isolating processors need exactly one originating element per file
+			writeFile(javaFile, jaxRsClass, originatingElements.toArray(new Element[originatingElements.size()]));
+			generatedResources.add(jaxRsClass);
+		}
+
+		// implementations share one class, which is written with the first resources
+		if (!supportWritten && !generatedResources.isEmpty()) {
+			writeFile(
+					generator.createImplementationSupport(),
+					generatedResources.get(0),
+					generatedResources.toArray(new Element[generatedResources.size()]));
+			supportWritten = true;
+		}
+
+		// other processors might be interested in @Path as well
+		return false;
+	}
+
+
+	private void writeFile(JavaFile javaFile, Element jaxRsClass, Element[] originatingElements) {
+		try {
+			JavaFileObject sourceFile = processingEnv.getFiler().createSourceFile(
+					javaFile.packageName + "." + javaFile.typeSpec.name,
+					originatingElements);
+			try (Writer writer = sourceFile.openWriter()) {
+				javaFile.writeTo(writer);
+			}
+		} catch (IOException ioe) {
+			processingEnv.getMessager().printMessage(
+					Diagnostic.Kind.ERROR,
+					"Failed to write Retrofit file for " + jaxRsClass + ": " + ioe.getMessage(),
+					jaxRsClass);
+		}
+	}
+
+
+	private static boolean getBooleanOption(Map<String, String> options, String key, boolean defaultValue) {
+		String value = options.get(key);
+		return (value == null) ? defaultValue : Boolean.parseBoolean(value);
+	}
+
+}
@@ -0,0 +1,285 @@
+package de.bitdroid.jaxrs2retrofit;
+
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.TypeAdapter;
+import com.google.gson.TypeAdapterFactory;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import com.squareup.javapoet.AnnotationSpec;
+import com.squareup.javapoet.ArrayTypeName;
+import com.squareup.javapoet.ClassName;
+import com.squareup.javapoet.MethodSpec;
+import com.squareup.javapoet.ParameterizedTypeName;
+import com.squareup.javapoet.TypeName;
+import com.squareup.javapoet.TypeSpec;
+import com.squareup.javapoet.TypeVariableName;
+import com.squareup.javapoet.WildcardTypeName;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import javax.lang.model.element.Modifier;
+
+import de.bitdroid.jaxrs2retrofit.model.EntityModel;
+import de.bitdroid.jaxrs2retrofit.model.PropertyModel;
+import retrofit.converter.GsonConverter;
+
+/**
+ * Creates a Gson {@link TypeAdapterFactory} for the entities of one resource. The generated
+ * adapters read and write the fields of entities via getters, setters and constructors, hence
+ * Gson does not have to inspect the classes via reflection. The JSON documents are the same as
+ * those of the reflection based adapters of Gson, except that fields are not serialized with
+ * the adapter of their runtime type.
+ */
+final class JsonAdapterBuilder {
+
+	static final String CLASS_NAME = "JsonAdapters";
+
+	private static final String ADAPTER_CLASS_SUFFIX = "Adapter";
+	private static final String ADAPTER_FIELD_SUFFIX = "Adapter";
+	private static final ClassName RETROFIT_2_CONVERTER_FACTORY = ClassName.get("retrofit2", "Converter", "Factory");
+	private static final ClassName RETROFIT_2_GSON_CONVERTER_FACTORY = ClassName.get("retrofit2.converter.gson", "GsonConverterFactory");
+
+	private final TypeNameResolver typeResolver;
+	private final TypeSpec.Builder factoryBuilder;
+	private final MethodSpec.Builder createMethodBuilder;
+	private final Set<String> adapterNames = new HashSet<>();
+
+	private JsonAdapterBuilder(TypeNameResolver typeResolver, RetrofitVersion retrofitVersion) {
+		this.typeResolver = typeResolver;
+		this.factoryBuilder = TypeSpec
+				.classBuilder(CLASS_NAME)
+				.addModifiers(Modifier.PUBLIC, Modifier.STATIC, Modifier.FINAL)
+				.addSuperinterface(TypeAdapterFactory.class)
+				.addJavadoc("Gson type adapters of the entities of this resource, which do not use reflection.\n");
+
+		if (retrofitVersion == RetrofitVersion.RETROFIT_1) {
+			factoryBuilder.addMethod(MethodSpec.methodBuilder("createConverter")
+					.addJavadoc("@return a converter using these adapters\n")
+					.addModifiers(Modifier.PUBLIC, Modifier.STATIC)
+					.returns(GsonConverter.class)
+					.addStatement("return new $T(new $T().registerTypeAdapterFactory(new $L()).create())",
+							GsonConverter.class, GsonBuilder.class, CLASS_NAME)
+					.build());
+		} else {
+			factoryBuilder.addMethod(MethodSpec.methodBuilder("createConverterFactory")
+					.addJavadoc("@return a converter factory using these adapters\n")
+					.addModifiers(Modifier.PUBLIC, Modifier.STATIC)
+					.returns(RETROFIT_2_CONVERTER_FACTORY)
+					.addStatement("return $T.create(new $T().registerTypeAdapterFactory(new $L()).create())",
+							RETROFIT_2_GSON_CONVERTER_FACTORY, GsonBuilder.class, CLASS_NAME)
+					.build());
+		}
+
+		TypeVariableName typeVariable = TypeVariableName.get("T");
+		this.createMethodBuilder = MethodSpec.methodBuilder("create")
+				.addAnnotation(Override.class)
+				.addAnnotation(AnnotationSpec.builder(SuppressWarnings.class).addMember("value", "$S", "unchecked").build())
+				.addModifiers(Modifier.PUBLIC)
+				.addTypeVariable(typeVariable)
+				.returns(ParameterizedTypeName.get(ClassName.get(TypeAdapter.class), typeVariable))
+				.addParameter(Gson.class, "gson")
+				.addParameter(ParameterizedTypeName.get(ClassName.get(TypeToken.class), typeVariable), "type")
+				.addStatement("$T rawType = type.getRawType()",
+						ParameterizedTypeName.get(ClassName.get(Class.class), WildcardTypeName.supertypeOf(typeVariable)));
+	}
+
+
+	/**
+	 * @return the factory or null if there are no entities
+	 */
+	static TypeSpec build(List<EntityModel> entities, TypeNameResolver typeResolver, RetrofitVersion retrofitVersion) {
+		JsonAdapterBuilder builder = new JsonAdapterBuilder(typeResolver, retrofitVersion);
+		boolean hasAdapters = false;
+		for (EntityModel entity : entities) {
+			hasAdapters |= builder.addEntity(entity);
+		}
+		return hasAdapters ? builder.build() : null;
+	}
+
+
+	/**
+	 * @return false if the types of the entity cannot be resolved, which leaves it to Gson
+	 */
+	private boolean addEntity(EntityModel entity) {
+		ClassName entityType;
+		List<TypeName> propertyTypes = new ArrayList<>();
+		try {
+			entityType = (ClassName) typeResolver.resolve(entity.getQualifiedName());
+			for (PropertyModel property : entity.getProperties()) propertyTypes.add(typeResolver.resolve(property.getType()));
+		} catch (IllegalArgumentException iae) {
+			return false;
+		}
+
+		String adapterName = entityType.simpleName() + ADAPTER_CLASS_SUFFIX;
+		while (!adapterNames.add(adapterName)) adapterName = "_" + adapterName;
+		createMethodBuilder.addStatement("if (rawType == $T.class) return ($T<T>) new $L(gson)", entityType, TypeAdapter.class, adapterName);
+
+		// names of params and locals must not hide the locals of the properties
+		Set<String> propertyNames = new HashSet<>();
+		for (PropertyModel property : entity.getProperties()) propertyNames.add(property.getName());
+		String reader = getUniqueName("in", propertyNames);
+		String writer = getUniqueName("out", propertyNames);
+		String value = getUniqueName("value", propertyNames);
+
+		TypeSpec.Builder adapterBuilder = TypeSpec
+				.classBuilder(adapterName)
+				.addModifiers(Modifier.PRIVATE, Modifier.STATIC, Modifier.FINAL)
+				.superclass(ParameterizedTypeName.get(ClassName.get(TypeAdapter.class), entityType));
+		MethodSpec.Builder constructorBuilder = MethodSpec.constructorBuilder()
+				.addParameter(Gson.class, "gson");
+		MethodSpec.Builder writeBuilder = MethodSpec.methodBuilder("write")
+				.addAnnotation(Override.class)
+				.addModifiers(Modifier.PUBLIC)
+				.addParameter(JsonWriter.class, writer)
+				.addParameter(entityType, value)
+				.addException(IOException.class)
+				.beginControlFlow("if ($L == null)", value)
+				.addStatement("$L.nullValue()", writer)
+				.addStatement("return")
+				.endControlFlow()
+				.addStatement("$L.beginObject()", writer);
+		MethodSpec.Builder readBuilder = MethodSpec.methodBuilder("read")
+				.addAnnotation(Override.class)
+				.addModifiers(Modifier.PUBLIC)
+				.returns(entityType)
+				.addParameter(JsonReader.class, reader)
+				.addException(IOException.class)
+				.beginControlFlow("if ($L.peek() == $T.NULL)", reader, JsonToken.class)
+				.addStatement("$L.nextNull()", reader)
+				.addStatement("return null")
+				.endControlFlow();
+
+		// properties are either set one by one or read into locals, which are passed to the constructor
+		boolean useConstructor = entity.getConstructorParams() != null;
+		String entityName = getUniqueName("entity", propertyNames);
+		if (useConstructor) {
+			for (int i = 0; i < propertyTypes.size(); ++i) {
+				TypeName type = propertyTypes.get(i);
+				readBuilder.addStatement("$T $L = $L", type, entity.getProperties().get(i).getName(), getDefaultValue(type));
+			}
+		} else {
+			readBuilder.addStatement("$T $L = new $T()", entityType, entityName, entityType);
+		}
+		readBuilder
+				.addStatement("$L.beginObject()", reader)
+				.beginControlFlow("while ($L.hasNext())", reader)
+				.beginControlFlow("switch ($L.nextName())", reader);
+
+		for (int i = 0; i < propertyTypes.size(); ++i) {
+			PropertyModel property = entity.getProperties().get(i);
+			TypeName type = propertyTypes.get(i);
+			TypeName boxedType = TypeNameResolver.box(type);
+			String adapterField = property.getName() + ADAPTER_FIELD_SUFFIX;
+
+			adapterBuilder.addField(ParameterizedTypeName.get(ClassName.get(TypeAdapter.class), boxedType), adapterField, Modifier.PRIVATE, Modifier.FINAL);
+			if (isRawType(type)) constructorBuilder.addStatement("this.$L = gson.getAdapter($T.class)", adapterField, type);
+			else constructorBuilder.addStatement("this.$L = gson.getAdapter(new $T<$T>() { })", adapterField, TypeToken.class, type);
+
+			// null values are skipped by the writer unless Gson has been configured to serialize nulls
+			String getter = (property.getGetter() == null) ? property.getName() : property.getGetter() + "()";
+			writeBuilder
+					.addStatement("$L.name($S)", writer, property.getJsonName())
+					.addStatement("this.$L.write($L, $L.$L)", adapterField, writer, value, getter);
+
+			// JSON nulls do not overwrite primitives, same as with the reflection based adapters
+			String target = useConstructor ? property.getName()
+					: entityName + "." + ((property.getSetter() == null) ? property.getName() : property.getSetter());
+			String assignment = (useConstructor || property.getSetter() == null) ? "$L = $L" : "$L($L)";
+			if (type.isPrimitive()) {
+				readBuilder
+						.addCode("case $S: {\n$>", property.getJsonName())
+						.addStatement("$T $L = this.$L.read($L)", boxedType, value, adapterField, reader)
+						.addStatement("if ($L != null) " + assignment, value, target, value)
+						.addStatement("break")
+						.addCode("$<}\n");
+			} else {
+				readBuilder
+						.addCode("case $S:\n$>", property.getJsonName())
+						.addStatement(assignment, target, "this." + adapterField + ".read(" + reader + ")")
+						.addStatement("break")
+						.addCode("$<");
+			}
+		}
+
+		readBuilder
+				.addCode("default:\n$>")
+				.addStatement("$L.skipValue()", reader)
+				.addCode("$<")
+				.endControlFlow()
+				.endControlFlow()
+				.addStatement("$L.endObject()", reader);
+		if (useConstructor) {
+			readBuilder.addStatement("$T $L = new $T($L)", entityType, entityName, entityType, join(entity.getConstructorParams()));
+			for (PropertyModel property : entity.getProperties()) {
+				if (entity.getConstructorParams().contains(property.getName())) continue;
+				if (property.getSetter() == null) readBuilder.addStatement("$L.$L = $L", entityName, property.getName(), property.getName());
+				else readBuilder.addStatement("$L.$L($L)", entityName, property.getSetter(), property.getName());
+			}
+		}
+		readBuilder.addStatement("return $L", entityName);
+		writeBuilder.addStatement("$L.endObject()", writer);
+
+		factoryBuilder.addType(adapterBuilder
+				.addMethod(constructorBuilder.build())
+				.addMethod(writeBuilder.build())
+				.addMethod(readBuilder.build())
+				.build());
+		return true;
+	}
+
+
+	private TypeSpec build() {
+		return factoryBuilder
+				.addMethod(createMethodBuilder.addStatement("return null").build())
+				.build();
+	}
+
+
+	private static String getDefaultValue(TypeName type) {
+		if (!type.isPrimitive()) return "null";
+		if (type.equals(TypeName.BOOLEAN)) return "false";
+		if (type.equals(TypeName.CHAR)) return "'\\0'";
+		if (type.equals(TypeName.LONG)) return "0L";
+		if (type.equals(TypeName.FLOAT)) return "0F";
+		if (type.equals(TypeName.DOUBLE)) return "0D";
+		return "0";
+	}
+
+
+	/**
+	 * @return whether the type can be written as class literal, e.g. not for generic types
+	 */
+	private static boolean isRawType(TypeName type) {
+		if (type instanceof ArrayTypeName) return isRawType(((ArrayTypeName) type).componentType);
+		return type instanceof ClassName || type.isPrimitive();
+	}
+
+
+	private static String join(List<String> values) {
+		StringBuilder builder = new StringBuilder();
+		for (String value : values) {
+			if (builder.length() > 0) builder.append(", ");
+			builder.append(value);
+		}
+		return builder.toString();
+	}
+
+
+	/**
+	 * @return a name for a local variable which does not hide a property
+	 */
+	private static String getUniqueName(String name, Set<String> propertyNames) {
+		String uniqueName = name;
+		while (propertyNames.contains(uniqueName)) uniqueName += "_";
+		return uniqueName;
+	}
+
+}
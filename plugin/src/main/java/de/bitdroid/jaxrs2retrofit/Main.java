@@ -1,9 +1,5 @@
 package de.bitdroid.jaxrs2retrofit;
 
-import com.squareup.javapoet.JavaFile;
-import com.thoughtworks.qdox.JavaProjectBuilder;
-import com.thoughtworks.qdox.model.JavaClass;
-
 import org.apache.commons.cli.BasicParser;
 import org.apache.commons.cli.CommandLine;
 import org.apache.commons.cli.HelpFormatter;
@@ -11,55 +7,221 @@ import org.apache.commons.cli.OptionBuilder;
 import org.apache.commons.cli.Options;
 
 import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
 
 import de.bitdroid.jaxrs2retrofit.converter.ParamConverterManager;
+import de.bitdroid.jaxrs2retrofit.model.ResourceModel;
+import de.bitdroid.jaxrs2retrofit.model.SourceModel;
 
 public final class Main {
 
 	private static final Options commandLineOptions = new Options();
 	private static final String
 			OPTION_SOURCE = "src",
-			OPTION_EXCLUDED_CLASSES = "exclude";
+			OPTION_CLASSES = "classes",
+			OPTION_EXCLUDED_CLASSES = "exclude",
+			OPTION_WORKERS = "workers",
+			OPTION_CACHE = "cache",
+			OPTION_NO_DATE = "nodate",
+			OPTION_REPORT = "report",
+			OPTION_WATCH = "watch",
+			OPTION_OUT = "out",
+			OPTION_SRC_JAR = "srcjar",
+			OPTION_JAR = "jar",
+			OPTION_JAR_CLASSPATH = "jarclasspath",
+			OPTION_BATCH = "batch",
+			OPTION_RETROFIT_VERSION = "retrofit",
+			OPTION_IMPLEMENTATIONS = "impl",
+			OPTION_JSON_ADAPTERS = "json";
+	static final String INDEX_FILE_SUFFIX = ".index";
 
 	static {
 		commandLineOptions.addOption(OPTION_SOURCE, true, "JAX RS Java input files");
+		commandLineOptions.addOption(OPTION_CLASSES, true, "JAX RS compiled input files (class file, jar or directory)");
 		commandLineOptions.addOption(OptionBuilder.hasArg(true).isRequired(false).withArgName("arg").withDescription("Regex to exclude classes").create(OPTION_EXCLUDED_CLASSES));
+		commandLineOptions.addOption(OptionBuilder.hasArg(true).isRequired(false).withArgName("count").withDescription("Number of threads for generating Retrofit files (default 1)").create(OPTION_WORKERS));
+		commandLineOptions.addOption(OptionBuilder.hasArg(true).isRequired(false).withArgName("file").withDescription("File for caching parsed resources between runs, the index of files without resources is stored next to it").create(OPTION_CACHE));
+		commandLineOptions.addOption(OPTION_NO_DATE, false, "Do not include the generation date in generated files");
+		commandLineOptions.addOption(OptionBuilder.hasArg(true).isRequired(false).withArgName("file").withDescription("JSON file for writing timings and counts of the generation").create(OPTION_REPORT));
+		commandLineOptions.addOption(OptionBuilder.hasArg(true).isRequired(false).withArgName("dir").withDescription("Directory for writing the generated files to instead of printing them").create(OPTION_OUT));
+		commandLineOptions.addOption(OptionBuilder.hasArg(true).isRequired(false).withArgName("file").withDescription("Zip file for writing all generated files to instead of printing them").create(OPTION_SRC_JAR));
+		commandLineOptions.addOption(OptionBuilder.hasArg(true).isRequired(false).withArgName("file").withDescription("Jar file for writing the compiled generated files to").create(OPTION_JAR));
+		commandLineOptions.addOption(OptionBuilder.hasArg(true).isRequired(false).withArgName("path").withDescription("Classpath for compiling the generated files, e.g. containing entities of the resources").create(OPTION_JAR_CLASSPATH));
+		commandLineOptions.addOption(OptionBuilder.hasArg(true).isRequired(false).withArgName("file").withDescription("JSON manifest of multiple modules which are generated in parallel").create(OPTION_BATCH));
+		commandLineOptions.addOption(OptionBuilder.hasArg(true).isRequired(false).withArgName("version").withDescription("Retrofit version (1 or 2) the files are generated for (default 1)").create(OPTION_RETROFIT_VERSION));
+		commandLineOptions.addOption(OPTION_IMPLEMENTATIONS, false, "Generate classes implementing the Retrofit 1 interfaces, which execute requests without a proxy");
+		commandLineOptions.addOption(OPTION_JSON_ADAPTERS, false, "Generate Gson type adapters for the entities of the resources, which do not use reflection");
+		commandLineOptions.addOption(OptionBuilder.withLongOpt(OPTION_WATCH).withDescription("Keep running and regenerate resources whenever a file of the source dir changes").create());
 	}
 
 
 	public static void main(String[] args) throws Exception {
 		CommandLine commandLine = new BasicParser().parse(commandLineOptions, args);
-		if (!commandLine.hasOption(OPTION_SOURCE)) {
+		if (commandLine.hasOption(OPTION_BATCH)) {
+			generateBatch(commandLine);
+			return;
+		}
+
+		boolean readClasses = commandLine.hasOption(OPTION_CLASSES);
+		if (!commandLine.hasOption(OPTION_SOURCE) && !readClasses) {
 			printHelp();
 			return;
 		}
 
-		File inputFile = new File(commandLine.getOptionValue(OPTION_SOURCE));
+		File inputFile = new File(commandLine.getOptionValue(readClasses ? OPTION_CLASSES : OPTION_SOURCE));
 		if (!inputFile.exists()) {
 			printHelp();
 			return;
 		}
 
+		// jars cannot be updated, they are written once all files have been generated
+		boolean writeSrcJar = commandLine.hasOption(OPTION_SRC_JAR);
+		boolean writeJar = commandLine.hasOption(OPTION_JAR);
+		if ((writeSrcJar && commandLine.hasOption(OPTION_OUT)) || ((writeSrcJar || writeJar) && commandLine.hasOption(OPTION_WATCH))) {
+			printHelp();
+			return;
+		}
+
+		// only source dirs can be watched
+		if (commandLine.hasOption(OPTION_WATCH) && (readClasses || !inputFile.isDirectory())) {
+			printHelp();
+			return;
+		}
+
+		ClientJarCompiler jarCompiler = null;
+		if (writeJar) {
+			List<File> classpath = new ArrayList<>();
+			if (commandLine.hasOption(OPTION_JAR_CLASSPATH)) {
+				for (String path : commandLine.getOptionValue(OPTION_JAR_CLASSPATH).split(File.pathSeparator)) {
+					if (!path.isEmpty()) classpath.add(new File(path));
+				}
+			}
+			jarCompiler = new ClientJarCompiler(classpath, new ArrayList<String>());
+		}
+
 		String excludedClassNamesRegex = "";
 		if (commandLine.hasOption(OPTION_EXCLUDED_CLASSES)) excludedClassNamesRegex = commandLine.getOptionValue(OPTION_EXCLUDED_CLASSES);
 
-		RetrofitGenerator generator = new RetrofitGenerator(
-				new GeneratorSettings(
-						"client",
-						excludedClassNamesRegex,
-						true,
-						true,
-						true,
-						ParamConverterManager.getDefaultInstance()));
-
-		JavaProjectBuilder builder = new JavaProjectBuilder();
-		builder.addSourceTree(inputFile);
-
-		for (JavaClass javaClass : builder.getClasses()) {
-			JavaFile javaFile = generator.createResource(javaClass);
-			if (javaFile == null) continue;
-			javaFile.writeTo(System.out);
+		int workerCount = 1;
+		if (commandLine.hasOption(OPTION_WORKERS)) workerCount = Integer.parseInt(commandLine.getOptionValue(OPTION_WORKERS));
+
+		RetrofitVersion retrofitVersion = RetrofitVersion.RETROFIT_1;
+		if (commandLine.hasOption(OPTION_RETROFIT_VERSION)) {
+			retrofitVersion = RetrofitVersion.forNumber(Integer.parseInt(commandLine.getOptionValue(OPTION_RETROFIT_VERSION)));
 		}
+
+		GeneratorSettings settings = new GeneratorSettings.Builder("client")
+				.setExcludedClassNamesRegex(excludedClassNamesRegex)
+				.setIncludeGenerationDate(!commandLine.hasOption(OPTION_NO_DATE))
+				.setRetrofitVersion(retrofitVersion)
+				.setGenerateImplementations(commandLine.hasOption(OPTION_IMPLEMENTATIONS))
+				.setGenerateJsonAdapters(commandLine.hasOption(OPTION_JSON_ADAPTERS))
+				.build();
+		// generated files may be printed to stdout, which should remain usable as a pipe
+		RetrofitGenerator generator = new RetrofitGenerator(settings, GeneratorLogger.SYSTEM_ERR);
+
+		File cacheFile = null, indexFile = null;
+		ResourceModelCache cache = null;
+		SourceIndex index = SourceIndex.create();
+		if (commandLine.hasOption(OPTION_CACHE)) {
+			cacheFile = new File(commandLine.getOptionValue(OPTION_CACHE));
+			cache = ResourceModelCache.read(cacheFile);
+			indexFile = new File(cacheFile.getPath() + INDEX_FILE_SUFFIX);
+			index = SourceIndex.read(indexFile);
+		}
+
+		GenerationMetrics metrics = new GenerationMetrics();
+		ParallelGenerator parallelGenerator = new ParallelGenerator(generator, workerCount, metrics);
+		try (final ResourceOutput output = new ResourceOutput(
+				parallelGenerator,
+				metrics,
+				commandLine.hasOption(OPTION_OUT) ? new JavaFileWriter(new File(commandLine.getOptionValue(OPTION_OUT))) : null,
+				writeSrcJar ? new SrcJarWriter(new File(commandLine.getOptionValue(OPTION_SRC_JAR))) : null,
+				jarCompiler,
+				writeJar ? new File(commandLine.getOptionValue(OPTION_JAR)) : null,
+				settings.getGenerateImplementations() ? generator.createImplementationSupport() : null)) {
+
+			if (readClasses) {
+				long parseStartTime = System.nanoTime();
+				List<ResourceModel> resources = new ClassFileResourceReader().read(inputFile);
+				metrics.addPhaseTime(GenerationMetrics.Phase.PARSE, parseStartTime);
+				output.write(Arrays.asList(new SourceModel(inputFile, resources, new HashSet<File>())));
+			} else {
+				long scanStartTime = System.nanoTime();
+				List<File> sourceFiles = SourceTreeReader.findSourceFiles(inputFile);
+				metrics.addPhaseTime(GenerationMetrics.Phase.SCAN, scanStartTime);
+
+				// generate batch wise, memory usage should not depend on the size of the source tree
+				SourceTreeReader reader = new SourceTreeReader(
+						inputFile,
+						cache,
+						SourceTreeReader.DEFAULT_BATCH_SIZE,
+						metrics,
+						index,
+						settings.getClassNameFilter(),
+						settings.getGenerateJsonAdapters());
+				SourceTreeReader.SourceHandler handler = new SourceTreeReader.SourceHandler() {
+					@Override
+					public void onSourcesRead(List<SourceModel> sources) throws IOException {
+						output.write(sources);
+					}
+				};
+
+				if (commandLine.hasOption(OPTION_WATCH)) {
+					// reader, constants and index stay in memory, only changed files and their dependents are read again
+					try (SourceTreeWatcher watcher = new SourceTreeWatcher(inputFile, reader, handler)) {
+						watcher.read(sourceFiles);
+						writeState(commandLine, cache, cacheFile, index, indexFile, metrics);
+						while (true) {
+							Set<File> changedFiles = watcher.awaitChanges();
+							long startTime = System.nanoTime();
+							watcher.read(changedFiles);
+							writeState(commandLine, cache, cacheFile, index, indexFile, metrics);
+							System.err.println("Regenerated " + changedFiles.size() + " changed file(s) in "
+									+ TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime) + " ms");
+						}
+					}
+				}
+				reader.read(sourceFiles, handler);
+			}
+		}
+
+		writeState(commandLine, cache, cacheFile, index, indexFile, metrics);
+	}
+
+
+	private static void generateBatch(CommandLine commandLine) throws IOException {
+		File manifestFile = new File(commandLine.getOptionValue(OPTION_BATCH));
+		if (!manifestFile.isFile()) {
+			printHelp();
+			return;
+		}
+
+		// modules are generated in parallel, each one on a single thread
+		int workerCount = Runtime.getRuntime().availableProcessors();
+		if (commandLine.hasOption(OPTION_WORKERS)) workerCount = Integer.parseInt(commandLine.getOptionValue(OPTION_WORKERS));
+		new BatchGenerator(workerCount, ParamConverterManager.getDefaultInstance(), GeneratorLogger.SYSTEM_ERR)
+				.generate(BatchManifest.read(manifestFile).getModules());
+	}
+
+
+	private static void writeState(
+			CommandLine commandLine,
+			ResourceModelCache cache,
+			File cacheFile,
+			SourceIndex index,
+			File indexFile,
+			GenerationMetrics metrics) throws IOException {
+
+		if (cache != null) cache.write(cacheFile);
+		if (indexFile != null) index.write(indexFile);
+		if (commandLine.hasOption(OPTION_REPORT)) metrics.writeReport(new File(commandLine.getOptionValue(OPTION_REPORT)));
 	}
 
 
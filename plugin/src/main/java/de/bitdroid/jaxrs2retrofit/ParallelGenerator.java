@@ -0,0 +1,126 @@
+package de.bitdroid.jaxrs2retrofit;
+
+
+import com.squareup.javapoet.JavaFile;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import de.bitdroid.jaxrs2retrofit.model.ResourceModel;
+
+/**
+ * Creates and writes Retrofit resources on multiple threads. Since QDox models are not thread safe
+ * resources have to be read beforehand (see {@link QDoxResourceReader}). The threads are started
+ * with the first batch of resources and shared by all following batches until the generator is closed.
+ */
+public final class ParallelGenerator implements Closeable {
+
+	private final RetrofitGenerator generator;
+	private final int workerCount;
+	private final GenerationMetrics metrics;
+	private ExecutorService executor;
+
+	/**
+	 * @param workerCount max number of threads to use, values smaller than 2 will
+	 *                    generate all resources on the calling thread
+	 */
+	public ParallelGenerator(RetrofitGenerator generator, int workerCount) {
+		this(generator, workerCount, new GenerationMetrics());
+	}
+
+
+	/**
+	 * @param metrics collects generation and writing times as well as counts of generated elements
+	 */
+	public ParallelGenerator(RetrofitGenerator generator, int workerCount, GenerationMetrics metrics) {
+		this.generator = generator;
+		this.workerCount = workerCount;
+		this.metrics = metrics;
+	}
+
+
+	/**
+	 * @param writer writer for storing the generated files, or null if they should not be written
+	 * @return the generated files in the same order as the passed resources, contains
+	 * null for resources that were excluded
+	 */
+	public List<JavaFile> generate(List<ResourceModel> resources, JavaFileWriter writer) throws IOException {
+		List<JavaFile> result = new ArrayList<>(resources.size());
+		if (workerCount < 2 || resources.size() < 2) {
+			for (ResourceModel resource : resources) {
+				result.add(new GenerateCallable(resource, writer).call());
+			}
+			return result;
+		}
+
+		if (executor == null) executor = Executors.newFixedThreadPool(workerCount);
+		try {
+			List<Future<JavaFile>> futures = new ArrayList<>(resources.size());
+			for (ResourceModel resource : resources) {
+				futures.add(executor.submit(new GenerateCallable(resource, writer)));
+			}
+			for (Future<JavaFile> future : futures) {
+				result.add(future.get());
+			}
+			return result;
+
+		} catch (InterruptedException ie) {
+			Thread.currentThread().interrupt();
+			throw new IOException(ie);
+
+		} catch (ExecutionException ee) {
+			Throwable cause = ee.getCause();
+			if (cause instanceof IOException) throw (IOException) cause;
+			if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+			if (cause instanceof Error) throw (Error) cause;
+			throw new IOException(cause);
+		}
+	}
+
+
+	/**
+	 * Stops the threads of this generator, which cannot be used afterwards.
+	 */
+	@Override
+	public void close() {
+		if (executor != null) executor.shutdownNow();
+	}
+
+
+	private final class GenerateCallable implements Callable<JavaFile> {
+
+		private final ResourceModel resource;
+		private final JavaFileWriter writer;
+
+		public GenerateCallable(ResourceModel resource, JavaFileWriter writer) {
+			this.resource = resource;
+			this.writer = writer;
+		}
+
+		@Override
+		public JavaFile call() throws IOException {
+			long startTime = System.nanoTime();
+			JavaFile javaFile = generator.createResource(resource);
+			metrics.addPhaseTime(GenerationMetrics.Phase.SPEC_BUILDING, startTime);
+			if (javaFile == null) return null;
+
+			if (writer != null) {
+				long writeStartTime = System.nanoTime();
+				metrics.addWrittenFile(writer.write(javaFile));
+				metrics.addPhaseTime(GenerationMetrics.Phase.WRITING, writeStartTime);
+			}
+			metrics.addGeneratedResource(resource);
+			metrics.addClassTime(resource.getQualifiedName(), System.nanoTime() - startTime);
+			return javaFile;
+		}
+
+	}
+
+}
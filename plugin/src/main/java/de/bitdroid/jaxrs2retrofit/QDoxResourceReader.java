@@ -0,0 +1,275 @@
+package de.bitdroid.jaxrs2retrofit;
+
+import com.thoughtworks.qdox.builder.impl.EvaluatingVisitor;
+import com.thoughtworks.qdox.model.JavaAnnotation;
+import com.thoughtworks.qdox.model.JavaClass;
+import com.thoughtworks.qdox.model.JavaConstructor;
+import com.thoughtworks.qdox.model.JavaField;
+import com.thoughtworks.qdox.model.JavaMethod;
+import com.thoughtworks.qdox.model.JavaParameter;
+import com.thoughtworks.qdox.model.JavaParameterizedType;
+import com.thoughtworks.qdox.model.JavaType;
+import com.thoughtworks.qdox.model.expression.Add;
+import com.thoughtworks.qdox.model.expression.AnnotationValue;
+import com.thoughtworks.qdox.model.expression.FieldRef;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.ws.rs.Consumes;
+import javax.ws.rs.Path;
+import javax.ws.rs.core.MediaType;
+
+import de.bitdroid.jaxrs2retrofit.model.AnnotationModel;
+import de.bitdroid.jaxrs2retrofit.model.EntityModel;
+import de.bitdroid.jaxrs2retrofit.model.MethodModel;
+import de.bitdroid.jaxrs2retrofit.model.ParamModel;
+import de.bitdroid.jaxrs2retrofit.model.ResourceModel;
+
+/**
+ * Reads {@link ResourceModel}s from JaxRs classes parsed by QDox.
+ * QDox models are not thread safe, hence neither is reading them.
+ */
+public final class QDoxResourceReader {
+
+	private static final String SERIALIZED_NAME_ANNOTATION = "com.google.gson.annotations.SerializedName";
+
+	private final ConstantTable constantTable;
+	private final boolean readEntities;
+
+	public QDoxResourceReader() {
+		this(new ConstantTable());
+	}
+
+
+	/**
+	 * @param constantTable constants which have been evaluated while reading other resources
+	 */
+	public QDoxResourceReader(ConstantTable constantTable) {
+		this(constantTable, false);
+	}
+
+
+	/**
+	 * @param readEntities whether to read the entities of resources, which are only required
+	 *                     for generating JSON adapters
+	 */
+	public QDoxResourceReader(ConstantTable constantTable, boolean readEntities) {
+		this.constantTable = constantTable;
+		this.readEntities = readEntities;
+	}
+
+
+	/**
+	 * @param referencedFiles will be filled with all source files whose constants were used for
+	 *                        reading the resource, e.g. for paths, and the files of its entities
+	 * @return the resource or null if the class is not a JaxRs resource
+	 */
+	public ResourceModel readResource(JavaClass jaxRsClass, Set<File> referencedFiles) {
+		// find path annotation
+		JavaAnnotation jaxRsPath = null;
+		JavaAnnotation jaxRsConsumes = null;
+		for (JavaAnnotation annotation : jaxRsClass.getAnnotations()) {
+			String annotationType = annotation.getType().getFullyQualifiedName();
+			if (annotationType.equals(Path.class.getName())) {
+				jaxRsPath = annotation;
+			} else if (annotationType.equals(Consumes.class.getName())) {
+				jaxRsConsumes = annotation;
+			}
+		}
+		if (jaxRsPath == null) return null; // no a valid JAX RS resource
+
+		EvaluatingVisitor evaluatingVisitor = new SimpleEvaluatingVisitor(jaxRsClass, constantTable, referencedFiles);
+		List<MethodModel> methods = new ArrayList<>();
+		// classes which are no entities are mapped to null
+		Map<String, EntityModel> entities = new LinkedHashMap<>();
+		for (JavaMethod jaxRsMethod : jaxRsClass.getMethods()) {
+			MethodModel method = readMethod(evaluatingVisitor, jaxRsMethod);
+			if (method == null) continue;
+			methods.add(method);
+			if (!readEntities) continue;
+
+			// entities are the return type and the body param
+			readEntities(jaxRsMethod.getReturns(), entities, referencedFiles);
+			List<JavaParameter> jaxRsParameters = jaxRsMethod.getParameters();
+			for (int i = 0; i < jaxRsParameters.size(); ++i) {
+				if (method.getParams().get(i).isBody()) readEntities(jaxRsParameters.get(i).getType(), entities, referencedFiles);
+			}
+		}
+		entities.values().removeAll(Collections.singleton(null));
+
+		return new ResourceModel(
+				jaxRsClass.getFullyQualifiedName(),
+				jaxRsClass.getName(),
+				jaxRsPath.getProperty("value").accept(evaluatingVisitor).toString(),
+				(jaxRsConsumes == null) ? null : readContentType(evaluatingVisitor, jaxRsConsumes),
+				methods,
+				new ArrayList<>(entities.values()));
+	}
+
+
+	private MethodModel readMethod(EvaluatingVisitor evaluatingVisitor, JavaMethod jaxRsMethod) {
+		// find method type and path
+		JavaAnnotation jaxRsMethodPath = null;
+		JavaAnnotation jaxRsConsumes = null;
+		HttpMethod httpMethod = null;
+		for (JavaAnnotation annotation : jaxRsMethod.getAnnotations()) {
+			String annotationType = annotation.getType().getFullyQualifiedName();
+			if (annotationType.equals(Path.class.getName())) {
+				jaxRsMethodPath = annotation;
+			} else if (annotationType.equals(Consumes.class.getName())) {
+				jaxRsConsumes = annotation;
+			} else if (httpMethod == null) {
+				httpMethod = HttpMethod.forJaxRsClassName(annotation.getType().getFullyQualifiedName());
+			}
+		}
+		if (httpMethod == null) return null; // not a valid resource method
+
+		List<ParamModel> params = new ArrayList<>();
+		for (JavaParameter jaxRsParameter : jaxRsMethod.getParameters()) {
+			params.add(readParameter(evaluatingVisitor, jaxRsParameter));
+		}
+
+		return new MethodModel(
+				jaxRsMethod.getName(),
+				httpMethod,
+				(jaxRsMethodPath == null) ? null : jaxRsMethodPath.getProperty("value").accept(evaluatingVisitor).toString(),
+				(jaxRsConsumes == null) ? null : readContentType(evaluatingVisitor, jaxRsConsumes),
+				params,
+				jaxRsMethod.getReturnType().getGenericFullyQualifiedName());
+	}
+
+
+	private ParamModel readParameter(EvaluatingVisitor evaluatingVisitor, JavaParameter jaxRsParameter) {
+		List<AnnotationModel> annotations = new ArrayList<>();
+		for (JavaAnnotation annotation : jaxRsParameter.getAnnotations()) {
+			Map<String, Object> namedParameterMap = new LinkedHashMap<>();
+			for (Map.Entry<String, AnnotationValue> entry : annotation.getPropertyMap().entrySet()) {
+				namedParameterMap.put(entry.getKey(), readAnnotationValue(evaluatingVisitor, entry.getValue()));
+			}
+			annotations.add(new AnnotationModel(annotation.getType().getFullyQualifiedName(), namedParameterMap));
+		}
+
+		return new ParamModel(
+				jaxRsParameter.getName(),
+				jaxRsParameter.getType().getGenericFullyQualifiedName(),
+				annotations);
+	}
+
+
+	/**
+	 * @return the value as source code, with constants replaced by their value (the
+	 * generated files do not import the classes declaring them)
+	 */
+	private String readAnnotationValue(EvaluatingVisitor evaluatingVisitor, AnnotationValue value) {
+		if (!(value instanceof FieldRef) && !(value instanceof Add)) return value.toString();
+		try {
+			Object constantValue = value.accept(evaluatingVisitor);
+			if (constantValue instanceof String || constantValue instanceof Number || constantValue instanceof Character) {
+				return ClassFileResourceReader.toSourceCode(constantValue);
+			}
+		} catch (IllegalArgumentException iae) {
+			// not a constant (e.g. an enum value), keep the code
+		}
+		return value.toString();
+	}
+
+
+	/**
+	 * Reads the entity of a type, its generic arguments and all of their fields. Only classes
+	 * of the source tree are entities, all others (e.g. strings and collections) are handled
+	 * by Gson without reflection anyway.
+	 */
+	private void readEntities(JavaType type, Map<String, EntityModel> entities, Set<File> referencedFiles) {
+		if (!(type instanceof JavaClass)) return; // e.g. wildcards
+		JavaClass javaClass = (JavaClass) type;
+		if (javaClass.isArray()) {
+			readEntities(javaClass.getComponentType(), entities, referencedFiles);
+			return;
+		}
+		if (type instanceof JavaParameterizedType) {
+			for (JavaType typeArgument : ((JavaParameterizedType) type).getActualTypeArguments()) {
+				readEntities(typeArgument, entities, referencedFiles);
+			}
+		}
+
+		String name = javaClass.getCanonicalName();
+		if (entities.containsKey(name)) return;
+		entities.put(name, null);
+		File classFile = SourceTreeReader.getSourceFile(javaClass);
+		if (classFile != null) referencedFiles.add(classFile); // changes might turn the class into an entity
+		if (classFile == null || javaClass.isInterface() || javaClass.isEnum()
+				|| javaClass.isAbstract() || !javaClass.isPublic() || !javaClass.getTypeParameters().isEmpty()
+				|| (javaClass.isInner() && !javaClass.isStatic())) return;
+
+		// fields of sub classes first, same as Gson
+		EntityBuilder builder = new EntityBuilder(name);
+		List<JavaField> fields = new ArrayList<>();
+		for (JavaClass c = javaClass; c != null && !c.getFullyQualifiedName().equals(Object.class.getName()); c = c.getSuperJavaClass()) {
+			File sourceFile = SourceTreeReader.getSourceFile(c);
+			if (sourceFile == null || !c.getTypeParameters().isEmpty()) return;
+			referencedFiles.add(sourceFile);
+			EvaluatingVisitor evaluatingVisitor = new SimpleEvaluatingVisitor(c, constantTable, referencedFiles);
+			for (JavaField field : c.getFields()) {
+				if (field.isStatic() || field.isTransient()) continue;
+				String serializedName = null;
+				for (JavaAnnotation annotation : field.getAnnotations()) {
+					if (!annotation.getType().getFullyQualifiedName().equals(SERIALIZED_NAME_ANNOTATION)) continue;
+					serializedName = annotation.getProperty("value").accept(evaluatingVisitor).toString();
+				}
+				builder.addField(field.getName(), field.getType().getGenericCanonicalName(), serializedName, field.isPublic(), field.isFinal());
+				fields.add(field);
+			}
+		}
+		for (JavaMethod method : javaClass.getMethods(true)) {
+			if (!method.isPublic() || method.isStatic()) continue;
+			builder.addMethod(method.getName(), method.getReturnType().getGenericCanonicalName(), getParameterTypes(method.getParameters()));
+		}
+		if (javaClass.getConstructors().isEmpty()) builder.addConstructor(new ArrayList<String>(), new ArrayList<String>());
+		for (JavaConstructor constructor : javaClass.getConstructors()) {
+			if (!constructor.isPublic()) continue;
+			List<String> paramNames = new ArrayList<>();
+			for (JavaParameter param : constructor.getParameters()) paramNames.add(param.getName());
+			builder.addConstructor(paramNames, getParameterTypes(constructor.getParameters()));
+		}
+
+		EntityModel entity = builder.build();
+		if (entity == null) return;
+		entities.put(name, entity);
+		for (JavaField field : fields) readEntities(field.getType(), entities, referencedFiles);
+	}
+
+
+	private static List<String> getParameterTypes(List<JavaParameter> params) {
+		List<String> types = new ArrayList<>();
+		for (JavaParameter param : params) types.add(param.getType().getGenericCanonicalName());
+		return types;
+	}
+
+
+	private String readContentType(
+			EvaluatingVisitor evaluatingVisitor,
+			JavaAnnotation consumesAnnotation) {
+
+		String stringAnnotationValue = consumesAnnotation.getProperty("value").getParameterValue().toString();
+
+		String value = null;
+		if (stringAnnotationValue.startsWith(MediaType.class.getSimpleName() + ".")) {
+			String[] token = stringAnnotationValue.split("\\.");
+			try {
+				value = (String) MediaType.class.getDeclaredField(token[1]).get(null);
+			} catch (Exception e) {
+				e.printStackTrace(System.err);
+			}
+		} else {
+			value = consumesAnnotation.getProperty("value").accept(evaluatingVisitor).toString();
+		}
+		return value;
+	}
+
+}
@@ -0,0 +1,226 @@
+package de.bitdroid.jaxrs2retrofit;
+
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.lang.ref.SoftReference;
+import java.nio.file.Files;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import de.bitdroid.jaxrs2retrofit.model.SourceModel;
+
+/**
+ * On disk cache of the resources that have been read from JaxRs source files. Entries are
+ * only valid as long as the content of the source file and of all files whose constants
+ * were used while reading the source file has not changed.
+ * Optionally entries are shared in memory with all other caches of the same source dir, e.g. by
+ * tasks of different projects or subsequent builds running in the same Gradle daemon.
+ */
+public final class ResourceModelCache {
+
+	private static final int VERSION = 5;
+	private static final char[] HEX_CHARS = "0123456789abcdef".toCharArray();
+	static final int MAX_SHARED_ENTRIES = 10000;
+
+	// source dir + source file --> entry, lives as long as this class is loaded (e.g. by the Gradle daemon).
+	// Soft references allow dropping entries when memory is low, the least recently used entries
+	// are dropped once there are more than MAX_SHARED_ENTRIES. Guarded by itself.
+	private static final Map<String, SoftReference<Entry>> sharedEntries
+			= new LinkedHashMap<String, SoftReference<Entry>>(16, 0.75f, true) {
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<String, SoftReference<ResourceModelCache.Entry>> eldest) {
+			return size() > MAX_SHARED_ENTRIES;
+		}
+	};
+
+	private final Map<File, Entry> entries;
+	private final Map<File, String> fileHashes = new HashMap<>(); // hashes are only valid for one run
+	private String sharedKeyPrefix = null; // null if entries are not shared
+
+	private ResourceModelCache(Map<File, Entry> entries) {
+		this.entries = entries;
+	}
+
+
+	/**
+	 * @return the cached resources of one source file or null if there are none
+	 * or they are out of date
+	 */
+	public SourceModel get(File sourceFile) throws IOException {
+		return get(sourceFile, false);
+	}
+
+
+	/**
+	 * @param entitiesRead whether the resources have to contain their entities, entries
+	 *                     of resources read the other way round are out of date
+	 */
+	public SourceModel get(File sourceFile, boolean entitiesRead) throws IOException {
+		Entry entry = entries.get(sourceFile);
+		if (isValid(sourceFile, entry, entitiesRead)) return entry.source;
+		if (sharedKeyPrefix == null) return null;
+
+		String sharedKey = sharedKeyPrefix + sourceFile.getPath();
+		synchronized (sharedEntries) {
+			SoftReference<Entry> sharedEntry = sharedEntries.get(sharedKey);
+			if (sharedEntry == null) return null;
+			entry = sharedEntry.get();
+			// drop entries which have been collected or whose source file has been removed
+			if (entry == null || !sourceFile.exists()) {
+				sharedEntries.remove(sharedKey);
+				return null;
+			}
+		}
+		if (!isValid(sourceFile, entry, entitiesRead)) return null;
+		entries.put(sourceFile, entry);
+		return entry.source;
+	}
+
+
+	public void put(SourceModel source) throws IOException {
+		put(source, false);
+	}
+
+
+	/**
+	 * @param entitiesRead whether the entities of the resources have been read
+	 */
+	public void put(SourceModel source, boolean entitiesRead) throws IOException {
+		Map<File, String> dependencyHashes = new HashMap<>();
+		for (File dependency : source.getDependencies()) {
+			dependencyHashes.put(dependency, getHash(dependency));
+		}
+		Entry entry = new Entry(getHash(source.getSourceFile()), dependencyHashes, source, entitiesRead);
+		entries.put(source.getSourceFile(), entry);
+		if (sharedKeyPrefix != null) {
+			synchronized (sharedEntries) {
+				sharedEntries.put(sharedKeyPrefix + source.getSourceFile().getPath(), new SoftReference<>(entry));
+			}
+		}
+	}
+
+
+	/**
+	 * Shares entries in memory with all other caches of the same source dir (and the same class loader).
+	 * Constants are resolved relative to the source dir, hence entries of different dirs are not shared.
+	 * Can be called from multiple threads, as long as each thread uses its own cache instance.
+	 */
+	public void shareEntries(File sourceDir) {
+		this.sharedKeyPrefix = sourceDir.getAbsolutePath() + File.pathSeparator;
+	}
+
+
+	/**
+	 * Forgets the content of the passed files, required when using one cache for more than one
+	 * run (e.g. while watching a source tree).
+	 */
+	public void invalidate(Collection<File> changedFiles) {
+		for (File changedFile : changedFiles) fileHashes.remove(changedFile);
+	}
+
+
+	/**
+	 * Writes this cache to disk, dropping all entries whose source file no longer exists.
+	 */
+	public void write(File cacheFile) throws IOException {
+		Map<File, Entry> existingEntries = new HashMap<>();
+		for (Map.Entry<File, Entry> entry : entries.entrySet()) {
+			if (entry.getKey().exists()) existingEntries.put(entry.getKey(), entry.getValue());
+		}
+
+		try (ObjectOutputStream outputStream = new ObjectOutputStream(new BufferedOutputStream(new FileOutputStream(cacheFile)))) {
+			outputStream.writeInt(VERSION);
+			outputStream.writeObject(existingEntries);
+		}
+	}
+
+
+	/**
+	 * Creates an empty cache.
+	 */
+	public static ResourceModelCache create() {
+		return new ResourceModelCache(new HashMap<File, Entry>());
+	}
+
+
+	/**
+	 * Reads a previously written cache. Returns an empty cache if the file does not exist or
+	 * was written by an incompatible version.
+	 */
+	@SuppressWarnings("unchecked")
+	public static ResourceModelCache read(File cacheFile) {
+		if (!cacheFile.exists()) return create();
+		try (ObjectInputStream inputStream = new ObjectInputStream(new BufferedInputStream(new FileInputStream(cacheFile)))) {
+			if (inputStream.readInt() != VERSION) return create();
+			return new ResourceModelCache((Map<File, Entry>) inputStream.readObject());
+		} catch (IOException | ClassNotFoundException | ClassCastException e) {
+			// corrupt or outdated cache, start from scratch
+			return create();
+		}
+	}
+
+
+	private boolean isValid(File sourceFile, Entry entry, boolean entitiesRead) throws IOException {
+		if (entry == null || entry.entitiesRead != entitiesRead || !entry.hash.equals(getHash(sourceFile))) return false;
+		for (Map.Entry<File, String> dependency : entry.dependencyHashes.entrySet()) {
+			if (!dependency.getValue().equals(getHash(dependency.getKey()))) return false;
+		}
+		return true;
+	}
+
+
+	private String getHash(File file) throws IOException {
+		String hash = fileHashes.get(file);
+		if (hash != null) return hash;
+
+		if (!file.exists()) {
+			hash = "";
+		} else {
+			try {
+				byte[] digest = MessageDigest.getInstance("SHA-1").digest(Files.readAllBytes(file.toPath()));
+				char[] hexChars = new char[digest.length * 2];
+				for (int i = 0; i < digest.length; ++i) {
+					hexChars[2 * i] = HEX_CHARS[(digest[i] >> 4) & 0xF];
+					hexChars[2 * i + 1] = HEX_CHARS[digest[i] & 0xF];
+				}
+				hash = new String(hexChars);
+			} catch (NoSuchAlgorithmException nsae) {
+				throw new IllegalStateException(nsae);
+			}
+		}
+		fileHashes.put(file, hash);
+		return hash;
+	}
+
+
+	private static final class Entry implements Serializable {
+
+		private static final long serialVersionUID = 1L;
+
+		private final String hash;
+		private final Map<File, String> dependencyHashes;
+		private final SourceModel source;
+		private final boolean entitiesRead;
+
+		public Entry(String hash, Map<File, String> dependencyHashes, SourceModel source, boolean entitiesRead) {
+			this.hash = hash;
+			this.dependencyHashes = dependencyHashes;
+			this.source = source;
+			this.entitiesRead = entitiesRead;
+		}
+
+	}
+
+}
@@ -0,0 +1,134 @@
+package de.bitdroid.jaxrs2retrofit;
+
+
+import com.squareup.javapoet.JavaFile;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import de.bitdroid.jaxrs2retrofit.model.ResourceModel;
+import de.bitdroid.jaxrs2retrofit.model.SourceModel;
+
+/**
+ * Prints generated files or writes them to a directory or source jar, and optionally compiles
+ * all of them into one jar. Files generated from sources which are read again (e.g. while
+ * watching) replace the previous files.
+ */
+final class ResourceOutput implements Closeable {
+
+	private final ParallelGenerator generator;
+	private final GenerationMetrics metrics;
+	private final JavaFileWriter fileWriter;
+	private final SrcJarWriter srcJarWriter;
+	private final ClientJarCompiler jarCompiler;
+	private final File jarFile;
+	private JavaFile supportFile;
+	private final SourceMapping mapping = new SourceMapping();
+	private final List<JavaFile> compiledFiles = new ArrayList<>();
+
+	/**
+	 * @param fileWriter writer for the output dir, or null
+	 * @param srcJarWriter writer for the source jar, or null. If both writers are null files are printed.
+	 * @param jarCompiler compiler for all generated files once the output is closed, or null
+	 * @param jarFile file for storing the compiled files, or null
+	 * @param supportFile file used by all generated files (e.g. {@link RetrofitGenerator#createImplementationSupport()}),
+	 *                    which is written once together with the first generated files, or null
+	 */
+	public ResourceOutput(
+			ParallelGenerator generator,
+			GenerationMetrics metrics,
+			JavaFileWriter fileWriter,
+			SrcJarWriter srcJarWriter,
+			ClientJarCompiler jarCompiler,
+			File jarFile,
+			JavaFile supportFile) {
+
+		this.generator = generator;
+		this.metrics = metrics;
+		this.fileWriter = fileWriter;
+		this.srcJarWriter = srcJarWriter;
+		this.jarCompiler = jarCompiler;
+		this.jarFile = jarFile;
+		this.supportFile = supportFile;
+	}
+
+
+	public void write(List<SourceModel> sources) throws IOException {
+		List<ResourceModel> resources = new ArrayList<>();
+		List<SourceModel> resourceSources = new ArrayList<>();
+		Set<File> previousFiles = new HashSet<>();
+		for (SourceModel source : sources) {
+			previousFiles.addAll(mapping.remove(source.getSourceFile()));
+			for (ResourceModel resource : source.getResources()) {
+				resources.add(resource);
+				resourceSources.add(source);
+			}
+		}
+
+		// files are written by the generator threads, the jar is written sequentially
+		List<JavaFile> javaFiles = generator.generate(resources, fileWriter);
+		for (int i = 0; i < javaFiles.size(); ++i) {
+			JavaFile javaFile = javaFiles.get(i);
+			if (javaFile == null) continue;
+			if (supportFile != null) {
+				writeSupportFile(supportFile);
+				supportFile = null;
+			}
+			if (jarCompiler != null) compiledFiles.add(javaFile);
+
+			if (fileWriter != null) {
+				File generatedFile = fileWriter.getFile(javaFile);
+				SourceModel source = resourceSources.get(i);
+				mapping.put(source.getSourceFile(), generatedFile, source.getDependencies());
+				previousFiles.remove(generatedFile);
+			} else if (srcJarWriter != null) {
+				long writeStartTime = System.nanoTime();
+				srcJarWriter.write(javaFile);
+				metrics.addWrittenFile(true);
+				metrics.addPhaseTime(GenerationMetrics.Phase.WRITING, writeStartTime);
+			} else if (jarCompiler == null) {
+				javaFile.writeTo(System.out);
+			}
+		}
+
+		// files which are no longer generated, e.g. because their source has been deleted
+		for (File previousFile : previousFiles) previousFile.delete();
+	}
+
+
+	private void writeSupportFile(JavaFile javaFile) throws IOException {
+		if (jarCompiler != null) compiledFiles.add(javaFile);
+		long writeStartTime = System.nanoTime();
+		if (fileWriter != null) {
+			// not part of the mapping, the file is not deleted when the generated files change
+			metrics.addWrittenFile(fileWriter.write(javaFile));
+		} else if (srcJarWriter != null) {
+			srcJarWriter.write(javaFile);
+			metrics.addWrittenFile(true);
+		} else if (jarCompiler == null) {
+			javaFile.writeTo(System.out);
+		}
+		metrics.addPhaseTime(GenerationMetrics.Phase.WRITING, writeStartTime);
+	}
+
+
+	/**
+	 * Also closes the generator.
+	 */
+	@Override
+	public void close() throws IOException {
+		generator.close();
+		if (srcJarWriter != null) srcJarWriter.close();
+		if (jarCompiler != null) {
+			long writeStartTime = System.nanoTime();
+			jarCompiler.compile(compiledFiles, jarFile);
+			metrics.addPhaseTime(GenerationMetrics.Phase.WRITING, writeStartTime);
+		}
+	}
+
+}
@@ -1,144 +1,207 @@
 package de.bitdroid.jaxrs2retrofit;
 
 import com.squareup.javapoet.AnnotationSpec;
+import com.squareup.javapoet.ArrayTypeName;
 import com.squareup.javapoet.ClassName;
 import com.squareup.javapoet.JavaFile;
 import com.squareup.javapoet.MethodSpec;
 import com.squareup.javapoet.ParameterSpec;
-import com.squareup.javapoet.ParameterizedTypeName;
 import com.squareup.javapoet.TypeName;
 import com.squareup.javapoet.TypeSpec;
-import com.thoughtworks.qdox.builder.impl.EvaluatingVisitor;
-import com.thoughtworks.qdox.model.JavaAnnotation;
 import com.thoughtworks.qdox.model.JavaClass;
-import com.thoughtworks.qdox.model.JavaMethod;
-import com.thoughtworks.qdox.model.JavaParameter;
-import com.thoughtworks.qdox.model.JavaParameterizedType;
-import com.thoughtworks.qdox.model.JavaType;
-import com.thoughtworks.qdox.model.expression.Add;
-import com.thoughtworks.qdox.model.expression.AnnotationValue;
 
+import java.io.File;
+import java.io.InputStream;
 import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 import javax.lang.model.element.Modifier;
-import javax.ws.rs.Consumes;
-import javax.ws.rs.Path;
-import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.StreamingOutput;
 
 import de.bitdroid.jaxrs2retrofit.converter.AnnotatedParam;
 import de.bitdroid.jaxrs2retrofit.converter.ParamConverter;
+import de.bitdroid.jaxrs2retrofit.model.AnnotationModel;
+import de.bitdroid.jaxrs2retrofit.model.MethodModel;
+import de.bitdroid.jaxrs2retrofit.model.ParamModel;
+import de.bitdroid.jaxrs2retrofit.model.ResourceModel;
 import retrofit.client.Response;
+import retrofit.http.Body;
 import retrofit.http.Headers;
-
+import retrofit.http.Streaming;
+import retrofit.mime.TypedFile;
+import retrofit.mime.TypedOutput;
+
+/**
+ * Creates Retrofit files from JaxRs resources. Once created a generator has no mutable state
+ * and can be shared between threads when generating from {@link ResourceModel}s (the QDox based
+ * methods are bound to the thread of the QDox model). The passed settings should not be
+ * changed while generating, in particular no converters should be registered.
+ */
 public final class RetrofitGenerator {
 
-	private static final SimpleDateFormat dateFormat = new SimpleDateFormat("dd.MM.yyyy 'at' HH:mm");
+	private static final String DATE_FORMAT = "dd.MM.yyyy 'at' HH:mm";
+
+	// binary payloads which are streamed instead of being passed through the (JSON) converter
+	private static final Set<TypeName> STREAMING_TYPES = new HashSet<>(Arrays.<TypeName>asList(
+			ClassName.get(InputStream.class),
+			ClassName.get(File.class),
+			ClassName.get(StreamingOutput.class),
+			ArrayTypeName.of(TypeName.BYTE)));
 
 	private final GeneratorSettings settings;
-	private final Date currentDate;
+	private final GeneratorLogger logger;
+	private final String currentDate;
+	private final TypeNameResolver typeResolver;
 
 
+	/**
+	 * Creates a generator which does not log any progress messages, see {@link GeneratorLogger#NONE}.
+	 */
 	public RetrofitGenerator(GeneratorSettings settings) {
+		this(settings, GeneratorLogger.NONE);
+	}
+
+
+	public RetrofitGenerator(GeneratorSettings settings, GeneratorLogger logger) {
+		this(settings, logger, new TypeNameResolver());
+	}
+
+
+	/**
+	 * @param typeResolver resolver for the types of resources, can be shared by multiple generators
+	 */
+	RetrofitGenerator(GeneratorSettings settings, GeneratorLogger logger, TypeNameResolver typeResolver) {
 		this.settings = settings;
-		this.currentDate = new Date();
+		this.logger = logger;
+		this.typeResolver = typeResolver;
+		// format once, SimpleDateFormat is not thread safe
+		this.currentDate = new SimpleDateFormat(DATE_FORMAT).format(new Date());
 	}
 
 
 	public JavaFile createResource(JavaClass jaxRsClass) {
-		// find path annotation
-		JavaAnnotation jaxRsPath = null;
-		JavaAnnotation jaxRsConsumes = null;
-		for (JavaAnnotation annotation : jaxRsClass.getAnnotations()) {
-			String annotationType = annotation.getType().getFullyQualifiedName();
-			if (annotationType.equals(Path.class.getName())) {
-				jaxRsPath = annotation;
-			} else if (annotationType.equals(Consumes.class.getName())) {
-				jaxRsConsumes = annotation;
-			}
-		}
-		if (jaxRsPath == null) return null; // no a valid JAX RS resource
-		if (jaxRsClass.getName().matches(settings.getExcludedClassNamesRegex())) return null;
+		return createResource(jaxRsClass, new HashSet<File>());
+	}
+
+
+	/**
+	 * @param referencedFiles will be filled with all source files whose constants were used for
+	 *                        generating the Retrofit resource, e.g. for paths
+	 * @return the Retrofit resource or null if the class is not a (included) JaxRs resource
+	 */
+	public JavaFile createResource(JavaClass jaxRsClass, Set<File> referencedFiles) {
+		ResourceModel resource = new QDoxResourceReader(new ConstantTable(), settings.getGenerateJsonAdapters())
+				.readResource(jaxRsClass, referencedFiles);
+		if (resource == null) return null;
+		return createResource(resource);
+	}
+
 
-		System.out.println(jaxRsClass.getName());
+	/**
+	 * Does not access any QDox model and can hence be used from multiple threads at once.
+	 * @return the Retrofit resource or null if the resource is excluded
+	 */
+	public JavaFile createResource(ResourceModel resource) {
+		if (!settings.getClassNameFilter().accepts(resource.getName())) return null;
+
+		logger.info(resource.getName());
 		TypeSpec.Builder retrofitResourceBuilder = TypeSpec
-				.interfaceBuilder(jaxRsClass.getName())
+				.interfaceBuilder(resource.getName())
 				.addModifiers(Modifier.PUBLIC);
 		addAboutJavadoc(retrofitResourceBuilder);
 
-		for (JavaMethod jaxRsMethod : jaxRsClass.getMethods()) {
-			Collection<MethodSpec> retrofitMethods = createMethod(jaxRsClass, jaxRsMethod, jaxRsPath, jaxRsConsumes);
-			if (retrofitMethods != null) {
-				for (MethodSpec method : retrofitMethods) {
-					retrofitResourceBuilder.addMethod(method);
-				}
+		ResourcePaths paths = new ResourcePaths(resource);
+		List<MethodSpec> retrofitMethods = new ArrayList<>();
+		for (MethodModel method : resource.getMethods()) {
+			for (MethodSpec retrofitMethod : createMethod(paths, method)) {
+				retrofitResourceBuilder.addMethod(retrofitMethod);
+				retrofitMethods.add(retrofitMethod);
 			}
 		}
 
+		if (settings.getGenerateImplementations()) {
+			TypeSpec implementation = RetrofitImplementationBuilder.build(
+					ClassName.get(settings.getPackageName(), resource.getName()),
+					retrofitMethods);
+			// resources with params of custom converters can only be used with a RestAdapter
+			if (implementation != null) retrofitResourceBuilder.addType(implementation);
+		}
+
+		if (settings.getGenerateJsonAdapters()) {
+			TypeSpec jsonAdapters = JsonAdapterBuilder.build(resource.getEntities(), typeResolver, settings.getRetrofitVersion());
+			if (jsonAdapters != null) retrofitResourceBuilder.addType(jsonAdapters);
+		}
+
 		return JavaFile.builder(settings.getPackageName(), retrofitResourceBuilder.build()).build();
 	}
 
 
+	/**
+	 * Creates the class which is shared by all implementations of the Retrofit interfaces (see
+	 * {@link GeneratorSettings#getGenerateImplementations()}). Has to be written once, in addition
+	 * to the resources.
+	 */
+	public JavaFile createImplementationSupport() {
+		TypeSpec.Builder supportBuilder = RetrofitImplementationBuilder.buildSupport();
+		addAboutJavadoc(supportBuilder);
+		return JavaFile.builder(settings.getPackageName(), supportBuilder.build()).build();
+	}
+
+
 	private void addAboutJavadoc(TypeSpec.Builder retrofitResourceBuilder) {
 		StringBuilder aboutBuilder = new StringBuilder();
 		aboutBuilder
 				.append("This file was generated by ")
-				.append("<a href=\"https://github.com/Maddoc42/JaxRs2Retrofit\">JaxRs2Retrofit</a> on ")
-				.append(dateFormat.format(currentDate))
-				.append(".\n");
+				.append("<a href=\"https://github.com/Maddoc42/JaxRs2Retrofit\">JaxRs2Retrofit</a>");
+		if (settings.getIncludeGenerationDate()) aboutBuilder.append(" on ").append(currentDate);
+		aboutBuilder.append(".\n");
 		retrofitResourceBuilder.addJavadoc(aboutBuilder.toString());
 	}
 
 
-	private Collection<MethodSpec> createMethod(
-			JavaClass jaxRsClass,
-			JavaMethod jaxRsMethod,
-			JavaAnnotation jaxRsPath,
-			JavaAnnotation jaxRsConsumes) {
-
+	private Collection<MethodSpec> createMethod(ResourcePaths paths, MethodModel method) {
 		RetrofitMethodBuilder retrofitMethodBuilder = new RetrofitMethodBuilder(
-				jaxRsMethod.getName(),
+				method.getName(),
 				settings);
 
-		// find method type and path
-		JavaAnnotation jaxRsMethodPath = null;
-		HttpMethod httpMethod = null;
-		for (JavaAnnotation annotation : jaxRsMethod.getAnnotations()) {
-			String annotationType = annotation.getType().getFullyQualifiedName();
-			if (annotationType.equals(Path.class.getName())) {
-				jaxRsMethodPath = annotation;
-			} else if (annotationType.equals(Consumes.class.getName())) {
-				jaxRsConsumes = annotation;
-			} else if (httpMethod == null) {
-				httpMethod = HttpMethod.forJaxRsClassName(annotation.getType().getFullyQualifiedName());
-			}
-		}
-		if (httpMethod == null) return null; // not a valid resource method
-		EvaluatingVisitor evaluatingVisitor = new SimpleEvaluatingVisitor(jaxRsClass);
-
 		// add path
-		retrofitMethodBuilder.addAnnotation(createPathAnnotation(evaluatingVisitor, httpMethod, jaxRsPath, jaxRsMethodPath));
+		retrofitMethodBuilder.addAnnotation(createPathAnnotation(method.getHttpMethod(), paths.getPath(method.getPath())));
 
 		// add content type
-		if (jaxRsConsumes != null) {
-			retrofitMethodBuilder.addAnnotation(createContentTypeAnnotation(evaluatingVisitor, jaxRsConsumes));
+		AnnotationSpec contentTypeAnnotation = paths.getContentTypeAnnotation(method.getConsumes());
+		if (contentTypeAnnotation != null) {
+			retrofitMethodBuilder.addAnnotation(contentTypeAnnotation);
 		}
 
 		// create parameters
-		for (JavaParameter jaxRsParameter : jaxRsMethod.getParameters()) {
+		for (ParamModel jaxRsParameter : method.getParams()) {
 			ParameterSpec spec = createParameter(jaxRsParameter);
 			if (spec != null) retrofitMethodBuilder.addParameter(spec);
 		}
 
 		// create return type
-		TypeName retrofitReturnType = createType(jaxRsMethod.getReturnType());
+		TypeName retrofitReturnType = createType(method.getReturnType());
 		if (retrofitReturnType.equals(TypeName.VOID)) {
 			retrofitReturnType = ClassName.get(Response.class);
+		} else if (STREAMING_TYPES.contains(retrofitReturnType)) {
+			// raw response whose body is read by the caller instead of being buffered by Retrofit
+			retrofitReturnType = ClassName.get(Response.class);
+			retrofitMethodBuilder.addAnnotation(AnnotationSpec
+					.builder(settings.getRetrofitVersion().translate(ClassName.get(Streaming.class)))
+					.build());
+		}
+		if (retrofitReturnType instanceof ClassName) {
+			retrofitReturnType = settings.getRetrofitVersion().translate((ClassName) retrofitReturnType);
 		}
 		retrofitMethodBuilder.setReturnType(retrofitReturnType);
 
@@ -147,19 +210,18 @@ public final class RetrofitGenerator {
 
 
 	private ParameterSpec createParameter(
-			JavaParameter jaxRsParameter) {
+			ParamModel jaxRsParameter) {
 
 		// find first annotation which can be converted, others are ignored
-		JavaAnnotation jaxRsAnnotation = null;
+		AnnotationModel jaxRsAnnotation = null;
 		ClassName annotationType = null;
-		TypeName paramType = createType(jaxRsParameter.getJavaClass());
+		TypeName paramType = createType(jaxRsParameter.getType());
 
-		for (JavaAnnotation annotation : jaxRsParameter.getAnnotations()) {
+		for (AnnotationModel annotation : jaxRsParameter.getAnnotations()) {
 			annotationType = (ClassName) createType(annotation.getType());
 			jaxRsAnnotation = annotation;
 			if (settings.getParamConverterManager().hasConverter(annotationType)) break;
 		}
-
 		// find suitable converter
 		ParamConverter converter = settings.getParamConverterManager().getConverter(annotationType);
 
@@ -182,12 +244,24 @@ public final class RetrofitGenerator {
 		AnnotatedParam convertedParam = converter.convert(param);
 		if (convertedParam == null) return null;
 
+		// binary bodies are written as they are, e.g. instead of converting byte[] to a JSON array
+		TypeName retrofitParamType = convertedParam.getParamType();
+		if (convertedParam.getAnnotationType().equals(ClassName.get(Body.class)) && STREAMING_TYPES.contains(retrofitParamType)) {
+			retrofitParamType = retrofitParamType.equals(ClassName.get(File.class))
+					? ClassName.get(TypedFile.class)
+					: ClassName.get(TypedOutput.class);
+		}
+		if (retrofitParamType instanceof ClassName) {
+			retrofitParamType = settings.getRetrofitVersion().translate((ClassName) retrofitParamType);
+		}
+
 		// create code
 		ParameterSpec.Builder retrofitParamBuilder = ParameterSpec
-				.builder(convertedParam.getParamType(), jaxRsParameter.getName());
+				.builder(retrofitParamType, jaxRsParameter.getName());
 
+		// converters create Retrofit 1 annotations
 		AnnotationSpec.Builder retrofitParamAnnotationBuilder = AnnotationSpec
-				.builder(convertedParam.getAnnotationType());
+				.builder(settings.getRetrofitVersion().translate(convertedParam.getAnnotationType()));
 
 		if (jaxRsAnnotation != null) {
 			for (Map.Entry<String, Object> entry : convertedParam.getAnnotationParameterMap().entrySet()) {
@@ -206,21 +280,40 @@ public final class RetrofitGenerator {
 	 * [a-zA-z0-9-_.]		path regex (slightly limited to reduce complexity)
 	 * [^\\{\\}]*			JaxRs regex
 	 */
-	private final Pattern pathRegexPattern = Pattern.compile("\\{?([a-zA-z0-9-_.]+)(:[^\\{\\}]*)?\\}?");
+	private static final Pattern PATH_REGEX_PATTERN = Pattern.compile("\\{?([a-zA-z0-9-_.]+)(:[^\\{\\}]*)?\\}?");
+	private static final Pattern PATH_CHAR_PATTERN = Pattern.compile("[a-zA-z0-9-_.]");
 
 
-	private AnnotationSpec createPathAnnotation(
-			EvaluatingVisitor evaluatingVisitor,
+	AnnotationSpec createPathAnnotation(
 			HttpMethod method,
-			JavaAnnotation classPath,
-			JavaAnnotation methodPath) {
+			String classPath,
+			String methodPath) {
+
+		String value = classPath;
+		if (methodPath != null) value += methodPath;
+		return createPathAnnotation(method, normalizePath(value));
+	}
 
-		AnnotationValue pathExpression = classPath.getProperty("value");
-		if (methodPath != null) {
-			pathExpression = new Add(pathExpression, methodPath.getProperty("value"));
+
+	private AnnotationSpec createPathAnnotation(HttpMethod method, String normalizedPath) {
+		RetrofitVersion version = settings.getRetrofitVersion();
+		String path = normalizedPath;
+		if (version == RetrofitVersion.RETROFIT_2) {
+			// Retrofit 2 resolves absolute paths against the host instead of the base URL, and requires a path
+			if (path.startsWith("/")) path = path.substring(1);
+			if (path.isEmpty()) path = ".";
 		}
-		String value =  pathExpression.accept(evaluatingVisitor).toString();
-		Matcher matcher = pathRegexPattern.matcher(value);
+		return AnnotationSpec.builder(version.translate(ClassName.get(method.getRetrofitClass())))
+				.addMember("value", "\"" + path + "\"")
+				.build();
+	}
+
+
+	/**
+	 * @return the path without JaxRs regex, e.g. /{id} for /{id: [0-9]+}
+	 */
+	static String normalizePath(String path) {
+		Matcher matcher = PATH_REGEX_PATTERN.matcher(path);
 		StringBuilder regexFreeValue = new StringBuilder();
 		while (matcher.find()) {
 			regexFreeValue.append("/");
@@ -231,86 +324,81 @@ public final class RetrofitGenerator {
 					.append("}");
 			else regexFreeValue.append(matcher.group(1));
 		}
-
-		return AnnotationSpec.builder(method.getRetrofitClass())
-				.addMember("value", "\"" + regexFreeValue.toString() + "\"")
-				.build();
+		return regexFreeValue.toString();
 	}
 
 
-	private AnnotationSpec createContentTypeAnnotation(
-			EvaluatingVisitor evaluatingVisitor,
-			JavaAnnotation consumesAnnotation) {
-
-		AnnotationValue annotationValue = consumesAnnotation.getProperty("value");
-		String stringAnnotationValue = annotationValue.getParameterValue().toString();
-
-		String value = null;
-		if (stringAnnotationValue.startsWith(MediaType.class.getSimpleName() + ".")) {
-			String[] token = stringAnnotationValue.split("\\.");
-			try {
-				value = (String) MediaType.class.getDeclaredField(token[1]).get(null);
-			} catch (Exception e) {
-				e.printStackTrace(System.err);
-			}
-		} else {
-			value = consumesAnnotation.getProperty("value").accept(evaluatingVisitor).toString();
-		}
-
-		return AnnotationSpec.builder(Headers.class)
+	private AnnotationSpec createContentTypeAnnotation(String value) {
+		return AnnotationSpec.builder(settings.getRetrofitVersion().translate(ClassName.get(Headers.class)))
 				.addMember("value", "\"Content-type: " + value + "\"")
 				.build();
 	}
 
 
-	private TypeName createType(JavaType jaxRsType) {
-		if (void.class.getName().equals(jaxRsType.getFullyQualifiedName())) {
-			return TypeName.VOID;
-
-		} else if (boolean.class.getName().equals(jaxRsType.getFullyQualifiedName())) {
-			return TypeName.BOOLEAN;
-
-		} else if (int.class.getName().equals(jaxRsType.getFullyQualifiedName())) {
-			return TypeName.INT;
-
-		} else if (float.class.getName().equals(jaxRsType.getFullyQualifiedName())) {
-			return TypeName.FLOAT;
-
-		} else if (double.class.getName().equals(jaxRsType.getFullyQualifiedName())) {
-			return TypeName.DOUBLE;
+	TypeName createType(String jaxRsType) {
+		return typeResolver.resolve(jaxRsType);
+	}
 
-		} else if (short.class.getName().equals(jaxRsType.getFullyQualifiedName())) {
-			return TypeName.SHORT;
 
-		} else if (long.class.getName().equals(jaxRsType.getFullyQualifiedName())) {
-			return TypeName.LONG;
+	/**
+	 * Normalized paths and content types of one resource. Class level values are evaluated once
+	 * and shared by all methods, as are identical method level values.
+	 */
+	private final class ResourcePaths {
+
+		private final ResourceModel resource;
+		private final String normalizedClassPath;
+		private final AnnotationSpec classContentTypeAnnotation;
+		private final Map<String, String> methodPaths = new HashMap<>();
+		private final Map<String, AnnotationSpec> methodContentTypeAnnotations = new HashMap<>();
+
+		ResourcePaths(ResourceModel resource) {
+			this.resource = resource;
+			this.normalizedClassPath = normalizePath(resource.getPath());
+			this.classContentTypeAnnotation = (resource.getConsumes() == null) ? null : createContentTypeAnnotation(resource.getConsumes());
+		}
 
-		} else if (char.class.getName().equals(jaxRsType.getFullyQualifiedName())) {
-			return TypeName.CHAR;
 
-		} else if (byte.class.getName().equals(jaxRsType.getFullyQualifiedName())) {
-			return TypeName.BYTE;
+		/**
+		 * @param methodPath path of the method, can be null
+		 * @return normalized path of class and method
+		 */
+		String getPath(String methodPath) {
+			if (methodPath == null) return normalizedClassPath;
+			String path = methodPaths.get(methodPath);
+			if (path == null) {
+				// regex parts or names spanning both paths (e.g. /user + s) are only found in the complete path
+				String classPath = resource.getPath();
+				boolean joinedPart = !classPath.isEmpty() && !methodPath.isEmpty()
+						&& isPathChar(classPath.charAt(classPath.length() - 1))
+						&& isPathChar(methodPath.charAt(0));
+				if (joinedPart || classPath.indexOf(':') >= 0) path = normalizePath(classPath + methodPath);
+				else path = normalizedClassPath + normalizePath(methodPath);
+				methodPaths.put(methodPath, path);
+			}
+			return path;
+		}
 
-		// map jaxrs response objects to retrofit ones
-		} else if (javax.ws.rs.core.Response.class.getName().equals(jaxRsType.getFullyQualifiedName())) {
-			return ClassName.get(Response.class);
 
-		} else if (jaxRsType instanceof JavaParameterizedType) {
-			JavaParameterizedType parametrizedType = (JavaParameterizedType) jaxRsType;
-			if (parametrizedType.getActualTypeArguments().size() == 0) {
-				return ClassName.bestGuess(jaxRsType.getFullyQualifiedName());
+		/**
+		 * @param methodConsumes content type of the method, can be null
+		 * @return the header of the method or class content type, null if there is none
+		 */
+		AnnotationSpec getContentTypeAnnotation(String methodConsumes) {
+			if (methodConsumes == null) return classContentTypeAnnotation;
+			AnnotationSpec annotation = methodContentTypeAnnotations.get(methodConsumes);
+			if (annotation == null) {
+				annotation = createContentTypeAnnotation(methodConsumes);
+				methodContentTypeAnnotations.put(methodConsumes, annotation);
 			}
+			return annotation;
+		}
 
-			ClassName outerType = ClassName.bestGuess(parametrizedType.getFullyQualifiedName());
-			TypeName[] paramTypes = new TypeName[parametrizedType.getActualTypeArguments().size()];
-			for (int i = 0; i < paramTypes.length; ++i) {
-				paramTypes[i] = ClassName.bestGuess(parametrizedType.getActualTypeArguments().get(i).getFullyQualifiedName());
-			}
-			return ParameterizedTypeName.get(outerType, paramTypes);
 
-		} else {
-			return ClassName.bestGuess(jaxRsType.getFullyQualifiedName());
+		private boolean isPathChar(char c) {
+			return PATH_CHAR_PATTERN.matcher(String.valueOf(c)).matches();
 		}
+
 	}
 
 }
@@ -0,0 +1,632 @@
+package de.bitdroid.jaxrs2retrofit;
+
+
+import com.google.gson.reflect.TypeToken;
+import com.squareup.javapoet.AnnotationSpec;
+import com.squareup.javapoet.ArrayTypeName;
+import com.squareup.javapoet.ClassName;
+import com.squareup.javapoet.CodeBlock;
+import com.squareup.javapoet.FieldSpec;
+import com.squareup.javapoet.MethodSpec;
+import com.squareup.javapoet.ParameterSpec;
+import com.squareup.javapoet.ParameterizedTypeName;
+import com.squareup.javapoet.TypeName;
+import com.squareup.javapoet.TypeSpec;
+import com.squareup.javapoet.TypeVariableName;
+import com.squareup.javapoet.WildcardTypeName;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UnsupportedEncodingException;
+import java.lang.reflect.Array;
+import java.lang.reflect.Type;
+import java.net.URLEncoder;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import javax.lang.model.element.Modifier;
+
+import retrofit.Callback;
+import retrofit.Endpoint;
+import retrofit.RetrofitError;
+import retrofit.client.Client;
+import retrofit.client.Header;
+import retrofit.client.Request;
+import retrofit.client.Response;
+import retrofit.converter.ConversionException;
+import retrofit.converter.Converter;
+import retrofit.http.Body;
+import retrofit.http.Headers;
+import retrofit.http.Path;
+import retrofit.http.Query;
+import retrofit.http.Streaming;
+import retrofit.mime.TypedByteArray;
+import retrofit.mime.TypedInput;
+import retrofit.mime.TypedOutput;
+import rx.Observable;
+import rx.Subscriber;
+import rx.schedulers.Schedulers;
+
+/**
+ * Creates a class implementing a generated Retrofit 1 interface, which builds the requests
+ * directly and executes them with a Retrofit {@link Client}. Unlike the clients created by a
+ * {@link retrofit.RestAdapter} no proxy is involved and no annotations are parsed via reflection
+ * when calling a method for the first time. Request interceptors, error handlers and logging of
+ * rest adapters are not supported.
+ * <p>
+ * The code shared by all implementations (e.g. encoding params and executing requests) is
+ * part of one support class per package, see {@link #buildSupport()}.
+ */
+final class RetrofitImplementationBuilder {
+
+	static final String CLASS_NAME = "Impl";
+	static final String SUPPORT_CLASS_NAME = "JaxRs2RetrofitSupport";
+
+	// anonymous classes of the implementation access the support via the outer instance
+	private static final String SUPPORT = "this.support", OUTER_SUPPORT = CLASS_NAME + ".this.support";
+
+	private static final String CONTENT_TYPE_HEADER_PREFIX = "Content-type: ";
+	private static final String REQUEST_METHODS_SUFFIX = "Response";
+	private static final Pattern PATH_PARAM_PATTERN = Pattern.compile("\\{([^\\}]+)\\}");
+
+	private static final Map<ClassName, HttpMethod> HTTP_METHODS = new HashMap<>();
+
+	static {
+		for (HttpMethod method : HttpMethod.values()) {
+			HTTP_METHODS.put(ClassName.get(method.getRetrofitClass()), method);
+		}
+	}
+
+	private final TypeSpec.Builder implementationBuilder;
+	private final ClassName supportName;
+	private final Map<TypeName, String> typeConstants = new LinkedHashMap<>();
+	private final Map<String, String> requestMethodNames = new HashMap<>();
+	private final List<MethodSpec> requestMethods = new ArrayList<>();
+
+	private RetrofitImplementationBuilder(ClassName interfaceName) {
+		this.implementationBuilder = TypeSpec
+				.classBuilder(CLASS_NAME)
+				.addModifiers(Modifier.PUBLIC, Modifier.STATIC, Modifier.FINAL)
+				.addSuperinterface(interfaceName)
+				.addAnnotation(AnnotationSpec.builder(SuppressWarnings.class).addMember("value", "$S", "unchecked").build())
+				.addJavadoc("Executes requests directly with a {@link $T}, without the proxy of a {@code RestAdapter}.\n", Client.class);
+		this.supportName = ClassName.get(interfaceName.packageName(), SUPPORT_CLASS_NAME);
+	}
+
+
+	/**
+	 * @param interfaceName the generated interface
+	 * @param methods all methods of the generated interface
+	 * @return the implementation or null if a method cannot be implemented, e.g. because
+	 * a custom converter has mapped one of its params to an unsupported annotation
+	 */
+	static TypeSpec build(ClassName interfaceName, List<MethodSpec> methods) {
+		RetrofitImplementationBuilder builder = new RetrofitImplementationBuilder(interfaceName);
+		for (MethodSpec method : methods) {
+			if (!builder.addMethod(method)) return null;
+		}
+		return builder.build();
+	}
+
+
+	private boolean addMethod(MethodSpec method) {
+		// type of the converted response and the params which are part of the request
+		TypeName resultType = method.returnType;
+		List<ParameterSpec> requestParams = new ArrayList<>(method.parameters);
+		RetrofitReturnStrategy strategy = RetrofitReturnStrategy.REGULAR;
+		String requestMethodName = method.name;
+		if (isParameterized(method.returnType, ClassName.get(Observable.class))) {
+			strategy = RetrofitReturnStrategy.OBSERVABLE;
+			resultType = ((ParameterizedTypeName) method.returnType).typeArguments.get(0);
+		} else if (method.returnType.equals(TypeName.VOID)
+				&& !requestParams.isEmpty()
+				&& isParameterized(requestParams.get(requestParams.size() - 1).type, ClassName.get(Callback.class))) {
+			strategy = RetrofitReturnStrategy.CALLBACK;
+			resultType = ((ParameterizedTypeName) requestParams.remove(requestParams.size() - 1).type).typeArguments.get(0);
+		} else if (requestMethodName.endsWith(RetrofitMethodBuilder.SYNCHRONOUS_METHODS_PREFIX)) {
+			requestMethodName = requestMethodName.substring(0, requestMethodName.length() - RetrofitMethodBuilder.SYNCHRONOUS_METHODS_PREFIX.length());
+		}
+
+		// the different method types of one JaxRs method share one request method
+		requestMethodName = addRequestMethod(method, requestMethodName + REQUEST_METHODS_SUFFIX, requestParams, resultType);
+		if (requestMethodName == null) return false;
+
+		StringBuilder requestCall = new StringBuilder(requestMethodName).append('(');
+		Set<String> paramNames = new HashSet<>();
+		MethodSpec.Builder methodBuilder = MethodSpec
+				.methodBuilder(method.name)
+				.addAnnotation(Override.class)
+				.addModifiers(Modifier.PUBLIC)
+				.returns(method.returnType);
+		for (ParameterSpec param : method.parameters) {
+			methodBuilder.addParameter(param.type, param.name, Modifier.FINAL);
+			paramNames.add(param.name);
+		}
+		for (int i = 0; i < requestParams.size(); ++i) {
+			if (i > 0) requestCall.append(", ");
+			requestCall.append(requestParams.get(i).name);
+		}
+		requestCall.append(')');
+		String typeConstant = getTypeConstant(resultType);
+		// streamed responses are handed out unread, closing their body is up to the caller
+		boolean streaming = false;
+		for (AnnotationSpec annotation : method.annotations) {
+			if (annotation.type.equals(ClassName.get(Streaming.class))) streaming = true;
+		}
+
+		switch (strategy) {
+			case REGULAR:
+				methodBuilder.addStatement("return ($T) $L", resultType, createConvertCall(SUPPORT, requestCall, typeConstant, streaming));
+				break;
+
+			case CALLBACK:
+				String callback = method.parameters.get(method.parameters.size() - 1).name;
+				String response = getUniqueName("response", paramNames);
+				String error = getUniqueName("error", paramNames);
+				TypeSpec runnable = TypeSpec.anonymousClassBuilder("")
+						.addSuperinterface(Runnable.class)
+						.addMethod(MethodSpec.methodBuilder("run")
+								.addAnnotation(Override.class)
+								.addModifiers(Modifier.PUBLIC)
+								.beginControlFlow("try")
+								.addStatement("$T $L = $L", Response.class, response, requestCall)
+								.addStatement("$L.deliver($L, $L, $L)", OUTER_SUPPORT, callback,
+										createConvertCall(OUTER_SUPPORT, response, typeConstant, streaming), response)
+								.addCode(catchClause(RetrofitError.class, error))
+								.addStatement("$L.fail($L, $L)", OUTER_SUPPORT, callback, error)
+								.endControlFlow()
+								.build())
+						.build();
+				methodBuilder.addStatement("$L.httpExecutor.execute($L)", SUPPORT, runnable);
+				break;
+
+			case OBSERVABLE:
+				String subscriber = getUniqueName("subscriber", paramNames);
+				error = getUniqueName("error", paramNames);
+				TypeSpec onSubscribe = TypeSpec.anonymousClassBuilder("")
+						.addSuperinterface(ParameterizedTypeName.get(ClassName.get(Observable.OnSubscribe.class), resultType))
+						.addMethod(MethodSpec.methodBuilder("call")
+								.addAnnotation(Override.class)
+								.addModifiers(Modifier.PUBLIC)
+								.addParameter(ParameterizedTypeName.get(ClassName.get(Subscriber.class), WildcardTypeName.supertypeOf(resultType)), subscriber)
+								.beginControlFlow("try")
+								.addStatement("$L.onNext(($T) $L)", subscriber, resultType, createConvertCall(OUTER_SUPPORT, requestCall, typeConstant, streaming))
+								.addStatement("$L.onCompleted()", subscriber)
+								.addCode(catchClause(RetrofitError.class, error))
+								.addStatement("$L.onError($L)", subscriber, error)
+								.endControlFlow()
+								.build())
+						.build();
+				methodBuilder.addStatement("return $T.create($L).subscribeOn($T.from($L.httpExecutor))", Observable.class, onSubscribe, Schedulers.class, SUPPORT);
+				break;
+
+			default:
+				return false;
+		}
+		implementationBuilder.addMethod(methodBuilder.build());
+		return true;
+	}
+
+
+	private static String createConvertCall(String support, CharSequence response, String typeConstant, boolean streaming) {
+		if (streaming) return response.toString();
+		return support + ".convert(" + response + ", " + typeConstant + ")";
+	}
+
+
+	/**
+	 * Creates a method which builds and executes the request of one JaxRs method.
+	 * @return the name of the method or null if the request cannot be built
+	 */
+	private String addRequestMethod(MethodSpec method, String methodName, List<ParameterSpec> params, TypeName resultType) {
+		String key = methodName + params;
+		if (requestMethodNames.containsKey(key)) return requestMethodNames.get(key);
+
+		// HTTP method, path and content type
+		HttpMethod httpMethod = null;
+		String path = null, contentType = null;
+		for (AnnotationSpec annotation : method.annotations) {
+			String value = getStringValue(annotation);
+			if (HTTP_METHODS.containsKey(annotation.type)) {
+				httpMethod = HTTP_METHODS.get(annotation.type);
+				path = value;
+			} else if (annotation.type.equals(ClassName.get(Headers.class)) && value != null && value.startsWith(CONTENT_TYPE_HEADER_PREFIX)) {
+				contentType = value.substring(CONTENT_TYPE_HEADER_PREFIX.length());
+			} else if (!annotation.type.equals(ClassName.get(Streaming.class))) {
+				return null;
+			}
+		}
+		if (httpMethod == null || path == null) return null;
+
+		MethodSpec.Builder methodBuilder = MethodSpec
+				.methodBuilder(methodName)
+				.addModifiers(Modifier.PRIVATE)
+				.returns(Response.class);
+		Set<String> paramNames = new HashSet<>();
+		for (ParameterSpec param : params) {
+			methodBuilder.addParameter(param.type, param.name);
+			paramNames.add(param.name);
+		}
+		String url = getUniqueName("url", paramNames);
+		String headers = getUniqueName("headers", paramNames);
+
+		// sort params by their annotation, anything but the default converters is not supported
+		Map<String, String> pathParams = new HashMap<>();
+		CodeBlock.Builder queryCode = CodeBlock.builder();
+		CodeBlock.Builder headerCode = CodeBlock.builder();
+		String bodyParam = null;
+		for (ParameterSpec param : params) {
+			if (param.annotations.size() != 1) return null;
+			AnnotationSpec annotation = param.annotations.get(0);
+			TypeName annotationType = annotation.type;
+			if (annotationType.equals(ClassName.get(Body.class))) {
+				bodyParam = param.name;
+				continue;
+			}
+
+			List<CodeBlock> values = annotation.members.get("value");
+			if (values == null || values.size() != 1) return null;
+			CodeBlock name = values.get(0);
+			if (annotationType.equals(ClassName.get(Path.class))) {
+				String pathParam = getStringValue(annotation);
+				if (pathParam == null) return null;
+				pathParams.put(pathParam, param.name);
+			} else if (annotationType.equals(ClassName.get(Query.class))) {
+				queryCode.addStatement("$T.appendQuery($L, $L, $L)", supportName, url, name, param.name);
+			} else if (annotationType.equals(ClassName.get(retrofit.http.Header.class))) {
+				headerCode.addStatement("$T.addHeader($L, $L, $L)", supportName, headers, name, param.name);
+			} else {
+				return null;
+			}
+		}
+
+		// url with encoded path params
+		methodBuilder.addCode("$T $L = $L.newUrl()", StringBuilder.class, url, SUPPORT);
+		Matcher matcher = PATH_PARAM_PATTERN.matcher(path);
+		int end = 0;
+		while (matcher.find()) {
+			String pathParam = pathParams.get(matcher.group(1));
+			if (pathParam == null) return null;
+			if (matcher.start() > end) methodBuilder.addCode(".append($S)", path.substring(end, matcher.start()));
+			methodBuilder.addCode(".append($T.encodePath($S, $L))", supportName, matcher.group(1), pathParam);
+			end = matcher.end();
+		}
+		if (end < path.length()) methodBuilder.addCode(".append($S)", path.substring(end));
+		methodBuilder.addCode(";\n");
+		methodBuilder.addCode(queryCode.build());
+
+		// headers and body, the content type of a body replaces the one of the converter
+		methodBuilder.addStatement("$T<$T> $L = new $T<>()", List.class, Header.class, headers, ArrayList.class);
+		methodBuilder.addCode(headerCode.build());
+		String body = "null";
+		if (bodyParam != null) {
+			body = getUniqueName("body", paramNames);
+			methodBuilder.addStatement("$T $L = $L.toBody($L, $S)", TypedOutput.class, body, SUPPORT, bodyParam, contentType);
+		} else if (contentType != null) {
+			methodBuilder.addStatement("$L.add(new $T($S, $S))", headers, Header.class, "Content-Type", contentType);
+		}
+		methodBuilder.addStatement("return $L.execute($S, $L.toString(), $L, $L, $L)", SUPPORT, httpMethod.name(), url, headers, body, getTypeConstant(resultType));
+
+		requestMethods.add(methodBuilder.build());
+		requestMethodNames.put(key, methodName);
+		return methodName;
+	}
+
+
+	/**
+	 * @return the name of a constant containing the reflection type of a response, which is passed to the converter
+	 */
+	private String getTypeConstant(TypeName type) {
+		String constant = typeConstants.get(type);
+		if (constant == null) {
+			constant = "TYPE_" + typeConstants.size();
+			FieldSpec.Builder fieldBuilder = FieldSpec.builder(Type.class, constant, Modifier.PRIVATE, Modifier.STATIC, Modifier.FINAL);
+			if (isRawType(type)) fieldBuilder.initializer("$T.class", type);
+			else fieldBuilder.initializer("new $T<$T>() { }.getType()", TypeToken.class, type);
+			implementationBuilder.addField(fieldBuilder.build());
+			typeConstants.put(type, constant);
+		}
+		return constant;
+	}
+
+
+	private TypeSpec build() {
+		implementationBuilder
+				.addField(supportName, "support", Modifier.PRIVATE, Modifier.FINAL)
+				.addMethod(MethodSpec.constructorBuilder()
+						.addJavadoc("@param httpExecutor executes the requests of callback and observable methods\n")
+						.addJavadoc("@param callbackExecutor calls the callbacks, e.g. on the main thread\n")
+						.addModifiers(Modifier.PUBLIC)
+						.addParameter(Endpoint.class, "endpoint")
+						.addParameter(Client.class, "client")
+						.addParameter(Converter.class, "converter")
+						.addParameter(Executor.class, "httpExecutor")
+						.addParameter(Executor.class, "callbackExecutor")
+						.addStatement("this.support = new $T(endpoint, client, converter, httpExecutor, callbackExecutor)", supportName)
+						.build());
+
+		for (MethodSpec requestMethod : requestMethods) implementationBuilder.addMethod(requestMethod);
+		return implementationBuilder.build();
+	}
+
+
+	/**
+	 * @return the package private class which builds and executes the requests of all
+	 * implementations in one package, so that its code is not repeated for every resource
+	 */
+	static TypeSpec.Builder buildSupport() {
+		TypeName headerList = ParameterizedTypeName.get(List.class, Header.class);
+		TypeVariableName resultType = TypeVariableName.get("T");
+
+		TypeSpec.Builder supportBuilder = TypeSpec
+				.classBuilder(SUPPORT_CLASS_NAME)
+				.addModifiers(Modifier.FINAL)
+				.addAnnotation(AnnotationSpec.builder(SuppressWarnings.class).addMember("value", "$S", "unchecked").build())
+				.addJavadoc("Builds and executes the requests of all {@code $L} classes in this package.\n", CLASS_NAME)
+				.addField(Endpoint.class, "endpoint", Modifier.PRIVATE, Modifier.FINAL)
+				.addField(Client.class, "client", Modifier.PRIVATE, Modifier.FINAL)
+				.addField(Converter.class, "converter", Modifier.PRIVATE, Modifier.FINAL)
+				.addField(Executor.class, "httpExecutor", Modifier.FINAL)
+				.addField(Executor.class, "callbackExecutor", Modifier.PRIVATE, Modifier.FINAL);
+
+		supportBuilder.addMethod(MethodSpec.constructorBuilder()
+				.addParameter(Endpoint.class, "endpoint")
+				.addParameter(Client.class, "client")
+				.addParameter(Converter.class, "converter")
+				.addParameter(Executor.class, "httpExecutor")
+				.addParameter(Executor.class, "callbackExecutor")
+				.addStatement("this.endpoint = endpoint")
+				.addStatement("this.client = client")
+				.addStatement("this.converter = converter")
+				.addStatement("this.httpExecutor = httpExecutor")
+				.addStatement("this.callbackExecutor = callbackExecutor")
+				.build());
+
+		supportBuilder.addMethod(MethodSpec.methodBuilder("newUrl")
+				.returns(StringBuilder.class)
+				.addStatement("$T url = new $T(endpoint.getUrl())", StringBuilder.class, StringBuilder.class)
+				.addStatement("if (url.length() > 0 && url.charAt(url.length() - 1) == '/') url.deleteCharAt(url.length() - 1)")
+				.addStatement("return url")
+				.build());
+
+		supportBuilder.addMethod(MethodSpec.methodBuilder("encode")
+				.addModifiers(Modifier.PRIVATE, Modifier.STATIC)
+				.returns(String.class)
+				.addParameter(Object.class, "value")
+				.beginControlFlow("try")
+				.addStatement("return $T.encode($T.valueOf(value), $S)", URLEncoder.class, String.class, "UTF-8")
+				.addCode(catchClause(UnsupportedEncodingException.class, "e"))
+				.addStatement("throw new $T(e)", AssertionError.class)
+				.endControlFlow()
+				.build());
+
+		supportBuilder.addMethod(MethodSpec.methodBuilder("encodePath")
+				.addModifiers(Modifier.STATIC)
+				.returns(String.class)
+				.addParameter(String.class, "name")
+				.addParameter(Object.class, "value")
+				.addStatement("if (value == null) throw new $T($S + name + $S)", IllegalArgumentException.class, "Path parameter \"", "\" value must not be null.")
+				.addStatement("return encode(value).replace($S, $S)", "+", "%20")
+				.build());
+
+		// same as RestAdapter: one pair per element of iterables and arrays, null elements are skipped
+		supportBuilder.addMethod(MethodSpec.methodBuilder("appendQuery")
+				.addModifiers(Modifier.STATIC)
+				.addParameter(StringBuilder.class, "url")
+				.addParameter(String.class, "name")
+				.addParameter(Object.class, "value")
+				.addStatement("if (value == null) return")
+				.beginControlFlow("if (value instanceof $T)", Iterable.class)
+				.beginControlFlow("for ($T element : ($T<?>) value)", Object.class, Iterable.class)
+				.addStatement("if (element != null) appendQueryPair(url, name, element)")
+				.endControlFlow()
+				.addCode("$<} else if (value.getClass().isArray()) {\n$>")
+				.beginControlFlow("for (int i = 0, length = $T.getLength(value); i < length; ++i)", Array.class)
+				.addStatement("$T element = $T.get(value, i)", Object.class, Array.class)
+				.addStatement("if (element != null) appendQueryPair(url, name, element)")
+				.endControlFlow()
+				.addCode("$<} else {\n$>")
+				.addStatement("appendQueryPair(url, name, value)")
+				.endControlFlow()
+				.build());
+
+		supportBuilder.addMethod(MethodSpec.methodBuilder("appendQueryPair")
+				.addModifiers(Modifier.PRIVATE, Modifier.STATIC)
+				.addParameter(StringBuilder.class, "url")
+				.addParameter(String.class, "name")
+				.addParameter(Object.class, "value")
+				.addStatement("url.append(url.indexOf($S) < 0 ? '?' : '&').append(encode(name)).append('=').append(encode(value))", "?")
+				.build());
+
+		supportBuilder.addMethod(MethodSpec.methodBuilder("addHeader")
+				.addModifiers(Modifier.STATIC)
+				.addParameter(headerList, "headers")
+				.addParameter(String.class, "name")
+				.addParameter(Object.class, "value")
+				.addStatement("if (value != null) headers.add(new $T(name, $T.valueOf(value)))", Header.class, String.class)
+				.build());
+
+		TypeSpec contentTypeBody = TypeSpec.anonymousClassBuilder("")
+				.addSuperinterface(TypedOutput.class)
+				.addMethod(MethodSpec.methodBuilder("fileName")
+						.addAnnotation(Override.class)
+						.addModifiers(Modifier.PUBLIC)
+						.returns(String.class)
+						.addStatement("return body.fileName()")
+						.build())
+				.addMethod(MethodSpec.methodBuilder("mimeType")
+						.addAnnotation(Override.class)
+						.addModifiers(Modifier.PUBLIC)
+						.returns(String.class)
+						.addStatement("return contentType")
+						.build())
+				.addMethod(MethodSpec.methodBuilder("length")
+						.addAnnotation(Override.class)
+						.addModifiers(Modifier.PUBLIC)
+						.returns(TypeName.LONG)
+						.addStatement("return body.length()")
+						.build())
+				.addMethod(MethodSpec.methodBuilder("writeTo")
+						.addAnnotation(Override.class)
+						.addModifiers(Modifier.PUBLIC)
+						.addParameter(OutputStream.class, "out")
+						.addException(IOException.class)
+						.addStatement("body.writeTo(out)")
+						.build())
+				.build();
+		supportBuilder.addMethod(MethodSpec.methodBuilder("toBody")
+				.returns(TypedOutput.class)
+				.addParameter(Object.class, "value")
+				.addParameter(String.class, "contentType", Modifier.FINAL)
+				.addStatement("if (value == null) throw new $T($S)", IllegalArgumentException.class, "Body parameter value must not be null.")
+				.addStatement("final $T body = (value instanceof $T) ? ($T) value : converter.toBody(value)",
+						TypedOutput.class, TypedOutput.class, TypedOutput.class)
+				.addStatement("if (contentType == null) return body")
+				.addStatement("return $L", contentTypeBody)
+				.build());
+
+		supportBuilder.addMethod(MethodSpec.methodBuilder("execute")
+				.returns(Response.class)
+				.addParameter(String.class, "method")
+				.addParameter(String.class, "url")
+				.addParameter(headerList, "headers")
+				.addParameter(TypedOutput.class, "body")
+				.addParameter(Type.class, "type")
+				.addStatement("$T response", Response.class)
+				.beginControlFlow("try")
+				.addStatement("response = client.execute(new $T(method, url, headers, body))", Request.class)
+				.addCode(catchClause(IOException.class, "e"))
+				.addStatement("throw $T.networkError(url, e)", RetrofitError.class)
+				.addCode(catchClause(RuntimeException.class, "e"))
+				.addStatement("throw $T.unexpectedError(url, e)", RetrofitError.class)
+				.endControlFlow()
+				.addStatement("int status = response.getStatus()")
+				.addStatement("if (status < 200 || status >= 300) throw $T.httpError(url, readBody(response), converter, type)", RetrofitError.class)
+				.addStatement("return response")
+				.build());
+
+		supportBuilder.addMethod(MethodSpec.methodBuilder("convert")
+				.returns(Object.class)
+				.addParameter(Response.class, "response")
+				.addParameter(Type.class, "type")
+				.addStatement("if (type == $T.class) return readBody(response)", Response.class)
+				.addStatement("$T body = response.getBody()", TypedInput.class)
+				.addStatement("if (body == null) return null")
+				.beginControlFlow("try")
+				.addStatement("return converter.fromBody(body, type)")
+				.addCode(catchClause(ConversionException.class, "e"))
+				.addStatement("throw $T.conversionError(response.getUrl(), response, converter, type, e)", RetrofitError.class)
+				.endControlFlow()
+				.build());
+
+		supportBuilder.addMethod(MethodSpec.methodBuilder("readBody")
+				.addModifiers(Modifier.PRIVATE, Modifier.STATIC)
+				.returns(Response.class)
+				.addParameter(Response.class, "response")
+				.addStatement("$T body = response.getBody()", TypedInput.class)
+				.addStatement("if (body == null || body instanceof $T) return response", TypedByteArray.class)
+				.beginControlFlow("try")
+				.addStatement("$T in = body.in()", InputStream.class)
+				.beginControlFlow("try")
+				.addStatement("$T out = new $T()", ByteArrayOutputStream.class, ByteArrayOutputStream.class)
+				.addStatement("byte[] buffer = new byte[4096]")
+				.addStatement("for (int count; (count = in.read(buffer)) != -1; ) out.write(buffer, 0, count)")
+				.addStatement("$T bytes = new $T(body.mimeType(), out.toByteArray())", TypedByteArray.class, TypedByteArray.class)
+				.addStatement("return new $T(response.getUrl(), response.getStatus(), response.getReason(), response.getHeaders(), bytes)", Response.class)
+				.addCode("$<} finally {\n$>")
+				.addStatement("in.close()")
+				.endControlFlow()
+				.addCode(catchClause(IOException.class, "e"))
+				.addStatement("throw $T.networkError(response.getUrl(), e)", RetrofitError.class)
+				.endControlFlow()
+				.build());
+
+		TypeSpec deliverRunnable = TypeSpec.anonymousClassBuilder("")
+				.addSuperinterface(Runnable.class)
+				.addMethod(MethodSpec.methodBuilder("run")
+						.addAnnotation(Override.class)
+						.addModifiers(Modifier.PUBLIC)
+						.addStatement("callback.success(($T) result, response)", resultType)
+						.build())
+				.build();
+		supportBuilder.addMethod(MethodSpec.methodBuilder("deliver")
+				.addTypeVariable(resultType)
+				.addParameter(ParameterizedTypeName.get(ClassName.get(Callback.class), resultType), "callback", Modifier.FINAL)
+				.addParameter(Object.class, "result", Modifier.FINAL)
+				.addParameter(Response.class, "response", Modifier.FINAL)
+				.addStatement("callbackExecutor.execute($L)", deliverRunnable)
+				.build());
+
+		TypeSpec failRunnable = TypeSpec.anonymousClassBuilder("")
+				.addSuperinterface(Runnable.class)
+				.addMethod(MethodSpec.methodBuilder("run")
+						.addAnnotation(Override.class)
+						.addModifiers(Modifier.PUBLIC)
+						.addStatement("callback.failure(error)")
+						.build())
+				.build();
+		supportBuilder.addMethod(MethodSpec.methodBuilder("fail")
+				.addParameter(ParameterizedTypeName.get(ClassName.get(Callback.class), WildcardTypeName.subtypeOf(Object.class)), "callback", Modifier.FINAL)
+				.addParameter(RetrofitError.class, "error", Modifier.FINAL)
+				.addStatement("callbackExecutor.execute($L)", failRunnable)
+				.build());
+
+		return supportBuilder;
+	}
+
+
+	/**
+	 * Same as {@link MethodSpec.Builder#nextControlFlow(String, Object...)}, which does not
+	 * accept arguments in JavaPoet 1.0.0.
+	 */
+	private static CodeBlock catchClause(Class<? extends Throwable> exceptionType, String name) {
+		return CodeBlock.builder().add("$<} catch ($T $L) {\n$>", exceptionType, name).build();
+	}
+
+
+	private static boolean isParameterized(TypeName type, ClassName rawType) {
+		return type instanceof ParameterizedTypeName && ((ParameterizedTypeName) type).rawType.equals(rawType);
+	}
+
+
+	/**
+	 * @return whether the type can be written as class literal, e.g. not for generic types
+	 */
+	private static boolean isRawType(TypeName type) {
+		if (type instanceof ArrayTypeName) return isRawType(((ArrayTypeName) type).componentType);
+		return type instanceof ClassName || type.isPrimitive();
+	}
+
+
+	/**
+	 * @return the value of an annotation if it is a plain string literal, otherwise null
+	 */
+	private static String getStringValue(AnnotationSpec annotation) {
+		List<CodeBlock> values = annotation.members.get("value");
+		if (values == null || values.size() != 1) return null;
+		String code = values.get(0).toString();
+		if (code.length() < 2 || !code.startsWith("\"") || !code.endsWith("\"") || code.indexOf('\\') >= 0) return null;
+		return code.substring(1, code.length() - 1);
+	}
+
+
+	/**
+	 * @return a name for a local variable which does not hide a param
+	 */
+	private static String getUniqueName(String name, Set<String> paramNames) {
+		String uniqueName = name;
+		while (paramNames.contains(uniqueName)) uniqueName += "_";
+		return uniqueName;
+	}
+
+}
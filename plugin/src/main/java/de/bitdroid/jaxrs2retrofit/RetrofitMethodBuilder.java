@@ -8,7 +8,7 @@ import com.squareup.javapoet.ParameterSpec;
 import com.squareup.javapoet.ParameterizedTypeName;
 import com.squareup.javapoet.TypeName;
 
-import java.util.HashMap;
+import java.util.EnumMap;
 import java.util.Map;
 
 import javax.lang.model.element.Modifier;
@@ -18,11 +18,29 @@ import rx.Observable;
 
 public final class RetrofitMethodBuilder {
 
-	private static final String SYNCHRONOUS_METHODS_PREFIX = "Synchronously";
+	static final String SYNCHRONOUS_METHODS_PREFIX = "Synchronously";
+	private static final String OBSERVABLE_METHODS_SUFFIX = "Observable";
+	private static final ClassName RETROFIT_2_CALL = ClassName.get("retrofit2", "Call");
 
-	private final Map<RetrofitReturnStrategy, MethodSpec.Builder> methodBuilders = new HashMap<>();
+	// enum map for a stable method order in generated files
+	private final Map<RetrofitReturnStrategy, MethodSpec.Builder> methodBuilders = new EnumMap<>(RetrofitReturnStrategy.class);
 
 	public RetrofitMethodBuilder(String methodName, GeneratorSettings settings) {
+		if (settings.getRetrofitVersion() == RetrofitVersion.RETROFIT_2) {
+			// one call serves both synchronous and callback methods, observables need a different name
+			if (settings.getGenerateSynchronousMethods() || settings.getGenerateCallbackMethods()) {
+				methodBuilders.put(
+						RetrofitReturnStrategy.CALL,
+						applyModifiers(MethodSpec.methodBuilder(methodName)));
+			}
+			if (settings.getGenerateRxJavaMethods()) {
+				methodBuilders.put(
+						RetrofitReturnStrategy.OBSERVABLE,
+						applyModifiers(MethodSpec.methodBuilder(methodName + OBSERVABLE_METHODS_SUFFIX)));
+			}
+			return;
+		}
+
 		if (settings.getGenerateSynchronousMethods()) {
 			methodBuilders.put(
 					RetrofitReturnStrategy.REGULAR,
@@ -54,6 +72,8 @@ public final class RetrofitMethodBuilder {
 
 
 	public RetrofitMethodBuilder setReturnType(TypeName returnTypeName) {
+		// type arguments cannot be primitive, e.g. Call<Integer> for int
+		TypeName typeArgument = TypeNameResolver.box(returnTypeName);
 		for (Map.Entry<RetrofitReturnStrategy, MethodSpec.Builder> entry : methodBuilders.entrySet()) {
 			MethodSpec.Builder builder = entry.getValue();
 			switch (entry.getKey()) {
@@ -63,14 +83,18 @@ public final class RetrofitMethodBuilder {
 
 				case CALLBACK:
 					ParameterSpec callback = ParameterSpec
-							.builder(ParameterizedTypeName.get(ClassName.get(Callback.class), returnTypeName), "callback")
+							.builder(ParameterizedTypeName.get(ClassName.get(Callback.class), typeArgument), "callback")
 							.build();
 					builder.addParameter(callback);
 					builder.returns(TypeName.VOID);
 					break;
 
+				case CALL:
+					builder.returns(ParameterizedTypeName.get(RETROFIT_2_CALL, typeArgument));
+					break;
+
 				case OBSERVABLE:
-					TypeName observable = ParameterizedTypeName.get(ClassName.get(Observable.class), returnTypeName);
+					TypeName observable = ParameterizedTypeName.get(ClassName.get(Observable.class), typeArgument);
 					builder.returns(observable);
 					break;
 			}
@@ -80,7 +104,7 @@ public final class RetrofitMethodBuilder {
 
 
 	public Map<RetrofitReturnStrategy, MethodSpec> build() {
-		Map<RetrofitReturnStrategy, MethodSpec> result = new HashMap<>();
+		Map<RetrofitReturnStrategy, MethodSpec> result = new EnumMap<>(RetrofitReturnStrategy.class);
 		for (Map.Entry<RetrofitReturnStrategy, MethodSpec.Builder> entry : methodBuilders.entrySet()) {
 			result.put(entry.getKey(), entry.getValue().build());
 		}
@@ -5,6 +5,7 @@ public enum RetrofitReturnStrategy {
 
 	REGULAR, 	// regular Java return types
 	CALLBACK,	// Retrofit callbacks with 'void' return type
+	CALL,		// Retrofit 2 calls, executed synchronously or with a callback
 	OBSERVABLE	// Rx Observables
 
 }
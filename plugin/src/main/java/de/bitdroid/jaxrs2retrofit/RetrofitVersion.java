@@ -0,0 +1,67 @@
+package de.bitdroid.jaxrs2retrofit;
+
+
+import com.squareup.javapoet.ClassName;
+
+import retrofit.client.Response;
+import retrofit.mime.TypedFile;
+import retrofit.mime.TypedOutput;
+
+/**
+ * Retrofit API for which files are generated. The generator and the default converters use
+ * Retrofit 1 types, which are translated to their Retrofit 2 (and OkHttp 3) counterparts
+ * when generating for Retrofit 2.
+ */
+public enum RetrofitVersion {
+
+	RETROFIT_1(1),	// methods with callbacks, RestAdapter client
+	RETROFIT_2(2);	// methods returning calls, OkHttp 3 client
+
+	private static final String
+			RETROFIT_1_HTTP_PACKAGE = "retrofit.http",
+			RETROFIT_2_HTTP_PACKAGE = "retrofit2.http";
+	private static final ClassName
+			RETROFIT_1_RESPONSE = ClassName.get(Response.class),
+			OKHTTP_3_RESPONSE_BODY = ClassName.get("okhttp3", "ResponseBody"),
+			RETROFIT_1_TYPED_OUTPUT = ClassName.get(TypedOutput.class),
+			RETROFIT_1_TYPED_FILE = ClassName.get(TypedFile.class),
+			OKHTTP_3_REQUEST_BODY = ClassName.get("okhttp3", "RequestBody");
+
+	private final int number;
+
+	RetrofitVersion(int number) {
+		this.number = number;
+	}
+
+	public int getNumber() {
+		return number;
+	}
+
+
+	/**
+	 * @return the type of this version which replaces a Retrofit 1 type, e.g. {@code retrofit2.http.GET}
+	 * for {@link retrofit.http.GET}. Types which are not part of Retrofit are returned as they are.
+	 */
+	public ClassName translate(ClassName retrofit1Type) {
+		if (this == RETROFIT_1) return retrofit1Type;
+		if (retrofit1Type.equals(RETROFIT_1_RESPONSE)) return OKHTTP_3_RESPONSE_BODY;
+		if (retrofit1Type.equals(RETROFIT_1_TYPED_OUTPUT) || retrofit1Type.equals(RETROFIT_1_TYPED_FILE)) return OKHTTP_3_REQUEST_BODY;
+		if (retrofit1Type.packageName().equals(RETROFIT_1_HTTP_PACKAGE)) {
+			// annotations have the same names in both versions
+			return ClassName.get(RETROFIT_2_HTTP_PACKAGE, retrofit1Type.simpleName());
+		}
+		return retrofit1Type;
+	}
+
+
+	/**
+	 * @throws IllegalArgumentException if there is no such version
+	 */
+	public static RetrofitVersion forNumber(int number) {
+		for (RetrofitVersion version : values()) {
+			if (version.number == number) return version;
+		}
+		throw new IllegalArgumentException("unsupported Retrofit version " + number);
+	}
+
+}
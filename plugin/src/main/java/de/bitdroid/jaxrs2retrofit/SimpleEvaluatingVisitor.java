@@ -3,46 +3,48 @@ package de.bitdroid.jaxrs2retrofit;
 import com.thoughtworks.qdox.builder.impl.EvaluatingVisitor;
 import com.thoughtworks.qdox.model.JavaClass;
 import com.thoughtworks.qdox.model.JavaField;
-import com.thoughtworks.qdox.model.JavaPackage;
 import com.thoughtworks.qdox.model.expression.FieldRef;
 
+import java.io.File;
+import java.util.Set;
+
 
 final class SimpleEvaluatingVisitor extends EvaluatingVisitor {
 
 	private final JavaClass context;
-
-	public SimpleEvaluatingVisitor(JavaClass context) {
+	private final ConstantTable constantTable;
+	private final Set<File> referencedFiles;
+
+	/**
+	 * @param constantTable table for looking up constants, is filled with all constants used during evaluation
+	 * @param referencedFiles will be filled with all source files whose constants are read during evaluation
+	 */
+	public SimpleEvaluatingVisitor(JavaClass context, ConstantTable constantTable, Set<File> referencedFiles) {
 		this.context = context;
+		this.constantTable = constantTable;
+		this.referencedFiles = referencedFiles;
 	}
 
 	@Override
 	public Object getFieldReferenceValue(JavaField field) {
-		String expression = field.getInitializationExpression();
-		if (expression.startsWith("\"")) expression = expression.substring(1);
-		if (expression.endsWith("\"")) expression = expression.substring(0, expression.length() - 1);
-		return expression;
+		return getConstantValue(field.getDeclaringClass(), field.getName());
 	}
 
 
 	@Override
 	public Object visit(FieldRef fieldRef) {
-		try {
-			return super.visit(fieldRef);
-		} catch (IllegalArgumentException iae) {
-			// let's try again! (some refs are not found unfortunately ...)
-			JavaPackage currentPackage = context.getPackage();
-			JavaClass targetClass = null;
-			for (JavaClass c : currentPackage.getClasses()) {
-				if (c.getName().equals(fieldRef.getNamePart(0))) {
-					targetClass = c;
-				}
-			}
-
-			if (targetClass == null) throw iae;
-
-			JavaField field = targetClass.getFieldByName(fieldRef.getNamePart(1));
-			return getFieldReferenceValue(field);
+		// resolving refs via QDox fails for many classes (e.g. imported ones), hence always use the table
+		return getConstantValue(context, fieldRef.getName());
+	}
+
+
+	private Object getConstantValue(JavaClass context, String name) {
+		ConstantTable.Constant constant = constantTable.get(context, name);
+		if (constant == null) {
+			throw new IllegalArgumentException("Unable to resolve constant " + name + " in " + context.getFullyQualifiedName());
 		}
+		referencedFiles.addAll(constant.getSourceFiles());
+		return constant.getValue();
 	}
 
 }
@@ -0,0 +1,125 @@
+package de.bitdroid.jaxrs2retrofit;
+
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * On disk index of which source files might contain JaxRs resources. Files are searched for the
+ * JaxRs package and the {@code Path} annotation before parsing them, which is a lot cheaper than
+ * parsing and excludes the majority of files in most source trees. Entries are valid as long
+ * as the modification time and size of a file do not change.
+ */
+public final class SourceIndex {
+
+	private static final int VERSION = 1;
+	private static final Charset CHARSET = Charset.forName("UTF-8");
+	private static final byte[]
+			JAX_RS_PACKAGE = "javax.ws.rs".getBytes(CHARSET),
+			PATH_ANNOTATION = "Path".getBytes(CHARSET);
+
+	private final Map<File, Entry> entries;
+
+	private SourceIndex(Map<File, Entry> entries) {
+		this.entries = entries;
+	}
+
+
+	/**
+	 * @return false if the file definitely contains no JaxRs resources, true if it might
+	 */
+	public boolean isCandidate(File sourceFile) throws IOException {
+		long lastModified = sourceFile.lastModified();
+		long length = sourceFile.length();
+		Entry entry = entries.get(sourceFile);
+		if (entry != null && entry.lastModified == lastModified && entry.length == length) return entry.candidate;
+
+		// resources have to import (or fully qualify) the JaxRs Path annotation
+		byte[] content = Files.readAllBytes(sourceFile.toPath());
+		boolean candidate = indexOf(content, JAX_RS_PACKAGE) >= 0 && indexOf(content, PATH_ANNOTATION) >= 0;
+		entries.put(sourceFile, new Entry(lastModified, length, candidate));
+		return candidate;
+	}
+
+
+	/**
+	 * Writes this index to disk, dropping all entries whose source file no longer exists.
+	 */
+	public void write(File indexFile) throws IOException {
+		Map<File, Entry> existingEntries = new HashMap<>();
+		for (Map.Entry<File, Entry> entry : entries.entrySet()) {
+			if (entry.getKey().exists()) existingEntries.put(entry.getKey(), entry.getValue());
+		}
+
+		try (ObjectOutputStream outputStream = new ObjectOutputStream(new BufferedOutputStream(new FileOutputStream(indexFile)))) {
+			outputStream.writeInt(VERSION);
+			outputStream.writeObject(existingEntries);
+		}
+	}
+
+
+	/**
+	 * Creates an empty index.
+	 */
+	public static SourceIndex create() {
+		return new SourceIndex(new HashMap<File, Entry>());
+	}
+
+
+	/**
+	 * Reads a previously written index. Returns an empty index if the file does not exist or
+	 * was written by an incompatible version.
+	 */
+	@SuppressWarnings("unchecked")
+	public static SourceIndex read(File indexFile) {
+		if (!indexFile.exists()) return create();
+		try (ObjectInputStream inputStream = new ObjectInputStream(new BufferedInputStream(new FileInputStream(indexFile)))) {
+			if (inputStream.readInt() != VERSION) return create();
+			return new SourceIndex((Map<File, Entry>) inputStream.readObject());
+		} catch (IOException | ClassNotFoundException | ClassCastException e) {
+			// corrupt or outdated index, start from scratch
+			return create();
+		}
+	}
+
+
+	private static int indexOf(byte[] content, byte[] token) {
+		outer:
+		for (int i = 0; i <= content.length - token.length; ++i) {
+			for (int j = 0; j < token.length; ++j) {
+				if (content[i + j] != token[j]) continue outer;
+			}
+			return i;
+		}
+		return -1;
+	}
+
+
+	private static final class Entry implements Serializable {
+
+		private static final long serialVersionUID = 1L;
+
+		private final long lastModified;
+		private final long length;
+		private final boolean candidate;
+
+		public Entry(long lastModified, long length, boolean candidate) {
+			this.lastModified = lastModified;
+			this.length = length;
+			this.candidate = candidate;
+		}
+
+	}
+
+}
@@ -0,0 +1,154 @@
+package de.bitdroid.jaxrs2retrofit;
+
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Maps JaxRs source files to the Retrofit files which have been generated from them,
+ * including all source files whose constants were used during generation. Can be
+ * stored on disk in order to only regenerate resources affected by a change.
+ */
+public final class SourceMapping {
+
+	private static final String
+			KEY_SOURCE = "source",
+			KEY_GENERATED = "generated",
+			KEY_DEPENDENCY = "dependency";
+
+	private final Map<File, Set<File>> generatedFiles = new TreeMap<>();
+	private final Map<File, Set<File>> dependencies = new TreeMap<>();
+
+
+	/**
+	 * Adds one generated file to a source file.
+	 * @param source JaxRs source file
+	 * @param generatedFile Retrofit file that was generated from the source
+	 * @param dependencyFiles other source files that were required for generating the Retrofit file
+	 */
+	public void put(File source, File generatedFile, Collection<File> dependencyFiles) {
+		getOrCreate(generatedFiles, source).add(generatedFile);
+		Set<File> sourceDependencies = getOrCreate(dependencies, source);
+		sourceDependencies.addAll(dependencyFiles);
+		sourceDependencies.remove(source);
+	}
+
+
+	/**
+	 * Removes a source file from this mapping.
+	 * @return all files that have been generated from this source
+	 */
+	public Set<File> remove(File source) {
+		dependencies.remove(source);
+		Set<File> files = generatedFiles.remove(source);
+		if (files == null) return new HashSet<>();
+		return files;
+	}
+
+
+	/**
+	 * @return all source files for which at least one Retrofit file has been generated
+	 */
+	public Set<File> getSources() {
+		return new TreeSet<>(generatedFiles.keySet());
+	}
+
+
+	/**
+	 * @return all sources that depend on at least one of the passed files
+	 */
+	public Set<File> getDependentSources(Collection<File> changedFiles) {
+		Set<File> dependentSources = new TreeSet<>();
+		for (Map.Entry<File, Set<File>> entry : dependencies.entrySet()) {
+			for (File changedFile : changedFiles) {
+				if (entry.getValue().contains(changedFile)) {
+					dependentSources.add(entry.getKey());
+					break;
+				}
+			}
+		}
+		return dependentSources;
+	}
+
+
+	public void write(File mappingFile) throws IOException {
+		try (BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(
+				new FileOutputStream(mappingFile), StandardCharsets.UTF_8))) {
+
+			for (Map.Entry<File, Set<File>> entry : generatedFiles.entrySet()) {
+				writeLine(writer, KEY_SOURCE, entry.getKey());
+				for (File file : entry.getValue()) writeLine(writer, KEY_GENERATED, file);
+				for (File file : dependencies.get(entry.getKey())) writeLine(writer, KEY_DEPENDENCY, file);
+			}
+		}
+	}
+
+
+	/**
+	 * Reads a previously written mapping. Returns an empty mapping if the file does not exist.
+	 */
+	public static SourceMapping read(File mappingFile) throws IOException {
+		SourceMapping mapping = new SourceMapping();
+		if (!mappingFile.exists()) return mapping;
+
+		try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+				new FileInputStream(mappingFile), StandardCharsets.UTF_8))) {
+
+			File source = null;
+			String line;
+			while ((line = reader.readLine()) != null) {
+				int separatorIdx = line.indexOf('\t');
+				if (separatorIdx < 0) throw new IOException("invalid mapping line " + line);
+				String key = line.substring(0, separatorIdx);
+				File file = new File(line.substring(separatorIdx + 1));
+
+				if (KEY_SOURCE.equals(key)) {
+					source = file;
+					getOrCreate(mapping.generatedFiles, source);
+					getOrCreate(mapping.dependencies, source);
+				} else if (source == null) {
+					throw new IOException("missing source for line " + line);
+				} else if (KEY_GENERATED.equals(key)) {
+					mapping.generatedFiles.get(source).add(file);
+				} else if (KEY_DEPENDENCY.equals(key)) {
+					mapping.dependencies.get(source).add(file);
+				} else {
+					throw new IOException("unknown key " + key);
+				}
+			}
+		}
+		return mapping;
+	}
+
+
+	private static void writeLine(BufferedWriter writer, String key, File file) throws IOException {
+		writer.write(key);
+		writer.write('\t');
+		writer.write(file.getPath());
+		writer.newLine();
+	}
+
+
+	private static Set<File> getOrCreate(Map<File, Set<File>> map, File key) {
+		Set<File> values = map.get(key);
+		if (values == null) {
+			values = new TreeSet<>();
+			map.put(key, values);
+		}
+		return values;
+	}
+
+}
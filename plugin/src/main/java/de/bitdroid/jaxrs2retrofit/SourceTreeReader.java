@@ -0,0 +1,262 @@
+package de.bitdroid.jaxrs2retrofit;
+
+
+import com.thoughtworks.qdox.JavaProjectBuilder;
+import com.thoughtworks.qdox.model.JavaClass;
+import com.thoughtworks.qdox.model.JavaSource;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+import de.bitdroid.jaxrs2retrofit.model.ResourceModel;
+import de.bitdroid.jaxrs2retrofit.model.SourceModel;
+
+/**
+ * Reads the JaxRs resources of source files which are part of one source tree. Only files which
+ * are not cached are parsed, other classes of the tree are loaded on demand (e.g. for constants).
+ */
+public final class SourceTreeReader {
+
+	public static final int DEFAULT_BATCH_SIZE = 100;
+	private static final String JAVA_FILE_SUFFIX = ".java";
+
+	private final File sourceDir;
+	private final ResourceModelCache cache;
+	private final int batchSize;
+	private final GenerationMetrics metrics;
+	private final SourceIndex index;
+	private final ClassNameFilter classNameFilter;
+	// constants are shared by all batches, so each one is evaluated only once
+	private final ConstantTable constantTable = new ConstantTable();
+	private final boolean readEntities;
+	private final QDoxResourceReader reader;
+
+	/**
+	 * @param sourceDir root dir of all source files
+	 * @param cache cache for reading and storing resources, can be null
+	 */
+	public SourceTreeReader(File sourceDir, ResourceModelCache cache) {
+		this(sourceDir, cache, DEFAULT_BATCH_SIZE);
+	}
+
+
+	/**
+	 * @param batchSize max number of files which are parsed into one QDox model
+	 *                  when using {@link #read(Collection, SourceHandler)}
+	 */
+	public SourceTreeReader(File sourceDir, ResourceModelCache cache, int batchSize) {
+		this(sourceDir, cache, batchSize, new GenerationMetrics());
+	}
+
+
+	/**
+	 * @param metrics collects parse and evaluation times as well as cache hits
+	 */
+	public SourceTreeReader(File sourceDir, ResourceModelCache cache, int batchSize, GenerationMetrics metrics) {
+		this(sourceDir, cache, batchSize, metrics, SourceIndex.create(), ClassNameFilter.ACCEPT_ALL);
+	}
+
+
+	/**
+	 * @param index index for skipping files without JaxRs resources before parsing them
+	 * @param classNameFilter files whose name is not accepted are skipped before parsing them
+	 */
+	public SourceTreeReader(
+			File sourceDir,
+			ResourceModelCache cache,
+			int batchSize,
+			GenerationMetrics metrics,
+			SourceIndex index,
+			ClassNameFilter classNameFilter) {
+
+		this(sourceDir, cache, batchSize, metrics, index, classNameFilter, false);
+	}
+
+
+	/**
+	 * @param readEntities whether to read the entities of resources (see {@link GeneratorSettings#getGenerateJsonAdapters()}),
+	 *                     their source files are dependencies of the resources then
+	 */
+	public SourceTreeReader(
+			File sourceDir,
+			ResourceModelCache cache,
+			int batchSize,
+			GenerationMetrics metrics,
+			SourceIndex index,
+			ClassNameFilter classNameFilter,
+			boolean readEntities) {
+
+		this.sourceDir = sourceDir;
+		this.cache = cache;
+		this.batchSize = Math.max(1, batchSize);
+		this.metrics = metrics;
+		this.index = index;
+		this.classNameFilter = classNameFilter;
+		this.readEntities = readEntities;
+		this.reader = new QDoxResourceReader(constantTable, readEntities);
+	}
+
+
+	/**
+	 * Reads source files in batches, each with its own QDox model which is released before
+	 * reading the next batch. Hence memory usage does not grow with the size of the source tree.
+	 * @param sourceFiles files to read, have to be part of the source dir
+	 * @param handler called once per batch with one model per source file, batches are
+	 *                passed in the same order as the source files
+	 */
+	public void read(Collection<File> sourceFiles, SourceHandler handler) throws IOException {
+		List<File> batch = new ArrayList<>(batchSize);
+		for (File sourceFile : sourceFiles) {
+			batch.add(sourceFile);
+			if (batch.size() < batchSize) continue;
+			handler.onSourcesRead(read(batch));
+			batch.clear();
+		}
+		if (!batch.isEmpty()) handler.onSourcesRead(read(batch));
+	}
+
+
+	/**
+	 * @param sourceFiles files to read, have to be part of the source dir
+	 * @return one model per source file in the same order as the passed files
+	 */
+	public List<SourceModel> read(Collection<File> sourceFiles) throws IOException {
+		Map<File, SourceModel> sources = new LinkedHashMap<>();
+		Map<File, List<ResourceModel>> staleResources = new LinkedHashMap<>();
+		Map<File, Set<File>> staleDependencies = new LinkedHashMap<>();
+
+		for (File sourceFile : sourceFiles) {
+			sourceFile = sourceFile.getAbsoluteFile();
+			if (!isCandidate(sourceFile)) {
+				metrics.addFilteredFile();
+				sources.put(sourceFile, new SourceModel(sourceFile, new ArrayList<ResourceModel>(), new TreeSet<File>()));
+				continue;
+			}
+
+			SourceModel source = (cache == null) ? null : cache.get(sourceFile, readEntities);
+			if (cache != null) metrics.addCacheResult(source != null);
+			sources.put(sourceFile, source);
+			if (source == null) {
+				staleResources.put(sourceFile, new ArrayList<ResourceModel>());
+				staleDependencies.put(sourceFile, new TreeSet<File>());
+			}
+		}
+		if (staleResources.isEmpty()) return new ArrayList<>(sources.values());
+
+		// parse stale files only
+		long parseStartTime = System.nanoTime();
+		JavaProjectBuilder builder = new JavaProjectBuilder();
+		if (sourceDir.isDirectory()) builder.addSourceFolder(sourceDir);
+		for (File sourceFile : staleResources.keySet()) builder.addSource(sourceFile);
+		Collection<JavaClass> javaClasses = builder.getClasses();
+		metrics.addPhaseTime(GenerationMetrics.Phase.PARSE, parseStartTime);
+
+		for (JavaClass javaClass : javaClasses) {
+			File sourceFile = getSourceFile(javaClass);
+			if (!staleResources.containsKey(sourceFile)) continue; // loaded on demand
+
+			long evaluationStartTime = System.nanoTime();
+			Set<File> referencedFiles = new HashSet<>();
+			ResourceModel resource = reader.readResource(javaClass, referencedFiles);
+			metrics.addPhaseTime(GenerationMetrics.Phase.CONSTANT_EVALUATION, evaluationStartTime);
+			if (resource == null) continue;
+
+			staleResources.get(sourceFile).add(resource);
+			referencedFiles.remove(sourceFile);
+			staleDependencies.get(sourceFile).addAll(referencedFiles);
+		}
+
+		for (File sourceFile : staleResources.keySet()) {
+			SourceModel source = new SourceModel(sourceFile, staleResources.get(sourceFile), staleDependencies.get(sourceFile));
+			sources.put(sourceFile, source);
+			if (cache != null) cache.put(source, readEntities);
+		}
+		return new ArrayList<>(sources.values());
+	}
+
+
+	/**
+	 * Drops all constants and cached hashes of changed files, which keeps this reader usable
+	 * after source files have been modified (e.g. when watching a source tree).
+	 */
+	public void invalidate(Collection<File> changedFiles) {
+		constantTable.invalidate(changedFiles);
+		if (cache != null) cache.invalidate(changedFiles);
+	}
+
+
+	/**
+	 * @return false if the file cannot contain a resource which should be generated
+	 */
+	private boolean isCandidate(File sourceFile) throws IOException {
+		long scanStartTime = System.nanoTime();
+		try {
+			// not 100% accurate, as non public top level classes might have a different name
+			String fileName = sourceFile.getName();
+			String className = fileName.endsWith(JAVA_FILE_SUFFIX)
+					? fileName.substring(0, fileName.length() - JAVA_FILE_SUFFIX.length())
+					: fileName;
+			return classNameFilter.accepts(className) && index.isCandidate(sourceFile);
+		} finally {
+			metrics.addPhaseTime(GenerationMetrics.Phase.SCAN, scanStartTime);
+		}
+	}
+
+
+	/**
+	 * @return all Java files of a source tree in alphabetical order, or the passed
+	 * file if it is not a directory
+	 */
+	public static List<File> findSourceFiles(File sourceDir) {
+		List<File> sourceFiles = new ArrayList<>();
+		if (sourceDir.isDirectory()) findSourceFiles(sourceDir.getAbsoluteFile(), sourceFiles);
+		else if (sourceDir.isFile()) sourceFiles.add(sourceDir.getAbsoluteFile());
+		return sourceFiles;
+	}
+
+
+	private static void findSourceFiles(File dir, List<File> sourceFiles) {
+		File[] files = dir.listFiles();
+		if (files == null) return;
+		Arrays.sort(files);
+		for (File file : files) {
+			if (file.isDirectory()) findSourceFiles(file, sourceFiles);
+			else if (file.getName().endsWith(JAVA_FILE_SUFFIX)) sourceFiles.add(file);
+		}
+	}
+
+
+	/**
+	 * @return the file a class was parsed from, or null if it is not part of a source tree
+	 */
+	static File getSourceFile(JavaClass javaClass) {
+		JavaSource source = javaClass.getSource();
+		if (source == null) return null;
+		URL url = source.getURL();
+		if (url == null || !"file".equals(url.getProtocol())) return null;
+		try {
+			return new File(url.toURI());
+		} catch (URISyntaxException use) {
+			return null;
+		}
+	}
+
+
+	public interface SourceHandler {
+
+		void onSourcesRead(List<SourceModel> sources) throws IOException;
+
+	}
+
+}
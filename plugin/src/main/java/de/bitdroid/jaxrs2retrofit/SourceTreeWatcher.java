@@ -0,0 +1,167 @@
+package de.bitdroid.jaxrs2retrofit;
+
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+
+import de.bitdroid.jaxrs2retrofit.model.ResourceModel;
+import de.bitdroid.jaxrs2retrofit.model.SourceModel;
+
+/**
+ * Watches a source tree for changes and reads the changed files again, including all files
+ * whose resources use constants of the changed files. Uses one {@link SourceTreeReader} for all
+ * changes, hence constants of unchanged files are evaluated only once.
+ * Not thread safe, all methods have to be called from the same thread.
+ */
+public final class SourceTreeWatcher implements AutoCloseable {
+
+	// editors usually write files in several steps, wait until all of them are done
+	private static final long SETTLE_TIME_MS = 50;
+	private static final String JAVA_FILE_SUFFIX = ".java";
+
+	private final File sourceDir;
+	private final SourceTreeReader reader;
+	private final SourceTreeReader.SourceHandler handler;
+	private final WatchService watchService;
+	private final Map<WatchKey, Path> watchedDirs = new HashMap<>();
+	private final Map<File, Set<File>> dependencies = new HashMap<>(); // source --> files whose constants it uses
+
+	/**
+	 * Starts watching the source dir, changes are collected until calling {@link #awaitChanges()}.
+	 * @param sourceDir root dir of all source files, including all sub dirs
+	 * @param handler receives all sources that have been read, deleted files are passed without resources
+	 */
+	public SourceTreeWatcher(File sourceDir, SourceTreeReader reader, SourceTreeReader.SourceHandler handler) throws IOException {
+		if (!sourceDir.isDirectory()) throw new IllegalArgumentException(sourceDir + " is not a directory");
+		this.sourceDir = sourceDir.getAbsoluteFile();
+		this.reader = reader;
+		this.handler = handler;
+		this.watchService = FileSystems.getDefault().newWatchService();
+		registerDirs(this.sourceDir);
+	}
+
+
+	/**
+	 * Reads the passed files as well as all files that depend on them. Pass all files of the
+	 * source tree for the initial read.
+	 * @param changedFiles files that have been added, modified or deleted
+	 */
+	public void read(Collection<File> changedFiles) throws IOException {
+		Set<File> affectedFiles = new TreeSet<>();
+		for (File changedFile : changedFiles) affectedFiles.add(changedFile.getAbsoluteFile());
+		reader.invalidate(affectedFiles);
+		for (Map.Entry<File, Set<File>> entry : dependencies.entrySet()) {
+			for (File changedFile : changedFiles) {
+				if (entry.getValue().contains(changedFile.getAbsoluteFile())) {
+					affectedFiles.add(entry.getKey());
+					break;
+				}
+			}
+		}
+
+		List<File> existingFiles = new ArrayList<>();
+		List<SourceModel> deletedSources = new ArrayList<>();
+		for (File file : affectedFiles) {
+			if (file.isFile()) {
+				existingFiles.add(file);
+			} else {
+				dependencies.remove(file);
+				deletedSources.add(new SourceModel(file, new ArrayList<ResourceModel>(), new TreeSet<File>()));
+			}
+		}
+
+		if (!deletedSources.isEmpty()) handler.onSourcesRead(deletedSources);
+		reader.read(existingFiles, new SourceTreeReader.SourceHandler() {
+			@Override
+			public void onSourcesRead(List<SourceModel> sources) throws IOException {
+				for (SourceModel source : sources) dependencies.put(source.getSourceFile(), source.getDependencies());
+				handler.onSourcesRead(sources);
+			}
+		});
+	}
+
+
+	/**
+	 * Blocks until at least one Java file of the source tree has been added, modified or deleted.
+	 * @return all changed Java files
+	 */
+	public Set<File> awaitChanges() throws IOException, InterruptedException {
+		Set<File> changedFiles = new TreeSet<>();
+		WatchKey key = watchService.take();
+		while (true) {
+			collectChanges(key, changedFiles);
+			key = watchService.poll(SETTLE_TIME_MS, TimeUnit.MILLISECONDS);
+			if (key != null) continue;
+			if (!changedFiles.isEmpty()) return changedFiles;
+			key = watchService.take();
+		}
+	}
+
+
+	@Override
+	public void close() throws IOException {
+		watchService.close();
+	}
+
+
+	private void collectChanges(WatchKey key, Set<File> changedFiles) throws IOException {
+		Path dir = watchedDirs.get(key);
+		for (WatchEvent<?> event : key.pollEvents()) {
+			if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+				// events have been lost, check the whole tree
+				changedFiles.addAll(SourceTreeReader.findSourceFiles(sourceDir));
+				continue;
+			}
+			if (dir == null) continue;
+
+			File file = dir.resolve((Path) event.context()).toFile();
+			if (event.kind() == StandardWatchEventKinds.ENTRY_CREATE && file.isDirectory()) {
+				// files might have been created before the dir has been registered
+				registerDirs(file);
+				changedFiles.addAll(SourceTreeReader.findSourceFiles(file));
+			} else if (file.getName().endsWith(JAVA_FILE_SUFFIX)) {
+				changedFiles.add(file);
+			} else if (event.kind() == StandardWatchEventKinds.ENTRY_DELETE) {
+				// deleting a dir reports only the dir itself, not the files it contained
+				Path deletedPath = file.toPath();
+				for (File source : dependencies.keySet()) {
+					if (source.toPath().startsWith(deletedPath)) changedFiles.add(source);
+				}
+			}
+		}
+		if (!key.reset()) watchedDirs.remove(key);
+	}
+
+
+	private void registerDirs(File dir) throws IOException {
+		if (!dir.isDirectory()) return;
+		Path path = dir.toPath();
+		WatchKey key = path.register(
+				watchService,
+				StandardWatchEventKinds.ENTRY_CREATE,
+				StandardWatchEventKinds.ENTRY_MODIFY,
+				StandardWatchEventKinds.ENTRY_DELETE);
+		watchedDirs.put(key, path);
+
+		File[] files = dir.listFiles();
+		if (files == null) return;
+		for (File file : files) {
+			if (file.isDirectory()) registerDirs(file);
+		}
+	}
+
+}
@@ -0,0 +1,61 @@
+package de.bitdroid.jaxrs2retrofit;
+
+
+import com.squareup.javapoet.JavaFile;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.util.Calendar;
+import java.util.GregorianCalendar;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Writes generated files into one source jar (a zip file containing the Java sources) with a single
+ * sequential stream, which is a lot cheaper than writing thousands of small files on slow (e.g.
+ * network) file systems. Not thread safe, files should be written from one thread only.
+ */
+public final class SrcJarWriter implements Closeable {
+
+	private static final Charset CHARSET = Charset.forName("UTF-8");
+	// fixed time stamp, the same files should always result in the same jar
+	private static final long ENTRY_TIME = new GregorianCalendar(1980, Calendar.FEBRUARY, 1).getTimeInMillis();
+
+	private final ZipOutputStream outputStream;
+
+	public SrcJarWriter(File jarFile) throws IOException {
+		File parentDir = jarFile.getAbsoluteFile().getParentFile();
+		if (parentDir != null) Files.createDirectories(parentDir.toPath());
+		this.outputStream = new ZipOutputStream(new BufferedOutputStream(new FileOutputStream(jarFile)));
+	}
+
+
+	public void write(JavaFile javaFile) throws IOException {
+		ZipEntry entry = new ZipEntry(getPath(javaFile));
+		entry.setTime(ENTRY_TIME);
+		outputStream.putNextEntry(entry);
+		outputStream.write(javaFile.toString().getBytes(CHARSET));
+		outputStream.closeEntry();
+	}
+
+
+	@Override
+	public void close() throws IOException {
+		outputStream.close();
+	}
+
+
+	/**
+	 * @return the location of a generated file inside the jar
+	 */
+	public static String getPath(JavaFile javaFile) {
+		String packageDir = javaFile.packageName.isEmpty() ? "" : javaFile.packageName.replace('.', '/') + "/";
+		return packageDir + javaFile.typeSpec.name + ".java";
+	}
+
+}
@@ -0,0 +1,180 @@
+package de.bitdroid.jaxrs2retrofit;
+
+
+import com.squareup.javapoet.ArrayTypeName;
+import com.squareup.javapoet.ClassName;
+import com.squareup.javapoet.ParameterizedTypeName;
+import com.squareup.javapoet.TypeName;
+import com.squareup.javapoet.WildcardTypeName;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import retrofit.client.Response;
+
+/**
+ * Converts the type names of the resource models (e.g. {@code java.util.Map<java.lang.String,java.util.List<Foo>>})
+ * to JavaPoet types, including nested type arguments, wildcards and arrays. Resolved types are
+ * cached and can be used from multiple threads at once.
+ */
+final class TypeNameResolver {
+
+	private static final Map<String, TypeName> KNOWN_TYPES = new HashMap<>();
+
+	static {
+		KNOWN_TYPES.put(void.class.getName(), TypeName.VOID);
+		KNOWN_TYPES.put(boolean.class.getName(), TypeName.BOOLEAN);
+		KNOWN_TYPES.put(int.class.getName(), TypeName.INT);
+		KNOWN_TYPES.put(float.class.getName(), TypeName.FLOAT);
+		KNOWN_TYPES.put(double.class.getName(), TypeName.DOUBLE);
+		KNOWN_TYPES.put(short.class.getName(), TypeName.SHORT);
+		KNOWN_TYPES.put(long.class.getName(), TypeName.LONG);
+		KNOWN_TYPES.put(char.class.getName(), TypeName.CHAR);
+		KNOWN_TYPES.put(byte.class.getName(), TypeName.BYTE);
+		// map jaxrs response objects to retrofit ones
+		KNOWN_TYPES.put(javax.ws.rs.core.Response.class.getName(), ClassName.get(Response.class));
+	}
+
+	private static final Map<TypeName, ClassName> BOXED_TYPES = new HashMap<>();
+
+	static {
+		BOXED_TYPES.put(TypeName.VOID, ClassName.get(Void.class));
+		BOXED_TYPES.put(TypeName.BOOLEAN, ClassName.get(Boolean.class));
+		BOXED_TYPES.put(TypeName.BYTE, ClassName.get(Byte.class));
+		BOXED_TYPES.put(TypeName.SHORT, ClassName.get(Short.class));
+		BOXED_TYPES.put(TypeName.INT, ClassName.get(Integer.class));
+		BOXED_TYPES.put(TypeName.LONG, ClassName.get(Long.class));
+		BOXED_TYPES.put(TypeName.CHAR, ClassName.get(Character.class));
+		BOXED_TYPES.put(TypeName.FLOAT, ClassName.get(Float.class));
+		BOXED_TYPES.put(TypeName.DOUBLE, ClassName.get(Double.class));
+	}
+
+	private final ConcurrentMap<String, TypeName> cache = new ConcurrentHashMap<>();
+
+	/**
+	 * @throws IllegalArgumentException if the type cannot be parsed
+	 */
+	public TypeName resolve(String type) {
+		TypeName typeName = cache.get(type);
+		if (typeName == null) {
+			typeName = new TypeParser(type).parse();
+			// types are immutable, no harm in another thread resolving the same type at the same time
+			cache.put(type, typeName);
+		}
+		return typeName;
+	}
+
+
+	/**
+	 * @return the wrapper class of primitive types and void (e.g. for type arguments), all other types as they are
+	 */
+	static TypeName box(TypeName type) {
+		ClassName boxedType = BOXED_TYPES.get(type);
+		return (boxedType == null) ? type : boxedType;
+	}
+
+
+	private TypeName resolveRawType(String rawType) {
+		TypeName typeName = cache.get(rawType);
+		if (typeName == null) {
+			typeName = KNOWN_TYPES.get(rawType);
+			if (typeName == null) typeName = ClassName.bestGuess(rawType);
+			cache.put(rawType, typeName);
+		}
+		return typeName;
+	}
+
+
+	/**
+	 * Recursive descent parser for one type name.
+	 */
+	private final class TypeParser {
+
+		private final String type;
+		private int pos = 0;
+
+		TypeParser(String type) {
+			this.type = type;
+		}
+
+
+		TypeName parse() {
+			TypeName typeName = parseType();
+			skipWhitespace();
+			if (pos != type.length()) throw error();
+			return typeName;
+		}
+
+
+		private TypeName parseType() {
+			skipWhitespace();
+			if (consume('?')) return parseWildcard();
+
+			int start = pos;
+			while (pos < type.length() && (Character.isJavaIdentifierPart(type.charAt(pos)) || type.charAt(pos) == '.')) ++pos;
+			if (start == pos) throw error();
+			TypeName typeName = resolveRawType(type.substring(start, pos));
+
+			skipWhitespace();
+			if (consume('<')) {
+				if (!(typeName instanceof ClassName)) throw error();
+				List<TypeName> typeArguments = new ArrayList<>();
+				do {
+					typeArguments.add(parseType());
+					skipWhitespace();
+				} while (consume(','));
+				if (!consume('>')) throw error();
+				typeName = ParameterizedTypeName.get((ClassName) typeName, typeArguments.toArray(new TypeName[typeArguments.size()]));
+			}
+
+			skipWhitespace();
+			while (consume('[')) {
+				skipWhitespace();
+				if (!consume(']')) throw error();
+				typeName = ArrayTypeName.of(typeName);
+				skipWhitespace();
+			}
+			return typeName;
+		}
+
+
+		private TypeName parseWildcard() {
+			skipWhitespace();
+			if (consumeKeyword("extends")) return WildcardTypeName.subtypeOf(parseType());
+			if (consumeKeyword("super")) return WildcardTypeName.supertypeOf(parseType());
+			return WildcardTypeName.subtypeOf(Object.class);
+		}
+
+
+		private boolean consume(char c) {
+			if (pos >= type.length() || type.charAt(pos) != c) return false;
+			++pos;
+			return true;
+		}
+
+
+		private boolean consumeKeyword(String keyword) {
+			int end = pos + keyword.length();
+			if (!type.startsWith(keyword, pos)) return false;
+			if (end >= type.length() || !Character.isWhitespace(type.charAt(end))) return false;
+			pos = end;
+			return true;
+		}
+
+
+		private void skipWhitespace() {
+			while (pos < type.length() && Character.isWhitespace(type.charAt(pos))) ++pos;
+		}
+
+
+		private IllegalArgumentException error() {
+			return new IllegalArgumentException("Unable to parse type " + type + " at index " + pos);
+		}
+
+	}
+
+}
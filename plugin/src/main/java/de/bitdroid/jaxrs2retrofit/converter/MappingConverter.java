@@ -24,4 +24,10 @@ public final class MappingConverter implements ParamConverter {
 				param.getAnnotationParameterMap());
 	}
 
+
+	@Override
+	public String toString() {
+		return MappingConverter.class.getSimpleName() + "(" + targetAnnotationType + ")";
+	}
+
 }
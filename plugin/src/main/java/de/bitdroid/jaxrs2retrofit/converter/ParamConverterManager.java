@@ -3,8 +3,11 @@ package de.bitdroid.jaxrs2retrofit.converter;
 
 import com.squareup.javapoet.ClassName;
 
-import java.util.HashMap;
+import java.lang.reflect.Proxy;
+import java.util.Arrays;
 import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
 
 import javax.ws.rs.HeaderParam;
 import javax.ws.rs.PathParam;
@@ -17,6 +20,7 @@ import retrofit.http.Query;
 
 /**
  * Stores instances of {@link de.bitdroid.jaxrs2retrofit.converter.ParamConverter} in memory.
+ * Can be read from multiple threads at once.
  */
 public final class ParamConverterManager {
 
@@ -42,21 +46,55 @@ public final class ParamConverterManager {
 	}
 
 
-	private final Map<ClassName, ParamConverter> converterMap = new HashMap<>();
+	private final Map<ClassName, ParamConverter> converterMap = new ConcurrentHashMap<>();
 
 
+	/**
+	 * @param converter the converter for the annotation type, null removes the current one
+	 */
 	public void registerConverter(ClassName annotationType, ParamConverter converter) {
-		converterMap.put(annotationType, converter);
+		if (converter == null) converterMap.remove(annotationType);
+		else converterMap.put(annotationType, converter);
 	}
 
 
 	public ParamConverter getConverter(ClassName annotationType) {
+		// concurrent maps do not support null keys
+		if (annotationType == null) return null;
 		return converterMap.get(annotationType);
 	}
 
 
 	public boolean hasConverter(ClassName annotationType) {
+		if (annotationType == null) return false;
 		return converterMap.containsKey(annotationType);
 	}
 
+
+	/**
+	 * @return a description of all registered converters, which changes whenever converters are
+	 * added, removed or replaced (e.g. for detecting changed build settings). Converters are
+	 * described by their {@link Object#toString()} if they override it, otherwise by their class.
+	 */
+	public String getFingerprint() {
+		Map<String, String> descriptions = new TreeMap<>();
+		for (Map.Entry<ClassName, ParamConverter> entry : converterMap.entrySet()) {
+			descriptions.put(entry.getKey().toString(), describe(entry.getValue()));
+		}
+		return descriptions.toString();
+	}
+
+
+	private static String describe(ParamConverter converter) {
+		Class<?> converterClass = converter.getClass();
+		// names of proxy classes (e.g. closures of build scripts) differ between runs
+		if (Proxy.isProxyClass(converterClass)) return Proxy.class.getSimpleName() + Arrays.toString(converterClass.getInterfaces());
+		try {
+			if (converterClass.getMethod("toString").getDeclaringClass() != Object.class) return converter.toString();
+		} catch (NoSuchMethodException nsme) {
+			// every class has a toString method
+		}
+		return converterClass.getName();
+	}
+
 }
@@ -0,0 +1,36 @@
+package de.bitdroid.jaxrs2retrofit.model;
+
+
+import java.io.Serializable;
+import java.util.Map;
+
+/**
+ * Annotation of a JaxRs parameter.
+ */
+public final class AnnotationModel implements Serializable {
+
+	private static final long serialVersionUID = 1L;
+
+	private final String type;
+	private final Map<String, Object> namedParameterMap;
+
+	/**
+	 * @param type fully qualified name of the annotation
+	 * @param namedParameterMap annotation parameters, values are Java source code
+	 */
+	public AnnotationModel(String type, Map<String, Object> namedParameterMap) {
+		this.type = type;
+		this.namedParameterMap = namedParameterMap;
+	}
+
+
+	public String getType() {
+		return type;
+	}
+
+
+	public Map<String, Object> getNamedParameterMap() {
+		return namedParameterMap;
+	}
+
+}
@@ -0,0 +1,47 @@
+package de.bitdroid.jaxrs2retrofit.model;
+
+
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * Class which is sent or received as body of a JaxRs method, e.g. a DTO. Only classes whose
+ * serialized fields can all be accessed without reflection are read.
+ */
+public final class EntityModel implements Serializable {
+
+	private static final long serialVersionUID = 1L;
+
+	private final String qualifiedName;
+	private final List<PropertyModel> properties;
+	private final List<String> constructorParams;
+
+	/**
+	 * @param qualifiedName canonical name of the class
+	 * @param properties all fields which are serialized, in the order of serialization
+	 * @param constructorParams names of the properties which are passed to the constructor when
+	 *                          deserializing, in the order of the constructor params. All other
+	 *                          properties are set afterwards. Null if the default constructor is used.
+	 */
+	public EntityModel(String qualifiedName, List<PropertyModel> properties, List<String> constructorParams) {
+		this.qualifiedName = qualifiedName;
+		this.properties = properties;
+		this.constructorParams = constructorParams;
+	}
+
+
+	public String getQualifiedName() {
+		return qualifiedName;
+	}
+
+
+	public List<PropertyModel> getProperties() {
+		return properties;
+	}
+
+
+	public List<String> getConstructorParams() {
+		return constructorParams;
+	}
+
+}
@@ -0,0 +1,74 @@
+package de.bitdroid.jaxrs2retrofit.model;
+
+
+import java.io.Serializable;
+import java.util.List;
+
+import de.bitdroid.jaxrs2retrofit.HttpMethod;
+
+/**
+ * One JaxRs resource method.
+ */
+public final class MethodModel implements Serializable {
+
+	private static final long serialVersionUID = 1L;
+
+	private final String name;
+	private final HttpMethod httpMethod;
+	private final String path;
+	private final String consumes;
+	private final List<ParamModel> params;
+	private final String returnType;
+
+	/**
+	 * @param path evaluated value of the method {@link javax.ws.rs.Path} annotation or null
+	 * @param consumes evaluated value of the method {@link javax.ws.rs.Consumes} annotation or null
+	 * @param returnType fully qualified name of the return type including generic arguments
+	 */
+	public MethodModel(
+			String name,
+			HttpMethod httpMethod,
+			String path,
+			String consumes,
+			List<ParamModel> params,
+			String returnType) {
+
+		this.name = name;
+		this.httpMethod = httpMethod;
+		this.path = path;
+		this.consumes = consumes;
+		this.params = params;
+		this.returnType = returnType;
+	}
+
+
+	public String getName() {
+		return name;
+	}
+
+
+	public HttpMethod getHttpMethod() {
+		return httpMethod;
+	}
+
+
+	public String getPath() {
+		return path;
+	}
+
+
+	public String getConsumes() {
+		return consumes;
+	}
+
+
+	public List<ParamModel> getParams() {
+		return params;
+	}
+
+
+	public String getReturnType() {
+		return returnType;
+	}
+
+}
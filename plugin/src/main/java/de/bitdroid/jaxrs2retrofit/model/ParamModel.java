@@ -0,0 +1,82 @@
+package de.bitdroid.jaxrs2retrofit.model;
+
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import javax.ws.rs.BeanParam;
+import javax.ws.rs.CookieParam;
+import javax.ws.rs.FormParam;
+import javax.ws.rs.HeaderParam;
+import javax.ws.rs.MatrixParam;
+import javax.ws.rs.PathParam;
+import javax.ws.rs.QueryParam;
+import javax.ws.rs.container.Suspended;
+import javax.ws.rs.core.Context;
+
+/**
+ * One parameter of a JaxRs method including all of its annotations.
+ */
+public final class ParamModel implements Serializable {
+
+	private static final long serialVersionUID = 1L;
+
+	/**
+	 * Annotations of params which are not the request body, all others (e.g. for validation)
+	 * do not change the meaning of a param.
+	 */
+	private static final Set<String> NON_BODY_ANNOTATIONS = new HashSet<>(Arrays.asList(
+			PathParam.class.getName(),
+			QueryParam.class.getName(),
+			HeaderParam.class.getName(),
+			FormParam.class.getName(),
+			MatrixParam.class.getName(),
+			CookieParam.class.getName(),
+			BeanParam.class.getName(),
+			Context.class.getName(),
+			Suspended.class.getName()));
+
+	private final String name;
+	private final String type;
+	private final List<AnnotationModel> annotations;
+
+	/**
+	 * @param type fully qualified name of the parameter type
+	 */
+	public ParamModel(String name, String type, List<AnnotationModel> annotations) {
+		this.name = name;
+		this.type = type;
+		this.annotations = annotations;
+	}
+
+
+	public String getName() {
+		return name;
+	}
+
+
+	public String getType() {
+		return type;
+	}
+
+
+	public List<AnnotationModel> getAnnotations() {
+		return annotations;
+	}
+
+
+	/**
+	 * @return true if this param is the request body (and hence an entity), which is the
+	 * case unless it has a JaxRs param annotation
+	 */
+	public boolean isBody() {
+		for (AnnotationModel annotation : annotations) {
+			if (NON_BODY_ANNOTATIONS.contains(annotation.getType())) return false;
+		}
+		return true;
+	}
+
+}
@@ -0,0 +1,60 @@
+package de.bitdroid.jaxrs2retrofit.model;
+
+
+import java.io.Serializable;
+
+/**
+ * One serialized field of an {@link EntityModel}.
+ */
+public final class PropertyModel implements Serializable {
+
+	private static final long serialVersionUID = 1L;
+
+	private final String name;
+	private final String jsonName;
+	private final String type;
+	private final String getter;
+	private final String setter;
+
+	/**
+	 * @param name name of the field
+	 * @param jsonName name of the field in JSON documents
+	 * @param type canonical name of the field type including generic arguments
+	 * @param getter name of the method returning the field, null if the field is public
+	 * @param setter name of the method setting the field, null if the field is public
+	 *               or passed to the constructor
+	 */
+	public PropertyModel(String name, String jsonName, String type, String getter, String setter) {
+		this.name = name;
+		this.jsonName = jsonName;
+		this.type = type;
+		this.getter = getter;
+		this.setter = setter;
+	}
+
+
+	public String getName() {
+		return name;
+	}
+
+
+	public String getJsonName() {
+		return jsonName;
+	}
+
+
+	public String getType() {
+		return type;
+	}
+
+
+	public String getGetter() {
+		return getter;
+	}
+
+
+	public String getSetter() {
+		return setter;
+	}
+
+}
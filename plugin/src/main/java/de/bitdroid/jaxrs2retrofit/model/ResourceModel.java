@@ -0,0 +1,91 @@
+package de.bitdroid.jaxrs2retrofit.model;
+
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Generator relevant parts of one JaxRs resource class, independent of
+ * how the resource has been read.
+ */
+public final class ResourceModel implements Serializable {
+
+	private static final long serialVersionUID = 1L;
+
+	private final String qualifiedName;
+	private final String name;
+	private final String path;
+	private final String consumes;
+	private final List<MethodModel> methods;
+	private final List<EntityModel> entities;
+
+	/**
+	 * Creates a resource without any entities.
+	 */
+	public ResourceModel(
+			String qualifiedName,
+			String name,
+			String path,
+			String consumes,
+			List<MethodModel> methods) {
+
+		this(qualifiedName, name, path, consumes, methods, new ArrayList<EntityModel>());
+	}
+
+
+	/**
+	 * @param qualifiedName fully qualified name of the JaxRs class
+	 * @param name simple name of the JaxRs class
+	 * @param path evaluated value of the class {@link javax.ws.rs.Path} annotation
+	 * @param consumes evaluated value of the class {@link javax.ws.rs.Consumes} annotation or null
+	 * @param methods all valid JaxRs methods of this resource
+	 * @param entities classes sent or received by the methods, including the classes of their fields
+	 */
+	public ResourceModel(
+			String qualifiedName,
+			String name,
+			String path,
+			String consumes,
+			List<MethodModel> methods,
+			List<EntityModel> entities) {
+
+		this.qualifiedName = qualifiedName;
+		this.name = name;
+		this.path = path;
+		this.consumes = consumes;
+		this.methods = methods;
+		this.entities = entities;
+	}
+
+
+	public String getQualifiedName() {
+		return qualifiedName;
+	}
+
+
+	public String getName() {
+		return name;
+	}
+
+
+	public String getPath() {
+		return path;
+	}
+
+
+	public String getConsumes() {
+		return consumes;
+	}
+
+
+	public List<MethodModel> getMethods() {
+		return methods;
+	}
+
+
+	public List<EntityModel> getEntities() {
+		return entities;
+	}
+
+}
@@ -0,0 +1,45 @@
+package de.bitdroid.jaxrs2retrofit.model;
+
+
+import java.io.File;
+import java.io.Serializable;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * All JaxRs resources of one source file.
+ */
+public final class SourceModel implements Serializable {
+
+	private static final long serialVersionUID = 1L;
+
+	private final File sourceFile;
+	private final List<ResourceModel> resources;
+	private final Set<File> dependencies;
+
+	/**
+	 * @param resources all resources of this source file, empty if the file contains no resources
+	 * @param dependencies other source files whose constants were used for reading the resources
+	 */
+	public SourceModel(File sourceFile, List<ResourceModel> resources, Set<File> dependencies) {
+		this.sourceFile = sourceFile;
+		this.resources = resources;
+		this.dependencies = dependencies;
+	}
+
+
+	public File getSourceFile() {
+		return sourceFile;
+	}
+
+
+	public List<ResourceModel> getResources() {
+		return resources;
+	}
+
+
+	public Set<File> getDependencies() {
+		return dependencies;
+	}
+
+}
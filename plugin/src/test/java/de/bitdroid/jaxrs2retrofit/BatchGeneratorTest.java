@@ -0,0 +1,102 @@
+package de.bitdroid.jaxrs2retrofit;
+
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.List;
+
+import de.bitdroid.jaxrs2retrofit.converter.ParamConverterManager;
+import de.bitdroid.jaxrs2retrofit.integration.resources.SimpleResource;
+
+public final class BatchGeneratorTest {
+
+	private static final File RESOURCES_DIR = new File(System.getProperty("user.dir") + "/src/test/java/" + SimpleResource.class.getPackage().getName().replaceAll("\\.", "/"));
+
+	private File baseDir, manifestFile;
+
+	@Before
+	public void createBaseDir() throws Exception {
+		baseDir = Files.createTempDirectory(BatchGeneratorTest.class.getSimpleName()).toFile();
+		manifestFile = new File(baseDir, "manifest.json");
+	}
+
+
+	@After
+	public void deleteBaseDir() {
+		deleteRecursively(baseDir);
+	}
+
+
+	@Test
+	public void testGenerate() throws Exception {
+		writeManifest("{ \"modules\": ["
+				+ "{ \"name\": \"first\", \"src\": \"" + escape(RESOURCES_DIR) + "\", \"packageName\": \"client.first\", \"out\": \"first\" },"
+				+ "{ \"name\": \"second\", \"src\": \"" + escape(RESOURCES_DIR) + "\", \"packageName\": \"client.second\","
+				+ " \"includedClassNamesRegex\": \"Simple.*\", \"srcjar\": \"second.srcjar\", \"report\": \"second.json\" }"
+				+ "] }");
+
+		List<BatchManifest.Module> modules = BatchManifest.read(manifestFile).getModules();
+		Assert.assertEquals(2, modules.size());
+		Assert.assertEquals(new File(baseDir, "first"), modules.get(0).getOutputDir());
+
+		new BatchGenerator(2, ParamConverterManager.getDefaultInstance(), GeneratorLogger.NONE).generate(modules);
+
+		File simpleResource = new File(baseDir, "first/client/first/SimpleResource.java");
+		Assert.assertTrue(simpleResource.isFile());
+		Assert.assertTrue(new String(Files.readAllBytes(simpleResource.toPath()), "UTF-8").contains("package client.first;"));
+		Assert.assertTrue(new File(baseDir, "first/client/first/ContentTypeResource.java").isFile());
+		Assert.assertTrue(new File(baseDir, "second.srcjar").isFile());
+		Assert.assertTrue(new File(baseDir, "second.json").isFile());
+		Assert.assertFalse(new File(baseDir, "first/client/second").exists());
+	}
+
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testMissingInput() throws Exception {
+		writeManifest("{ \"modules\": [ { \"name\": \"first\", \"out\": \"first\" } ] }");
+		BatchManifest.read(manifestFile);
+	}
+
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testMissingOutput() throws Exception {
+		writeManifest("{ \"modules\": [ { \"name\": \"first\", \"src\": \"src\" } ] }");
+		BatchManifest.read(manifestFile);
+	}
+
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testInvalidManifest() throws Exception {
+		writeManifest("{ \"modules\": [ { \"name\": ");
+		BatchManifest.read(manifestFile);
+	}
+
+
+	private void writeManifest(String content) throws IOException {
+		try (FileWriter writer = new FileWriter(manifestFile)) {
+			writer.write(content);
+		}
+	}
+
+
+	private static String escape(File file) {
+		return file.getAbsolutePath().replace("\\", "\\\\");
+	}
+
+
+	private static void deleteRecursively(File file) {
+		File[] files = file.listFiles();
+		if (files != null) {
+			for (File child : files) deleteRecursively(child);
+		}
+		file.delete();
+	}
+
+}
@@ -0,0 +1,136 @@
+package de.bitdroid.jaxrs2retrofit;
+
+
+import com.squareup.javapoet.JavaFile;
+import com.thoughtworks.qdox.JavaProjectBuilder;
+import com.thoughtworks.qdox.model.JavaClass;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.FileWriter;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.jar.JarOutputStream;
+import java.util.zip.ZipEntry;
+
+import javax.tools.JavaCompiler;
+import javax.tools.ToolProvider;
+
+import de.bitdroid.jaxrs2retrofit.integration.resources.SimpleResource;
+import de.bitdroid.jaxrs2retrofit.model.MethodModel;
+import de.bitdroid.jaxrs2retrofit.model.ResourceModel;
+
+public final class ClassFileResourceReaderTest {
+
+	private static final String RESOURCES_DIR = System.getProperty("user.dir") + "/src/test/java/" + SimpleResource.class.getPackage().getName().replaceAll("\\.", "/");
+
+	private final RetrofitGenerator generator = new RetrofitGenerator(
+			new GeneratorSettings.Builder("client").setIncludeGenerationDate(false).build());
+
+	private File outputDir;
+
+	@Before
+	public void compileResources() throws Exception {
+		outputDir = Files.createTempDirectory(ClassFileResourceReaderTest.class.getSimpleName()).toFile();
+		List<String> args = new ArrayList<>(Arrays.asList("-g", "-parameters", "-proc:none", "-d", outputDir.getPath()));
+		for (File sourceFile : SourceTreeReader.findSourceFiles(new File(RESOURCES_DIR))) {
+			args.add(sourceFile.getPath());
+		}
+		JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+		Assert.assertEquals(0, compiler.run(null, null, null, args.toArray(new String[args.size()])));
+	}
+
+
+	@After
+	public void deleteOutputDir() {
+		deleteRecursively(outputDir);
+	}
+
+
+	@Test
+	public void testSameOutputAsSourceParsing() throws Exception {
+		assertSameOutputAsSourceParsing(new ClassFileResourceReader().read(outputDir));
+	}
+
+
+	@Test
+	public void testReadJar() throws Exception {
+		File jarFile = new File(outputDir, "resources.jar");
+		try (JarOutputStream jarStream = new JarOutputStream(new FileOutputStream(jarFile))) {
+			String packageDir = SimpleResource.class.getPackage().getName().replaceAll("\\.", "/");
+			File[] classFiles = new File(outputDir, packageDir).listFiles();
+			Assert.assertNotNull(classFiles);
+			for (File classFile : classFiles) {
+				jarStream.putNextEntry(new ZipEntry(packageDir + "/" + classFile.getName()));
+				jarStream.write(Files.readAllBytes(classFile.toPath()));
+				jarStream.closeEntry();
+			}
+		}
+		assertSameOutputAsSourceParsing(new ClassFileResourceReader().read(jarFile));
+	}
+
+
+	@Test
+	public void testGenericParams() throws Exception {
+		File sourceFile = new File(outputDir, "GenericResource.java");
+		try (FileWriter writer = new FileWriter(sourceFile)) {
+			writer.write("package server;\n"
+					+ "import java.util.*;\n"
+					+ "import javax.ws.rs.*;\n"
+					+ "@Path(\"/items\")\n"
+					+ "public interface GenericResource {\n"
+					+ "	@POST void addItems(Map<String, List<Integer>> items, @QueryParam(\"id\") long id, @QueryParam(\"q\") List<? extends Number> q);\n"
+					+ "	@GET String getItem(@QueryParam(\"id\") int id);\n"
+					+ "}\n");
+		}
+		JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+		Assert.assertEquals(0, compiler.run(null, null, null, "-parameters", "-proc:none", "-d", outputDir.getPath(), sourceFile.getPath()));
+
+		List<ResourceModel> resources = new ClassFileResourceReader().read(new File(outputDir, "server/GenericResource.class"));
+		MethodModel addItems = resources.get(0).getMethods().get(0);
+		Assert.assertEquals("java.util.Map<java.lang.String,java.util.List<java.lang.Integer>>", addItems.getParams().get(0).getType());
+		Assert.assertEquals("long", addItems.getParams().get(1).getType());
+		Assert.assertEquals("java.util.List<? extends java.lang.Number>", addItems.getParams().get(2).getType());
+		// methods without generic types have no signature
+		Assert.assertEquals("int", resources.get(0).getMethods().get(1).getParams().get(0).getType());
+	}
+
+
+	private void assertSameOutputAsSourceParsing(List<ResourceModel> resources) {
+		Map<String, String> generatedFiles = new HashMap<>();
+		for (ResourceModel resource : resources) {
+			generatedFiles.put(resource.getQualifiedName(), generator.createResource(resource).toString());
+		}
+
+		JavaProjectBuilder builder = new JavaProjectBuilder();
+		builder.addSourceTree(new File(RESOURCES_DIR));
+		int resourceCount = 0;
+		for (JavaClass jaxRsClass : builder.getClasses()) {
+			JavaFile expectedFile = generator.createResource(jaxRsClass);
+			if (expectedFile == null) continue;
+			Assert.assertEquals(expectedFile.toString(), generatedFiles.get(jaxRsClass.getFullyQualifiedName()));
+			++resourceCount;
+		}
+		Assert.assertTrue(resourceCount > 0);
+		Assert.assertEquals(resourceCount, generatedFiles.size());
+	}
+
+
+	private static void deleteRecursively(File file) {
+		File[] files = file.listFiles();
+		if (files != null) {
+			for (File child : files) deleteRecursively(child);
+		}
+		file.delete();
+	}
+
+}
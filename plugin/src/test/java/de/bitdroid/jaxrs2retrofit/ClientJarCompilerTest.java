@@ -0,0 +1,104 @@
+package de.bitdroid.jaxrs2retrofit;
+
+
+import com.squareup.javapoet.AnnotationSpec;
+import com.squareup.javapoet.ClassName;
+import com.squareup.javapoet.JavaFile;
+import com.squareup.javapoet.MethodSpec;
+import com.squareup.javapoet.TypeSpec;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.lang.reflect.Method;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import javax.lang.model.element.Modifier;
+
+import retrofit.http.GET;
+
+public final class ClientJarCompilerTest {
+
+	private final ClientJarCompiler compiler = new ClientJarCompiler(new ArrayList<File>(), new ArrayList<String>());
+	private File jarFile;
+
+	@Before
+	public void createJarFile() throws Exception {
+		jarFile = File.createTempFile(ClientJarCompilerTest.class.getSimpleName(), ".jar");
+	}
+
+
+	@After
+	public void deleteJarFile() {
+		jarFile.delete();
+	}
+
+
+	@Test
+	public void testCompile() throws Exception {
+		compiler.compile(Arrays.asList(createJavaFile("/users")), jarFile);
+
+		try (URLClassLoader classLoader = new URLClassLoader(new URL[] { jarFile.toURI().toURL() }, getClass().getClassLoader())) {
+			Class<?> clientClass = classLoader.loadClass("client.UserResource");
+			Method method = clientClass.getMethod("getUsers");
+			Assert.assertEquals("/users", method.getAnnotation(GET.class).value());
+		}
+	}
+
+
+	@Test
+	public void testCompileFiles() throws Exception {
+		File sourceDir = Files.createTempDirectory(ClientJarCompilerTest.class.getSimpleName()).toFile();
+		File sourceFile = new File(sourceDir, "UserResource.java");
+		try {
+			try (FileWriter writer = new FileWriter(sourceFile)) {
+				writer.write(createJavaFile("/users").toString());
+			}
+			compiler.compileFiles(Arrays.asList(sourceFile), jarFile);
+
+			try (URLClassLoader classLoader = new URLClassLoader(new URL[] { jarFile.toURI().toURL() }, getClass().getClassLoader())) {
+				Assert.assertNotNull(classLoader.loadClass("client.UserResource"));
+			}
+		} finally {
+			sourceFile.delete();
+			sourceDir.delete();
+		}
+	}
+
+
+	@Test(expected = java.io.IOException.class)
+	public void testCompileError() throws Exception {
+		TypeSpec typeSpec = TypeSpec
+				.interfaceBuilder("BrokenResource")
+				.addModifiers(Modifier.PUBLIC)
+				.addMethod(MethodSpec.methodBuilder("getUsers")
+						.addModifiers(Modifier.PUBLIC, Modifier.ABSTRACT)
+						.returns(ClassName.get("server", "MissingEntity"))
+						.build())
+				.build();
+		compiler.compile(Arrays.asList(JavaFile.builder("client", typeSpec).build()), jarFile);
+	}
+
+
+	private JavaFile createJavaFile(String path) {
+		TypeSpec typeSpec = TypeSpec
+				.interfaceBuilder("UserResource")
+				.addModifiers(Modifier.PUBLIC)
+				.addMethod(MethodSpec.methodBuilder("getUsers")
+						.addAnnotation(AnnotationSpec.builder(GET.class).addMember("value", "$S", path).build())
+						.addModifiers(Modifier.PUBLIC, Modifier.ABSTRACT)
+						.returns(String.class)
+						.build())
+				.build();
+		return JavaFile.builder("client", typeSpec).build();
+	}
+
+}
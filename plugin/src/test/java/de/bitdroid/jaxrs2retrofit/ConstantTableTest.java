@@ -0,0 +1,138 @@
+package de.bitdroid.jaxrs2retrofit;
+
+
+import com.thoughtworks.qdox.JavaProjectBuilder;
+import com.thoughtworks.qdox.model.JavaClass;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+
+import de.bitdroid.jaxrs2retrofit.model.MethodModel;
+import de.bitdroid.jaxrs2retrofit.model.ResourceModel;
+import de.bitdroid.jaxrs2retrofit.model.SourceModel;
+
+public final class ConstantTableTest {
+
+	private File sourceDir;
+	private File constantsFile, resourceFile;
+
+	@Before
+	public void createSources() throws Exception {
+		sourceDir = Files.createTempDirectory(ConstantTableTest.class.getSimpleName()).toFile();
+		constantsFile = writeSource("common/Constants.java",
+				"package common;\n"
+				+ "public final class Constants {\n"
+				+ "\tpublic static final String ROOT = \"/api\";\n"
+				+ "\tpublic static final String ITEMS = ROOT + \"/items\";\n"
+				+ "\tpublic static final class Params {\n"
+				+ "\t\tpublic static final String ID = \"id\";\n"
+				+ "\t\tpublic static final String ITEM = \"/{\" + ID + \"}\";\n"
+				+ "\t}\n"
+				+ "}\n");
+		resourceFile = writeSource("server/ItemResource.java",
+				"package server;\n"
+				+ "import common.Constants;\n"
+				+ "import javax.ws.rs.*;\n"
+				+ "import javax.ws.rs.core.MediaType;\n"
+				+ "@Path(Constants.ITEMS)\n"
+				+ "@Consumes(MediaType.APPLICATION_JSON)\n"
+				+ "public class ItemResource {\n"
+				+ "\tprivate static final String SUFFIX = \"/\" + (1 + 2) + 'x';\n"
+				+ "\t@GET\n"
+				+ "\t@Path(Constants.Params.ITEM + SUFFIX)\n"
+				+ "\tpublic String get(@PathParam(Constants.Params.ID) String id) { return null; }\n"
+				+ "\t@DELETE\n"
+				+ "\t@Path(common.Constants.Params.ITEM)\n"
+				+ "\t@Consumes(MediaType.TEXT_PLAIN)\n"
+				+ "\tpublic void delete(@PathParam(\"id\") String id) { }\n"
+				+ "}\n");
+	}
+
+
+	@After
+	public void deleteSources() {
+		resourceFile.delete();
+		constantsFile.delete();
+		resourceFile.getParentFile().delete();
+		constantsFile.getParentFile().delete();
+		sourceDir.delete();
+	}
+
+
+	@Test
+	public void testReadResource() throws Exception {
+		List<SourceModel> sources = new SourceTreeReader(sourceDir, null).read(Arrays.asList(resourceFile));
+		Assert.assertEquals(1, sources.size());
+		Assert.assertEquals(new HashSet<>(Arrays.asList(constantsFile)), sources.get(0).getDependencies());
+
+		ResourceModel resource = sources.get(0).getResources().get(0);
+		Assert.assertEquals("/api/items", resource.getPath());
+		Assert.assertEquals("application/json", resource.getConsumes());
+
+		MethodModel getMethod = resource.getMethods().get(0);
+		Assert.assertEquals("/{id}/3x", getMethod.getPath());
+		// constants are replaced by their value, since generated files do not import them
+		Assert.assertEquals("\"id\"", getMethod.getParams().get(0).getAnnotations().get(0).getNamedParameterMap().get("value"));
+
+		MethodModel deleteMethod = resource.getMethods().get(1);
+		Assert.assertEquals("/{id}", deleteMethod.getPath());
+		Assert.assertEquals("text/plain", deleteMethod.getConsumes());
+	}
+
+
+	@Test
+	public void testSharedBetweenBuilders() throws Exception {
+		ConstantTable constantTable = new ConstantTable();
+		ConstantTable.Constant firstConstant = constantTable.get(parseResource(), "Constants.Params.ITEM");
+		ConstantTable.Constant secondConstant = constantTable.get(parseResource(), "Constants.Params.ITEM");
+
+		Assert.assertEquals("/{id}", firstConstant.getValue());
+		Assert.assertSame(firstConstant, secondConstant);
+		Assert.assertEquals(new HashSet<>(Arrays.asList(constantsFile)), firstConstant.getSourceFiles());
+		Assert.assertNull(constantTable.get(parseResource(), "Constants.MISSING"));
+	}
+
+
+	@Test
+	public void testCyclicConstants() throws Exception {
+		File cyclicFile = writeSource("server/Cyclic.java",
+				"package server;\n"
+				+ "public class Cyclic {\n"
+				+ "\tpublic static final String A = B + \"a\";\n"
+				+ "\tpublic static final String B = A + \"b\";\n"
+				+ "}\n");
+		try {
+			JavaProjectBuilder builder = new JavaProjectBuilder();
+			builder.addSourceFolder(sourceDir);
+			JavaClass cyclicClass = builder.addSource(cyclicFile).getClasses().get(0);
+			// must not loop forever, value itself is not important
+			Assert.assertNotNull(new ConstantTable().get(cyclicClass, "A"));
+		} finally {
+			cyclicFile.delete();
+		}
+	}
+
+
+	private JavaClass parseResource() throws Exception {
+		JavaProjectBuilder builder = new JavaProjectBuilder();
+		builder.addSourceFolder(sourceDir);
+		return builder.addSource(resourceFile).getClasses().get(0);
+	}
+
+
+	private File writeSource(String path, String source) throws Exception {
+		File file = new File(sourceDir, path);
+		Files.createDirectories(file.getParentFile().toPath());
+		Files.write(file.toPath(), source.getBytes("UTF-8"));
+		return file.getAbsoluteFile();
+	}
+
+}
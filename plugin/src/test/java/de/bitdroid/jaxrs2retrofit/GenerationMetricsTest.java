@@ -0,0 +1,66 @@
+package de.bitdroid.jaxrs2retrofit;
+
+
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import de.bitdroid.jaxrs2retrofit.model.AnnotationModel;
+import de.bitdroid.jaxrs2retrofit.model.MethodModel;
+import de.bitdroid.jaxrs2retrofit.model.ParamModel;
+import de.bitdroid.jaxrs2retrofit.model.ResourceModel;
+
+public final class GenerationMetricsTest {
+
+	@Test
+	public void testWriteReport() throws Exception {
+		GenerationMetrics metrics = new GenerationMetrics();
+		metrics.addPhaseTime(GenerationMetrics.Phase.PARSE, System.nanoTime() - 2 * 1000 * 1000);
+		metrics.addClassTime("server.Resource", 3 * 1000 * 1000);
+		metrics.addGeneratedResource(createResource());
+		metrics.addCacheResult(true);
+		metrics.addCacheResult(false);
+		metrics.addCacheResult(false);
+		metrics.addWrittenFile(false);
+		metrics.addFilteredFile();
+
+		File reportDir = Files.createTempDirectory(GenerationMetricsTest.class.getSimpleName()).toFile();
+		File reportFile = new File(reportDir, "reports/report.json");
+		try {
+			metrics.writeReport(reportFile);
+			JsonObject report = new JsonParser().parse(new String(Files.readAllBytes(reportFile.toPath()), "UTF-8")).getAsJsonObject();
+
+			Assert.assertTrue(report.getAsJsonObject("phaseTimes").get("parse").getAsDouble() >= 2);
+			Assert.assertEquals(0, report.getAsJsonObject("phaseTimes").get("writing").getAsDouble(), 0);
+			Assert.assertEquals(3, report.getAsJsonObject("classTimes").get("server.Resource").getAsDouble(), 0);
+			Assert.assertEquals(1, report.get("resources").getAsInt());
+			Assert.assertEquals(2, report.get("methods").getAsInt());
+			Assert.assertEquals(1, report.get("params").getAsInt());
+			Assert.assertEquals(1, report.get("cacheHits").getAsInt());
+			Assert.assertEquals(2, report.get("cacheMisses").getAsInt());
+			Assert.assertEquals(0, report.get("writtenFiles").getAsInt());
+			Assert.assertEquals(1, report.get("unchangedFiles").getAsInt());
+			Assert.assertEquals(1, report.get("filteredFiles").getAsInt());
+		} finally {
+			reportFile.delete();
+			reportFile.getParentFile().delete();
+			reportDir.delete();
+		}
+	}
+
+
+	private ResourceModel createResource() {
+		ParamModel param = new ParamModel("id", String.class.getName(), new ArrayList<AnnotationModel>());
+		return new ResourceModel("server.Resource", "Resource", "/resource", null, Arrays.asList(
+				new MethodModel("get", HttpMethod.GET, null, null, Arrays.asList(param), String.class.getName()),
+				new MethodModel("delete", HttpMethod.DELETE, null, null, new ArrayList<ParamModel>(), void.class.getName())));
+	}
+
+}
@@ -0,0 +1,67 @@
+package de.bitdroid.jaxrs2retrofit;
+
+
+import com.squareup.javapoet.JavaFile;
+import com.squareup.javapoet.TypeSpec;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.nio.file.Files;
+
+import javax.lang.model.element.Modifier;
+
+public final class JavaFileWriterTest {
+
+	private File outputDir;
+
+	@Before
+	public void createOutputDir() throws Exception {
+		outputDir = Files.createTempDirectory(JavaFileWriterTest.class.getSimpleName()).toFile();
+	}
+
+
+	@After
+	public void deleteOutputDir() {
+		deleteRecursively(outputDir);
+	}
+
+
+	@Test
+	public void testSkipUnchanged() throws Exception {
+		JavaFileWriter writer = new JavaFileWriter(outputDir);
+		File file = writer.getFile(createJavaFile("first"));
+		Assert.assertEquals(new File(outputDir, "client" + File.separator + "Resource.java"), file);
+
+		Assert.assertTrue(writer.write(createJavaFile("first")));
+		Assert.assertTrue(file.setLastModified(1000));
+		Assert.assertFalse(writer.write(createJavaFile("first")));
+		Assert.assertEquals(1000, file.lastModified());
+
+		Assert.assertTrue(writer.write(createJavaFile("second")));
+		Assert.assertEquals(createJavaFile("second").toString(), new String(Files.readAllBytes(file.toPath()), "UTF-8"));
+	}
+
+
+	private JavaFile createJavaFile(String javadoc) {
+		TypeSpec typeSpec = TypeSpec
+				.interfaceBuilder("Resource")
+				.addModifiers(Modifier.PUBLIC)
+				.addJavadoc(javadoc)
+				.build();
+		return JavaFile.builder("client", typeSpec).build();
+	}
+
+
+	private static void deleteRecursively(File file) {
+		File[] files = file.listFiles();
+		if (files != null) {
+			for (File child : files) deleteRecursively(child);
+		}
+		file.delete();
+	}
+
+}
@@ -0,0 +1,233 @@
+package de.bitdroid.jaxrs2retrofit;
+
+
+import com.squareup.javapoet.JavaFile;
+import com.thoughtworks.qdox.JavaProjectBuilder;
+import com.thoughtworks.qdox.model.JavaClass;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import javax.tools.JavaCompiler;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+
+import de.bitdroid.jaxrs2retrofit.integration.resources.SimpleResource;
+
+public final class JaxRs2RetrofitProcessorTest {
+
+	private static final String
+			RESOURCES_DIR = System.getProperty("user.dir") + "/src/test/java/" + SimpleResource.class.getPackage().getName().replaceAll("\\.", "/"),
+			CLIENT_PACKAGE = "client",
+			EXCLUDED_CLASSES = "CustomAnnotation.*"; // requires a custom converter
+
+	private File outputDir;
+
+	@Before
+	public void createOutputDir() throws Exception {
+		outputDir = Files.createTempDirectory(JaxRs2RetrofitProcessorTest.class.getSimpleName()).toFile();
+	}
+
+
+	@After
+	public void deleteOutputDir() {
+		deleteRecursively(outputDir);
+	}
+
+
+	@Test
+	public void testSameOutputAsSourceParsing() throws Exception {
+		List<File> sourceFiles = SourceTreeReader.findSourceFiles(new File(RESOURCES_DIR));
+		Assert.assertTrue(compile(
+				sourceFiles,
+				"-A" + JaxRs2RetrofitProcessor.OPTION_PACKAGE + "=" + CLIENT_PACKAGE,
+				"-A" + JaxRs2RetrofitProcessor.OPTION_EXCLUDED_CLASSES + "=" + EXCLUDED_CLASSES));
+
+		JavaProjectBuilder builder = new JavaProjectBuilder();
+		builder.addSourceTree(new File(RESOURCES_DIR));
+		RetrofitGenerator generator = new RetrofitGenerator(
+				new GeneratorSettings.Builder(CLIENT_PACKAGE).setExcludedClassNamesRegex(EXCLUDED_CLASSES).setIncludeGenerationDate(false).build());
+
+		int resourceCount = 0;
+		for (JavaClass jaxRsClass : builder.getClasses()) {
+			JavaFile expectedFile = generator.createResource(jaxRsClass);
+			File generatedFile = new File(outputDir, CLIENT_PACKAGE + File.separator + jaxRsClass.getName() + ".java");
+			if (expectedFile == null) {
+				Assert.assertFalse(generatedFile.exists());
+			} else {
+				Assert.assertEquals(expectedFile.toString(), new String(Files.readAllBytes(generatedFile.toPath()), "UTF-8"));
+				++resourceCount;
+			}
+		}
+		Assert.assertTrue(resourceCount > 0);
+	}
+
+
+	@Test
+	public void testGenericParams() throws Exception {
+		File sourceDir = Files.createTempDirectory(JaxRs2RetrofitProcessorTest.class.getSimpleName()).toFile();
+		try {
+			File itemFile = writeSource(sourceDir, "server/Item.java", "package server;\npublic class Item { }\n");
+			File resourceFile = writeSource(sourceDir, "server/ItemResource.java", "package server;\n"
+					+ "import java.util.List;\n"
+					+ "import javax.ws.rs.*;\n"
+					+ "@Path(\"/items\")\n"
+					+ "public interface ItemResource {\n"
+					+ "	@POST void addItems(List<Item> items, @QueryParam(\"q\") List<String> q);\n"
+					+ "}\n");
+			Assert.assertTrue(compile(Arrays.asList(itemFile, resourceFile), "-A" + JaxRs2RetrofitProcessor.OPTION_PACKAGE + "=" + CLIENT_PACKAGE));
+
+			JavaProjectBuilder builder = new JavaProjectBuilder();
+			builder.addSourceTree(sourceDir);
+			JavaFile expectedFile = new RetrofitGenerator(
+					new GeneratorSettings.Builder(CLIENT_PACKAGE).setIncludeGenerationDate(false).build())
+					.createResource(builder.getClassByName("server.ItemResource"));
+			String generatedSource = new String(Files.readAllBytes(new File(outputDir, CLIENT_PACKAGE + "/ItemResource.java").toPath()), "UTF-8");
+			Assert.assertEquals(expectedFile.toString(), generatedSource);
+			Assert.assertTrue(generatedSource.contains("@Body List<Item> items, @Query(\"q\") List<String> q"));
+		} finally {
+			deleteRecursively(sourceDir);
+		}
+	}
+
+
+	@Test
+	public void testAnnotatedBodies() throws Exception {
+		File sourceDir = Files.createTempDirectory(JaxRs2RetrofitProcessorTest.class.getSimpleName()).toFile();
+		try {
+			List<File> sourceFiles = Arrays.asList(
+					writeSource(sourceDir, "server/Valid.java", "package server;\npublic @interface Valid { }\n"),
+					writeSource(sourceDir, "server/Item.java", "package server;\npublic class Item { public String name; }\n"),
+					writeSource(sourceDir, "server/Tag.java", "package server;\npublic class Tag { public String value; }\n"),
+					writeSource(sourceDir, "server/ItemResource.java", "package server;\n"
+							+ "import java.util.List;\n"
+							+ "import javax.ws.rs.*;\n"
+							+ "@Path(\"/items\")\n"
+							+ "public interface ItemResource {\n"
+							+ "	@POST void addItems(@Valid List<Item> items, @QueryParam(\"tag\") Tag tag);\n"
+							+ "}\n"));
+			Assert.assertTrue(compile(
+					sourceFiles,
+					"-A" + JaxRs2RetrofitProcessor.OPTION_PACKAGE + "=" + CLIENT_PACKAGE,
+					"-A" + JaxRs2RetrofitProcessor.OPTION_JSON_ADAPTERS + "=true"));
+
+			// same entities as when parsing the sources
+			JavaProjectBuilder builder = new JavaProjectBuilder();
+			builder.addSourceTree(sourceDir);
+			JavaFile expectedFile = new RetrofitGenerator(
+					new GeneratorSettings.Builder(CLIENT_PACKAGE).setIncludeGenerationDate(false).setGenerateJsonAdapters(true).build())
+					.createResource(builder.getClassByName("server.ItemResource"));
+			String generatedSource = new String(Files.readAllBytes(new File(outputDir, CLIENT_PACKAGE + "/ItemResource.java").toPath()), "UTF-8");
+			Assert.assertEquals(expectedFile.toString(), generatedSource);
+			Assert.assertTrue(generatedSource.contains("rawType == Item.class"));
+			Assert.assertFalse(generatedSource.contains("rawType == Tag.class"));
+		} finally {
+			deleteRecursively(sourceDir);
+		}
+	}
+
+
+	@Test
+	public void testIncrementalProcessingType() throws Exception {
+		File sourceDir = Files.createTempDirectory(JaxRs2RetrofitProcessorTest.class.getSimpleName()).toFile();
+		try {
+			List<File> sourceFiles = Arrays.asList(
+					writeSource(sourceDir, "server/Base.java", "package server;\npublic class Base { public long id; }\n"),
+					writeSource(sourceDir, "server/Item.java", "package server;\npublic class Item extends Base { public String name; }\n"),
+					writeSource(sourceDir, "server/ItemResource.java", "package server;\n"
+							+ "import javax.ws.rs.*;\n"
+							+ "@Path(\"/items\")\n"
+							+ "public interface ItemResource {\n"
+							+ "	@GET Item getItem();\n"
+							+ "}\n"));
+
+			JaxRs2RetrofitProcessor isolatingProcessor = new JaxRs2RetrofitProcessor();
+			Assert.assertTrue(compile(isolatingProcessor, sourceFiles, "-A" + JaxRs2RetrofitProcessor.OPTION_PACKAGE + "=" + CLIENT_PACKAGE));
+			Assert.assertTrue(isolatingProcessor.getSupportedOptions().contains("org.gradle.annotation.processing.isolating"));
+
+			// JSON adapters depend on the entities and their super classes
+			JaxRs2RetrofitProcessor aggregatingProcessor = new JaxRs2RetrofitProcessor();
+			Assert.assertTrue(compile(
+					aggregatingProcessor,
+					sourceFiles,
+					"-A" + JaxRs2RetrofitProcessor.OPTION_PACKAGE + "=" + CLIENT_PACKAGE,
+					"-A" + JaxRs2RetrofitProcessor.OPTION_JSON_ADAPTERS + "=true"));
+			Assert.assertTrue(aggregatingProcessor.getSupportedOptions().contains("org.gradle.annotation.processing.aggregating"));
+			Assert.assertTrue(new File(outputDir, CLIENT_PACKAGE + "/ItemResource.java").exists());
+
+			// implementations share one support class
+			JaxRs2RetrofitProcessor implementationProcessor = new JaxRs2RetrofitProcessor();
+			Assert.assertTrue(compile(
+					implementationProcessor,
+					sourceFiles,
+					"-A" + JaxRs2RetrofitProcessor.OPTION_PACKAGE + "=" + CLIENT_PACKAGE,
+					"-A" + JaxRs2RetrofitProcessor.OPTION_IMPLEMENTATIONS + "=true"));
+			Assert.assertTrue(implementationProcessor.getSupportedOptions().contains("org.gradle.annotation.processing.aggregating"));
+			Assert.assertTrue(new File(outputDir, CLIENT_PACKAGE + "/JaxRs2RetrofitSupport.java").exists());
+		} finally {
+			deleteRecursively(sourceDir);
+		}
+	}
+
+
+	@Test
+	public void testDisabledWithoutPackage() throws Exception {
+		Assert.assertTrue(compile(SourceTreeReader.findSourceFiles(new File(RESOURCES_DIR))));
+		File[] generatedFiles = outputDir.listFiles();
+		Assert.assertNotNull(generatedFiles);
+		Assert.assertEquals(0, generatedFiles.length);
+	}
+
+
+	private boolean compile(List<File> sourceFiles, String... options) throws Exception {
+		return compile(new JaxRs2RetrofitProcessor(), sourceFiles, options);
+	}
+
+
+	private boolean compile(JaxRs2RetrofitProcessor processor, List<File> sourceFiles, String... options) throws Exception {
+		JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+		try (StandardJavaFileManager fileManager = compiler.getStandardFileManager(null, null, null)) {
+			List<String> allOptions = new ArrayList<>(Arrays.asList("-proc:only", "-s", outputDir.getPath()));
+			allOptions.addAll(Arrays.asList(options));
+			JavaCompiler.CompilationTask task = compiler.getTask(
+					null,
+					fileManager,
+					null,
+					allOptions,
+					null,
+					fileManager.getJavaFileObjectsFromFiles(sourceFiles));
+			task.setProcessors(Arrays.asList(processor));
+			return task.call();
+		}
+	}
+
+
+	private static File writeSource(File sourceDir, String path, String source) throws IOException {
+		File file = new File(sourceDir, path);
+		file.getParentFile().mkdirs();
+		try (FileWriter writer = new FileWriter(file)) {
+			writer.write(source);
+		}
+		return file;
+	}
+
+
+	private static void deleteRecursively(File file) {
+		File[] files = file.listFiles();
+		if (files != null) {
+			for (File child : files) deleteRecursively(child);
+		}
+		file.delete();
+	}
+
+}
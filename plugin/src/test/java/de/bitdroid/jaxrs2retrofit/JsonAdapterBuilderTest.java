@@ -0,0 +1,227 @@
+package de.bitdroid.jaxrs2retrofit;
+
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.TypeAdapterFactory;
+import com.google.gson.reflect.TypeToken;
+import com.squareup.javapoet.JavaFile;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import de.bitdroid.jaxrs2retrofit.model.EntityModel;
+import de.bitdroid.jaxrs2retrofit.model.ResourceModel;
+import de.bitdroid.jaxrs2retrofit.model.SourceModel;
+
+public final class JsonAdapterBuilderTest {
+
+	private static final String
+			BASE_SOURCE = "package dto;\n"
+					+ "public class Base {\n"
+					+ "	private long id;\n"
+					+ "	public long getId() { return id; }\n"
+					+ "	public void setId(long id) { this.id = id; }\n"
+					+ "}\n",
+			USER_SOURCE = "package dto;\n"
+					+ "import java.util.List;\n"
+					+ "import com.google.gson.annotations.SerializedName;\n"
+					+ "public class User extends Base {\n"
+					+ "	private final String name;\n"
+					+ "	@SerializedName(\"mail_address\") private final String mail;\n"
+					+ "	public List<Address> addresses;\n"
+					+ "	private transient int ignored;\n"
+					+ "	public User(String name, String mail) { this.name = name; this.mail = mail; }\n"
+					+ "	public String getName() { return name; }\n"
+					+ "	public String getMail() { return mail; }\n"
+					+ "	public static class Address {\n"
+					+ "		public String street;\n"
+					+ "		private boolean primary;\n"
+					+ "		public boolean isPrimary() { return primary; }\n"
+					+ "		public void setPrimary(boolean primary) { this.primary = primary; }\n"
+					+ "	}\n"
+					+ "}\n",
+			HIDDEN_SOURCE = "package dto;\n"
+					+ "public class Hidden {\n"
+					+ "	private String secret;\n"
+					+ "}\n",
+			RESOURCE_SOURCE = "package server;\n"
+					+ "import java.util.List;\n"
+					+ "import javax.ws.rs.*;\n"
+					+ "import dto.*;\n"
+					+ "@Path(\"/users\")\n"
+					+ "public interface UserResource {\n"
+					+ "	@GET List<User> getUsers();\n"
+					+ "	@POST void addUser(User user);\n"
+					+ "	@GET @Path(\"/hidden\") Hidden getHidden(@QueryParam(\"id\") Base id);\n"
+					+ "}\n";
+
+	private static final String USER_JSON = "{\"name\":\"someone\",\"mail_address\":\"someone@example.com\","
+			+ "\"addresses\":[{\"street\":\"some street\",\"primary\":true},null],\"id\":42}";
+
+	private File sourceDir, jarFile;
+
+	@Before
+	public void writeSources() throws Exception {
+		sourceDir = Files.createTempDirectory(JsonAdapterBuilderTest.class.getSimpleName()).toFile();
+		writeSource("dto/Base.java", BASE_SOURCE);
+		writeSource("dto/User.java", USER_SOURCE);
+		writeSource("dto/Hidden.java", HIDDEN_SOURCE);
+		writeSource("server/UserResource.java", RESOURCE_SOURCE);
+		jarFile = File.createTempFile(JsonAdapterBuilderTest.class.getSimpleName(), ".jar");
+	}
+
+
+	@After
+	public void deleteSources() {
+		deleteRecursively(sourceDir);
+		jarFile.delete();
+	}
+
+
+	@Test
+	public void testReadEntities() throws Exception {
+		ResourceModel resource = readResource();
+		List<String> entityNames = new ArrayList<>();
+		for (EntityModel entity : resource.getEntities()) entityNames.add(entity.getQualifiedName());
+		// query params are no entities, fields of the base class are part of the user and hidden fields cannot be read
+		Assert.assertEquals(Arrays.asList("dto.User", "dto.User.Address"), entityNames);
+
+		EntityModel user = resource.getEntities().get(0);
+		Assert.assertEquals(Arrays.asList("name", "mail"), user.getConstructorParams());
+		Assert.assertEquals(4, user.getProperties().size());
+		Assert.assertEquals("mail_address", user.getProperties().get(1).getJsonName());
+		Assert.assertEquals("setId", user.getProperties().get(3).getSetter());
+		Assert.assertNull(resource.getEntities().get(1).getConstructorParams());
+	}
+
+
+	@Test
+	public void testReadAnnotatedBodies() throws Exception {
+		writeSource("dto/Valid.java", "package dto;\npublic @interface Valid { }\n");
+		writeSource("dto/Item.java", "package dto;\npublic class Item { public String name; }\n");
+		writeSource("server/ItemResource.java", "package server;\n"
+				+ "import java.util.List;\n"
+				+ "import javax.ws.rs.*;\n"
+				+ "import dto.*;\n"
+				+ "@Path(\"/items\")\n"
+				+ "public interface ItemResource {\n"
+				+ "	@POST void addItems(@Valid List<Item> items);\n"
+				+ "	@PUT void setUser(@Valid User user, @QueryParam(\"id\") Base id, @HeaderParam(\"h\") Hidden hidden);\n"
+				+ "}\n");
+
+		ResourceModel resource = new SourceTreeReader(
+				sourceDir,
+				null,
+				SourceTreeReader.DEFAULT_BATCH_SIZE,
+				new GenerationMetrics(),
+				SourceIndex.create(),
+				ClassNameFilter.ACCEPT_ALL,
+				true)
+				.read(Arrays.asList(new File(sourceDir, "server/ItemResource.java")))
+				.get(0).getResources().get(0);
+		List<String> entityNames = new ArrayList<>();
+		for (EntityModel entity : resource.getEntities()) entityNames.add(entity.getQualifiedName());
+		// annotations other than JaxRs params do not change the body, generic arguments are entities as well
+		Assert.assertEquals(Arrays.asList("dto.Item", "dto.User", "dto.User.Address"), entityNames);
+	}
+
+
+	@Test
+	public void testSkipEntitiesWithoutJsonAdapters() throws Exception {
+		List<SourceModel> sources = readSources(false);
+		Assert.assertTrue(sources.get(0).getResources().get(0).getEntities().isEmpty());
+		// changing entities must not regenerate resources which have no adapters
+		Assert.assertTrue(sources.get(0).getDependencies().isEmpty());
+		Assert.assertFalse(readSources(true).get(0).getDependencies().isEmpty());
+	}
+
+
+	@Test
+	public void testSameJsonAsGson() throws Exception {
+		GeneratorSettings settings = new GeneratorSettings.Builder("client")
+				.setGenerateCallbackMethods(false)
+				.setGenerateRxJavaMethods(false)
+				.setIncludeGenerationDate(false)
+				.setGenerateJsonAdapters(true)
+				.build();
+		JavaFile javaFile = new RetrofitGenerator(settings, GeneratorLogger.NONE).createResource(readResource());
+		writeSource("client/UserResource.java", javaFile.toString());
+		// the server resource is not required by clients
+		new ClientJarCompiler(new ArrayList<File>(), new ArrayList<String>()).compileFiles(Arrays.asList(
+				new File(sourceDir, "dto/Base.java"),
+				new File(sourceDir, "dto/User.java"),
+				new File(sourceDir, "dto/Hidden.java"),
+				new File(sourceDir, "client/UserResource.java")), jarFile);
+
+		try (URLClassLoader classLoader = new URLClassLoader(new URL[] { jarFile.toURI().toURL() }, getClass().getClassLoader())) {
+			Class<?> userClass = classLoader.loadClass("dto.User");
+			TypeAdapterFactory factory = (TypeAdapterFactory) classLoader
+					.loadClass("client.UserResource$" + JsonAdapterBuilder.CLASS_NAME)
+					.newInstance();
+			Gson reflectionGson = new Gson();
+			Gson generatedGson = new GsonBuilder().registerTypeAdapterFactory(factory).create();
+			Assert.assertNotNull(factory.create(generatedGson, TypeToken.get(userClass)));
+			Assert.assertNull(factory.create(generatedGson, TypeToken.get(classLoader.loadClass("dto.Hidden"))));
+
+			Object user = reflectionGson.fromJson(USER_JSON, userClass);
+			Assert.assertEquals(USER_JSON, reflectionGson.toJson(user));
+			Assert.assertEquals(USER_JSON, generatedGson.toJson(user));
+			Assert.assertEquals(USER_JSON, reflectionGson.toJson(generatedGson.fromJson(USER_JSON, userClass)));
+
+			// unknown names are skipped, nulls do not overwrite primitives
+			Object partialUser = generatedGson.fromJson("{\"unknown\":[{}],\"id\":null,\"addresses\":[{\"primary\":null}]}", userClass);
+			Assert.assertEquals("{\"addresses\":[{\"primary\":false}],\"id\":0}", reflectionGson.toJson(partialUser));
+			Assert.assertNull(generatedGson.fromJson("null", userClass));
+		}
+	}
+
+
+	private ResourceModel readResource() throws IOException {
+		return readSources(true).get(0).getResources().get(0);
+	}
+
+
+	private List<SourceModel> readSources(boolean readEntities) throws IOException {
+		return new SourceTreeReader(
+				sourceDir,
+				null,
+				SourceTreeReader.DEFAULT_BATCH_SIZE,
+				new GenerationMetrics(),
+				SourceIndex.create(),
+				ClassNameFilter.ACCEPT_ALL,
+				readEntities)
+				.read(Arrays.asList(new File(sourceDir, "server/UserResource.java")));
+	}
+
+
+	private static void deleteRecursively(File file) {
+		File[] files = file.listFiles();
+		if (files != null) {
+			for (File child : files) deleteRecursively(child);
+		}
+		file.delete();
+	}
+
+
+	private void writeSource(String path, String source) throws IOException {
+		File file = new File(sourceDir, path);
+		file.getParentFile().mkdirs();
+		try (FileWriter writer = new FileWriter(file)) {
+			writer.write(source);
+		}
+	}
+
+}
@@ -1,9 +1,6 @@
 package de.bitdroid.jaxrs2retrofit;
 
 
-import com.thoughtworks.qdox.JavaProjectBuilder;
-import com.thoughtworks.qdox.model.JavaClass;
-
 import org.junit.After;
 import org.junit.Assert;
 import org.junit.Before;
@@ -12,14 +9,19 @@ import org.junit.runner.RunWith;
 
 import java.io.BufferedReader;
 import java.io.File;
+import java.io.IOException;
 import java.io.InputStreamReader;
 import java.io.PipedInputStream;
 import java.io.PipedOutputStream;
 import java.io.PrintStream;
 import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
 
-import de.bitdroid.jaxrs2retrofit.converter.ParamConverterManager;
+import de.bitdroid.jaxrs2retrofit.model.ResourceModel;
+import de.bitdroid.jaxrs2retrofit.model.SourceModel;
 import mockit.Capturing;
+import mockit.Delegate;
 import mockit.Expectations;
 import mockit.Mocked;
 import mockit.Verifications;
@@ -32,15 +34,16 @@ public final class MainTest {
 
 	@Capturing
 	private RetrofitGenerator generator;
-	@Capturing private JavaProjectBuilder projectBuilder;
-	@Mocked private JavaClass javaClass;
+	@Capturing private SourceTreeReader reader;
+	@Mocked private ResourceModel resource;
 
 	private BufferedReader stdOutReader;
 	private PrintStream stdOut; // store locally for later undo
 
 	@Before
 	public void setupOutStream() throws Exception {
-		PipedInputStream pipeInput = new PipedInputStream();
+		// large enough for the whole help message, nothing is read before main returns
+		PipedInputStream pipeInput = new PipedInputStream(64 * 1024);
 		stdOutReader = new BufferedReader(new InputStreamReader(pipeInput));
 		stdOut = System.out;
 		System.setOut(new PrintStream(new PipedOutputStream(pipeInput)));
@@ -72,7 +75,19 @@ public final class MainTest {
 		// check for help message
 		Assert.assertTrue(stdOutReader.read() != -1);
 		new Verifications() {{
-			generator.createResource((JavaClass) any); times = 0;
+			generator.createResource((ResourceModel) any); times = 0;
+		}};
+	}
+
+
+	@Test
+	public void testWatchWithoutSourceDir() throws Exception {
+		Main.main(new String[]{"-src", DUMMY_SOURCE_FILENAME, "--watch"});
+
+		// check for help message
+		Assert.assertTrue(stdOutReader.read() != -1);
+		new Verifications() {{
+			generator.createResource((ResourceModel) any); times = 0;
 		}};
 	}
 
@@ -82,14 +97,27 @@ public final class MainTest {
 		final String excludeRegex = "excludeMe";
 
 		new Expectations() {{
-			projectBuilder.getClasses(); result = Arrays.asList(javaClass);
+			resource.getQualifiedName(); result = "server.Resource"; minTimes = 0;
+			reader.read((Collection<File>) any, (SourceTreeReader.SourceHandler) any);
+			result = new Delegate() {
+				@SuppressWarnings("unused")
+				void read(Collection<File> sourceFiles, SourceTreeReader.SourceHandler handler) throws IOException {
+					handler.onSourcesRead(Arrays.asList(new SourceModel(new File(DUMMY_SOURCE_FILENAME), Arrays.asList(resource), new HashSet<File>())));
+				}
+			};
 		}};
 
 		Main.main(new String[] { "-src", DUMMY_SOURCE_FILENAME, "-exclude", excludeRegex });
 
 		new Verifications() {{
-			new RetrofitGenerator(new GeneratorSettings(anyString, excludeRegex, true, true, true, (ParamConverterManager) any));
-			generator.createResource(javaClass);
+			GeneratorSettings settings;
+			new RetrofitGenerator(settings = withCapture(), GeneratorLogger.SYSTEM_ERR);
+			Assert.assertEquals(excludeRegex, settings.getExcludedClassNamesRegex());
+			Assert.assertTrue(settings.getGenerateSynchronousMethods());
+			Assert.assertTrue(settings.getGenerateCallbackMethods());
+			Assert.assertTrue(settings.getGenerateRxJavaMethods());
+			Assert.assertTrue(settings.getIncludeGenerationDate());
+			generator.createResource(resource);
 		}};
 
 	}
@@ -0,0 +1,107 @@
+package de.bitdroid.jaxrs2retrofit;
+
+
+import com.squareup.javapoet.JavaFile;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.ws.rs.PathParam;
+
+import de.bitdroid.jaxrs2retrofit.converter.ParamConverterManager;
+import de.bitdroid.jaxrs2retrofit.model.AnnotationModel;
+import de.bitdroid.jaxrs2retrofit.model.MethodModel;
+import de.bitdroid.jaxrs2retrofit.model.ParamModel;
+import de.bitdroid.jaxrs2retrofit.model.ResourceModel;
+
+public final class ParallelGeneratorTest {
+
+	private static final int RESOURCE_COUNT = 50;
+
+	private final RetrofitGenerator generator = new RetrofitGenerator(
+			new GeneratorSettings("client", "Excluded.*", true, true, true, ParamConverterManager.getDefaultInstance()));
+
+
+	@Test
+	public void testSameOutputAsSequential() throws Exception {
+		List<ResourceModel> resources = createResources();
+		List<JavaFile> sequentialFiles = new ParallelGenerator(generator, 1).generate(resources, null);
+		List<JavaFile> parallelFiles, nextBatchFiles;
+		try (ParallelGenerator parallelGenerator = new ParallelGenerator(generator, 4)) {
+			parallelFiles = parallelGenerator.generate(resources, null);
+			// threads are reused by following batches
+			nextBatchFiles = parallelGenerator.generate(resources.subList(1, 3), null);
+		}
+		Assert.assertEquals(parallelFiles.subList(1, 3).toString(), nextBatchFiles.toString());
+
+		Assert.assertEquals(RESOURCE_COUNT, sequentialFiles.size());
+		Assert.assertEquals(RESOURCE_COUNT, parallelFiles.size());
+		for (int i = 0; i < RESOURCE_COUNT; ++i) {
+			if (i % 10 == 0) {
+				Assert.assertNull(sequentialFiles.get(i));
+				Assert.assertNull(parallelFiles.get(i));
+			} else {
+				Assert.assertEquals(resources.get(i).getName(), parallelFiles.get(i).typeSpec.name);
+				Assert.assertEquals(sequentialFiles.get(i).toString(), parallelFiles.get(i).toString());
+			}
+		}
+	}
+
+
+	@Test
+	public void testConcurrentLogging() throws Exception {
+		final Set<String> loggedNames = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+		RetrofitGenerator loggingGenerator = new RetrofitGenerator(
+				new GeneratorSettings.Builder("client").setExcludedClassNamesRegex("Excluded.*").setIncludeGenerationDate(false).build(),
+				new GeneratorLogger() {
+					@Override
+					public void info(String message) {
+						loggedNames.add(message);
+					}
+				});
+
+		List<ResourceModel> resources = createResources();
+		try (ParallelGenerator parallelGenerator = new ParallelGenerator(loggingGenerator, 4)) {
+			parallelGenerator.generate(resources, null);
+		}
+
+		Set<String> expectedNames = new HashSet<>();
+		for (ResourceModel resource : resources) {
+			if (!resource.getName().startsWith("Excluded")) expectedNames.add(resource.getName());
+		}
+		Assert.assertEquals(expectedNames, loggedNames);
+	}
+
+
+	private List<ResourceModel> createResources() {
+		List<ResourceModel> resources = new ArrayList<>();
+		for (int i = 0; i < RESOURCE_COUNT; ++i) {
+			String name = ((i % 10 == 0) ? "ExcludedResource" : "Resource") + i;
+			ParamModel param = new ParamModel(
+					"id",
+					String.class.getName(),
+					Arrays.asList(new AnnotationModel(
+							PathParam.class.getName(),
+							new HashMap<String, Object>())));
+			MethodModel method = new MethodModel(
+					"getValue",
+					HttpMethod.GET,
+					"/{id}",
+					null,
+					Arrays.asList(param),
+					String.class.getName());
+			resources.add(new ResourceModel("server." + name, name, "/resource" + i, null, Arrays.asList(method)));
+		}
+		return resources;
+	}
+
+}
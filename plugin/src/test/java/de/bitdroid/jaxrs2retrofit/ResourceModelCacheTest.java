@@ -0,0 +1,166 @@
+package de.bitdroid.jaxrs2retrofit;
+
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+
+import de.bitdroid.jaxrs2retrofit.model.MethodModel;
+import de.bitdroid.jaxrs2retrofit.model.ResourceModel;
+import de.bitdroid.jaxrs2retrofit.model.SourceModel;
+
+public final class ResourceModelCacheTest {
+
+	private File sourceFile, constantsFile, cacheFile;
+	private SourceModel source;
+
+	@Before
+	public void setupFiles() throws Exception {
+		sourceFile = File.createTempFile("Resource", ".java");
+		constantsFile = File.createTempFile("Constants", ".java");
+		cacheFile = File.createTempFile(ResourceModelCacheTest.class.getSimpleName(), null);
+		writeFile(sourceFile, "@Path(Constants.PATH) class Resource { }");
+		writeFile(constantsFile, "class Constants { static final String PATH = \"/path\"; }");
+
+		ResourceModel resource = new ResourceModel("Resource", "Resource", "/path", null, new ArrayList<MethodModel>());
+		source = new SourceModel(sourceFile, Arrays.asList(resource), new HashSet<>(Collections.singleton(constantsFile)));
+	}
+
+
+	@After
+	public void removeFiles() {
+		sourceFile.delete();
+		constantsFile.delete();
+		cacheFile.delete();
+	}
+
+
+	@Test
+	public void testReadWrite() throws Exception {
+		ResourceModelCache cache = ResourceModelCache.create();
+		Assert.assertNull(cache.get(sourceFile));
+		cache.put(source);
+		cache.write(cacheFile);
+
+		SourceModel cachedSource = ResourceModelCache.read(cacheFile).get(sourceFile);
+		Assert.assertNotNull(cachedSource);
+		Assert.assertEquals(sourceFile, cachedSource.getSourceFile());
+		Assert.assertEquals("/path", cachedSource.getResources().get(0).getPath());
+		Assert.assertEquals(Collections.singleton(constantsFile), cachedSource.getDependencies());
+	}
+
+
+	@Test
+	public void testChangedSource() throws Exception {
+		writeCache();
+		writeFile(sourceFile, "@Path(\"/other\") class Resource { }");
+		Assert.assertNull(ResourceModelCache.read(cacheFile).get(sourceFile));
+	}
+
+
+	@Test
+	public void testChangedDependency() throws Exception {
+		writeCache();
+		writeFile(constantsFile, "class Constants { static final String PATH = \"/other\"; }");
+		Assert.assertNull(ResourceModelCache.read(cacheFile).get(sourceFile));
+	}
+
+
+	@Test
+	public void testRemovedSource() throws Exception {
+		writeCache();
+		Assert.assertTrue(sourceFile.delete());
+		ResourceModelCache cache = ResourceModelCache.read(cacheFile);
+		Assert.assertNull(cache.get(sourceFile));
+	}
+
+
+	@Test
+	public void testCorruptCache() throws Exception {
+		writeFile(cacheFile, "not a cache");
+		Assert.assertNull(ResourceModelCache.read(cacheFile).get(sourceFile));
+	}
+
+
+	@Test
+	public void testSharedEntries() throws Exception {
+		File sourceDir = sourceFile.getParentFile();
+		ResourceModelCache cache = ResourceModelCache.create();
+		cache.shareEntries(sourceDir);
+		cache.put(source);
+
+		ResourceModelCache otherCache = ResourceModelCache.create();
+		Assert.assertNull(otherCache.get(sourceFile));
+		otherCache.shareEntries(sourceDir);
+		Assert.assertSame(source, otherCache.get(sourceFile));
+
+		ResourceModelCache otherDirCache = ResourceModelCache.create();
+		otherDirCache.shareEntries(new File(sourceDir, "other"));
+		Assert.assertNull(otherDirCache.get(sourceFile));
+
+		writeFile(constantsFile, "class Constants { static final String PATH = \"/other\"; }");
+		ResourceModelCache changedCache = ResourceModelCache.create();
+		changedCache.shareEntries(sourceDir);
+		Assert.assertNull(changedCache.get(sourceFile));
+	}
+
+
+	@Test
+	public void testRemovedSharedSource() throws Exception {
+		File sourceDir = sourceFile.getParentFile();
+		ResourceModelCache cache = ResourceModelCache.create();
+		cache.shareEntries(sourceDir);
+		cache.put(source);
+
+		// restoring the same content does not revive the dropped entry
+		Assert.assertTrue(sourceFile.delete());
+		ResourceModelCache removedCache = ResourceModelCache.create();
+		removedCache.shareEntries(sourceDir);
+		Assert.assertNull(removedCache.get(sourceFile));
+		writeFile(sourceFile, "@Path(Constants.PATH) class Resource { }");
+		ResourceModelCache restoredCache = ResourceModelCache.create();
+		restoredCache.shareEntries(sourceDir);
+		Assert.assertNull(restoredCache.get(sourceFile));
+	}
+
+
+	@Test
+	public void testSharedEntriesLimit() throws Exception {
+		File sourceDir = sourceFile.getParentFile();
+		ResourceModelCache cache = ResourceModelCache.create();
+		cache.shareEntries(sourceDir);
+		cache.put(source);
+		for (int i = 0; i < ResourceModelCache.MAX_SHARED_ENTRIES; ++i) {
+			File otherFile = new File(sourceDir, "Missing" + i + ".java");
+			cache.put(new SourceModel(otherFile, new ArrayList<ResourceModel>(), new HashSet<File>()));
+		}
+
+		ResourceModelCache otherCache = ResourceModelCache.create();
+		otherCache.shareEntries(sourceDir);
+		Assert.assertNull(otherCache.get(sourceFile));
+	}
+
+
+	private void writeCache() throws IOException {
+		ResourceModelCache cache = ResourceModelCache.create();
+		cache.put(source);
+		cache.write(cacheFile);
+	}
+
+
+	private static void writeFile(File file, String content) throws IOException {
+		try (FileWriter writer = new FileWriter(file)) {
+			writer.write(content);
+		}
+	}
+
+}
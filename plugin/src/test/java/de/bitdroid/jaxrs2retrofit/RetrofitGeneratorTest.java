@@ -0,0 +1,228 @@
+package de.bitdroid.jaxrs2retrofit;
+
+
+import com.squareup.javapoet.AnnotationSpec;
+import com.squareup.javapoet.ClassName;
+import com.squareup.javapoet.JavaFile;
+import com.squareup.javapoet.MethodSpec;
+import com.squareup.javapoet.TypeSpec;
+import com.thoughtworks.qdox.JavaProjectBuilder;
+import com.thoughtworks.qdox.model.JavaClass;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import de.bitdroid.jaxrs2retrofit.converter.MappingConverter;
+import de.bitdroid.jaxrs2retrofit.converter.ParamConverterManager;
+import de.bitdroid.jaxrs2retrofit.model.AnnotationModel;
+import de.bitdroid.jaxrs2retrofit.model.MethodModel;
+import de.bitdroid.jaxrs2retrofit.model.ParamModel;
+import de.bitdroid.jaxrs2retrofit.model.ResourceModel;
+
+public final class RetrofitGeneratorTest {
+
+	private static final String[] CLASS_PATHS = { "/", "/api", "/api/", "/users/{id: [0-9]+}", "/items:x" };
+	private static final String[] METHOD_PATHS = { null, "", "/", "/{id}", "/{id: [0-9]+}/children", "s", "{id}", "/a/b" };
+
+	private final RetrofitGenerator generator = new RetrofitGenerator(
+			new GeneratorSettings.Builder("client")
+					.setGenerateCallbackMethods(false)
+					.setGenerateRxJavaMethods(false)
+					.setIncludeGenerationDate(false)
+					.build(),
+			GeneratorLogger.NONE);
+
+
+	@Test
+	public void testSharedPaths() {
+		for (String classPath : CLASS_PATHS) {
+			// same method paths twice for checking memoized values
+			List<MethodModel> methods = new ArrayList<>();
+			for (int i = 0; i < 2 * METHOD_PATHS.length; ++i) {
+				String consumes = (i % 3 == 0) ? "text/plain" : null;
+				methods.add(new MethodModel("method" + i, HttpMethod.GET, METHOD_PATHS[i % METHOD_PATHS.length], consumes,
+						new ArrayList<ParamModel>(), String.class.getName()));
+			}
+			ResourceModel resource = new ResourceModel("server.Resource", "Resource", classPath, "application/json", methods);
+			TypeSpec retrofitResource = generator.createResource(resource).typeSpec;
+
+			Assert.assertEquals(methods.size(), retrofitResource.methodSpecs.size());
+			for (int i = 0; i < methods.size(); ++i) {
+				MethodSpec retrofitMethod = retrofitResource.methodSpecs.get(i);
+				AnnotationSpec expectedPath = generator.createPathAnnotation(HttpMethod.GET, classPath, methods.get(i).getPath());
+				Assert.assertEquals(expectedPath.toString(), retrofitMethod.annotations.get(0).toString());
+
+				String expectedContentType = (i % 3 == 0) ? "text/plain" : "application/json";
+				Assert.assertTrue(retrofitMethod.annotations.get(1).toString().contains("Content-type: " + expectedContentType));
+			}
+		}
+	}
+
+
+
+	@Test
+	public void testGenericParams() {
+		JavaProjectBuilder builder = new JavaProjectBuilder();
+		builder.addSource(new StringReader("package server;\n"
+				+ "import java.util.List;\n"
+				+ "import javax.ws.rs.*;\n"
+				+ "@Path(\"/items\")\n"
+				+ "public interface ItemResource {\n"
+				+ "	@POST void addItems(List<Item> items, @QueryParam(\"q\") List<String> q);\n"
+				+ "}\n"
+				+ "class Item { }\n"));
+		JavaClass jaxRsClass = builder.getClassByName("server.ItemResource");
+
+		MethodSpec addItems = generator.createResource(jaxRsClass).typeSpec.methodSpecs.get(0);
+		Assert.assertEquals("java.util.List<server.Item>", addItems.parameters.get(0).type.toString());
+		Assert.assertEquals("java.util.List<java.lang.String>", addItems.parameters.get(1).type.toString());
+	}
+
+
+
+	@Test
+	public void testNestedGenericParams() {
+		JavaProjectBuilder builder = new JavaProjectBuilder();
+		builder.addSource(new StringReader("package server;\n"
+				+ "import java.util.*;\n"
+				+ "import javax.ws.rs.*;\n"
+				+ "@Path(\"/items\")\n"
+				+ "public interface ItemResource {\n"
+				+ "	@PUT Map<String, List<Item>> putItems(Map<String, List<Item>> items, @HeaderParam(\"ids\") Set<List<? extends Number>> ids);\n"
+				+ "}\n"
+				+ "class Item { }\n"));
+
+		MethodSpec putItems = generator.createResource(builder.getClassByName("server.ItemResource")).typeSpec.methodSpecs.get(0);
+		Assert.assertEquals("java.util.Map<java.lang.String, java.util.List<server.Item>>", putItems.parameters.get(0).type.toString());
+		Assert.assertEquals("java.util.Set<java.util.List<? extends java.lang.Number>>", putItems.parameters.get(1).type.toString());
+		Assert.assertEquals(putItems.returnType, putItems.parameters.get(0).type);
+	}
+
+
+
+	@Test
+	public void testRetrofit2() {
+		RetrofitGenerator retrofit2Generator = new RetrofitGenerator(
+				new GeneratorSettings.Builder("client")
+						.setGenerateSynchronousMethods(false)
+						.setGenerateRxJavaMethods(false)
+						.setIncludeGenerationDate(false)
+						.setRetrofitVersion(RetrofitVersion.RETROFIT_2)
+						.build(),
+				GeneratorLogger.NONE);
+		ParamModel idParam = new ParamModel(
+				"id",
+				String.class.getName(),
+				Arrays.asList(new AnnotationModel("javax.ws.rs.PathParam", Collections.<String, Object>singletonMap("value", "\"id\""))));
+		List<MethodModel> methods = Arrays.asList(
+				new MethodModel("getUser", HttpMethod.GET, "/{id}", null, Arrays.asList(idParam), String.class.getName()),
+				new MethodModel("deleteUsers", HttpMethod.DELETE, null, null, new ArrayList<ParamModel>(), "void"));
+		ResourceModel resource = new ResourceModel("server.Resource", "Resource", "/", "application/json", methods);
+		TypeSpec retrofitResource = retrofit2Generator.createResource(resource).typeSpec;
+		Assert.assertEquals(2, retrofitResource.methodSpecs.size());
+
+		// paths are relative to the base URL
+		MethodSpec getUser = retrofitResource.methodSpecs.get(0);
+		Assert.assertEquals("@retrofit2.http.GET(\"{id}\")", getUser.annotations.get(0).toString());
+		Assert.assertEquals(ClassName.get("retrofit2.http", "Headers"), getUser.annotations.get(1).type);
+		Assert.assertEquals(ClassName.get("retrofit2.http", "Path"), getUser.parameters.get(0).annotations.get(0).type);
+		Assert.assertEquals("retrofit2.Call<java.lang.String>", getUser.returnType.toString());
+
+		MethodSpec deleteUsers = retrofitResource.methodSpecs.get(1);
+		Assert.assertEquals("@retrofit2.http.DELETE(\".\")", deleteUsers.annotations.get(0).toString());
+		Assert.assertEquals("retrofit2.Call<okhttp3.ResponseBody>", deleteUsers.returnType.toString());
+	}
+
+
+
+	@Test
+	public void testImplementation() {
+		ParamConverterManager converterManager = ParamConverterManager.getDefaultInstance();
+		GeneratorSettings settings = new GeneratorSettings.Builder("client")
+				.setParamConverterManager(converterManager)
+				.setIncludeGenerationDate(false)
+				.setGenerateImplementations(true)
+				.build();
+		RetrofitGenerator implementationGenerator = new RetrofitGenerator(settings, GeneratorLogger.NONE);
+		ParamModel idParam = new ParamModel(
+				"id",
+				String.class.getName(),
+				Arrays.asList(new AnnotationModel("javax.ws.rs.PathParam", Collections.<String, Object>singletonMap("value", "\"id\""))));
+		ResourceModel resource = new ResourceModel("server.Resource", "Resource", "/users", null, Arrays.asList(
+				new MethodModel("getUser", HttpMethod.GET, "/{id}", null, Arrays.asList(idParam), String.class.getName())));
+
+		JavaFile retrofitFile = implementationGenerator.createResource(resource);
+		TypeSpec retrofitResource = retrofitFile.typeSpec;
+		Assert.assertEquals(1, retrofitResource.typeSpecs.size());
+		TypeSpec implementation = retrofitResource.typeSpecs.get(0);
+		Assert.assertEquals("Impl", implementation.name);
+		Assert.assertEquals(ClassName.get("client", "Resource"), implementation.superinterfaces.get(0));
+		Assert.assertTrue(retrofitFile.toString().contains(".append(\"/users/\").append(JaxRs2RetrofitSupport.encodePath(\"id\", id))"));
+
+		// code which does not depend on the resource is shared by all implementations of the package
+		JavaFile supportFile = implementationGenerator.createImplementationSupport();
+		Assert.assertEquals("client", supportFile.packageName);
+		Assert.assertEquals("JaxRs2RetrofitSupport", supportFile.typeSpec.name);
+		Assert.assertTrue(supportFile.toString().contains("static String encodePath("));
+		Assert.assertFalse(retrofitFile.toString().contains("String encodePath("));
+
+		// params mapped to unknown annotations can only be used by rest adapters
+		converterManager.registerConverter(ClassName.get("javax.ws.rs", "PathParam"), new MappingConverter(ClassName.get("client", "Custom")));
+		Assert.assertTrue(implementationGenerator.createResource(resource).typeSpec.typeSpecs.isEmpty());
+	}
+
+
+	@Test
+	public void testStreaming() {
+		ParamModel dataParam = new ParamModel("data", "byte[]", new ArrayList<AnnotationModel>());
+		ParamModel fileParam = new ParamModel("file", "java.io.File", new ArrayList<AnnotationModel>());
+		ResourceModel resource = new ResourceModel("server.Resource", "Resource", "/files", null, Arrays.asList(
+				new MethodModel("download", HttpMethod.GET, null, null, new ArrayList<ParamModel>(), "java.io.InputStream"),
+				new MethodModel("upload", HttpMethod.POST, null, null, Arrays.asList(dataParam), "void"),
+				new MethodModel("replace", HttpMethod.PUT, null, null, Arrays.asList(fileParam), "byte[]")));
+
+		GeneratorSettings settings = new GeneratorSettings.Builder("client")
+				.setGenerateCallbackMethods(false)
+				.setGenerateRxJavaMethods(false)
+				.setIncludeGenerationDate(false)
+				.setGenerateImplementations(true)
+				.build();
+		TypeSpec retrofitResource = new RetrofitGenerator(settings, GeneratorLogger.NONE).createResource(resource).typeSpec;
+		MethodSpec download = retrofitResource.methodSpecs.get(0);
+		Assert.assertEquals(ClassName.get("retrofit.http", "Streaming"), download.annotations.get(1).type);
+		Assert.assertEquals("retrofit.client.Response", download.returnType.toString());
+		MethodSpec upload = retrofitResource.methodSpecs.get(1);
+		Assert.assertEquals(1, upload.annotations.size());
+		Assert.assertEquals("retrofit.mime.TypedOutput", upload.parameters.get(0).type.toString());
+		Assert.assertEquals("retrofit.mime.TypedFile", retrofitResource.methodSpecs.get(2).parameters.get(0).type.toString());
+		// streamed responses are not buffered by implementations
+		Assert.assertEquals(1, retrofitResource.typeSpecs.size());
+		Assert.assertTrue(retrofitResource.typeSpecs.get(0).toString().contains("return (retrofit.client.Response) downloadResponse()"));
+
+		settings = new GeneratorSettings.Builder("client")
+				.setGenerateCallbackMethods(false)
+				.setGenerateRxJavaMethods(false)
+				.setIncludeGenerationDate(false)
+				.setRetrofitVersion(RetrofitVersion.RETROFIT_2)
+				.build();
+		retrofitResource = new RetrofitGenerator(settings, GeneratorLogger.NONE).createResource(resource).typeSpec;
+		download = retrofitResource.methodSpecs.get(0);
+		Assert.assertEquals(ClassName.get("retrofit2.http", "Streaming"), download.annotations.get(1).type);
+		Assert.assertEquals("retrofit2.Call<okhttp3.ResponseBody>", download.returnType.toString());
+		Assert.assertEquals("okhttp3.RequestBody", retrofitResource.methodSpecs.get(1).parameters.get(0).type.toString());
+		Assert.assertEquals("okhttp3.RequestBody", retrofitResource.methodSpecs.get(2).parameters.get(0).type.toString());
+	}
+
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testRetrofit2Implementation() {
+		new GeneratorSettings.Builder("client").setRetrofitVersion(RetrofitVersion.RETROFIT_2).setGenerateImplementations(true).build();
+	}
+
+}
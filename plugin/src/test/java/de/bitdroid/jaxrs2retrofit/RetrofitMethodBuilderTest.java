@@ -99,6 +99,54 @@ public final class RetrofitMethodBuilderTest {
 	}
 
 
+	@Test
+	public void testRetrofit2ReturnStrategy() {
+		Map<RetrofitReturnStrategy, MethodSpec> methodSpecs = createBuilder(new GeneratorSettings.Builder(null)
+				.setRetrofitVersion(RetrofitVersion.RETROFIT_2)
+				.build()).build();
+		Assert.assertEquals(2, methodSpecs.size());
+
+		MethodSpec call = methodSpecs.get(RetrofitReturnStrategy.CALL);
+		Assert.assertEquals(
+				ParameterizedTypeName.get(ClassName.get("retrofit2", "Call"), ClassName.get(String.class)),
+				call.returnType);
+		Assert.assertEquals(0, call.parameters.size());
+		Assert.assertEquals(METHOD_NAME, call.name);
+
+		MethodSpec observable = methodSpecs.get(RetrofitReturnStrategy.OBSERVABLE);
+		Assert.assertEquals(
+				ParameterizedTypeName.get(ClassName.get(Observable.class), ClassName.get(String.class)),
+				observable.returnType);
+		Assert.assertEquals(METHOD_NAME + "Observable", observable.name);
+	}
+
+
+	@Test
+	public void testPrimitiveReturnType() {
+		Map<RetrofitReturnStrategy, MethodSpec> methodSpecs = new RetrofitMethodBuilder(METHOD_NAME, new GeneratorSettings(null, null, true, true, true, null))
+				.setReturnType(TypeName.INT)
+				.build();
+		Assert.assertEquals(TypeName.INT, methodSpecs.get(RetrofitReturnStrategy.REGULAR).returnType);
+		Assert.assertEquals(
+				ParameterizedTypeName.get(ClassName.get(Callback.class), ClassName.get(Integer.class)),
+				methodSpecs.get(RetrofitReturnStrategy.CALLBACK).parameters.get(0).type);
+		Assert.assertEquals(
+				ParameterizedTypeName.get(ClassName.get(Observable.class), ClassName.get(Integer.class)),
+				methodSpecs.get(RetrofitReturnStrategy.OBSERVABLE).returnType);
+
+		GeneratorSettings retrofit2Settings = new GeneratorSettings.Builder(null)
+				.setGenerateRxJavaMethods(false)
+				.setRetrofitVersion(RetrofitVersion.RETROFIT_2)
+				.build();
+		Assert.assertEquals(
+				ParameterizedTypeName.get(ClassName.get("retrofit2", "Call"), ClassName.get(Integer.class)),
+				new RetrofitMethodBuilder(METHOD_NAME, retrofit2Settings).setReturnType(TypeName.INT).build().get(RetrofitReturnStrategy.CALL).returnType);
+		Assert.assertEquals(
+				ParameterizedTypeName.get(ClassName.get("retrofit2", "Call"), ClassName.get(Void.class)),
+				new RetrofitMethodBuilder(METHOD_NAME, retrofit2Settings).setReturnType(TypeName.VOID).build().get(RetrofitReturnStrategy.CALL).returnType);
+	}
+
+
 	private void testRegularReturnStrategy(MethodSpec spec) {
 		Assert.assertEquals(ClassName.get(String.class), spec.returnType);
 		Assert.assertEquals(0, spec.parameters.size());
@@ -0,0 +1,91 @@
+package de.bitdroid.jaxrs2retrofit;
+
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+
+public final class SourceIndexTest {
+
+	private File sourceFile, indexFile;
+
+	@Before
+	public void setupFiles() throws Exception {
+		sourceFile = File.createTempFile("Resource", ".java");
+		indexFile = File.createTempFile(SourceIndexTest.class.getSimpleName(), null);
+	}
+
+
+	@After
+	public void removeFiles() {
+		sourceFile.delete();
+		indexFile.delete();
+	}
+
+
+	@Test
+	public void testIsCandidate() throws Exception {
+		writeFile(sourceFile, "import javax.ws.rs.Path; @Path(\"/path\") class Resource { }");
+		Assert.assertTrue(SourceIndex.create().isCandidate(sourceFile));
+		writeFile(sourceFile, "@javax.ws.rs.Path(\"/path\") class Resource { }");
+		Assert.assertTrue(SourceIndex.create().isCandidate(sourceFile));
+		writeFile(sourceFile, "import javax.ws.rs.core.Response; class Helper { }");
+		Assert.assertFalse(SourceIndex.create().isCandidate(sourceFile));
+		writeFile(sourceFile, "class Constants { static final String PATH = \"/path\"; }");
+		Assert.assertFalse(SourceIndex.create().isCandidate(sourceFile));
+	}
+
+
+	@Test
+	public void testReadWrite() throws Exception {
+		writeFile(sourceFile, "import javax.ws.rs.Path; @Path(\"/path\") class Resource { }");
+		SourceIndex index = SourceIndex.create();
+		Assert.assertTrue(index.isCandidate(sourceFile));
+		index.write(indexFile);
+		Assert.assertTrue(SourceIndex.read(indexFile).isCandidate(sourceFile));
+	}
+
+
+	@Test
+	public void testChangedSource() throws Exception {
+		writeFile(sourceFile, "import javax.ws.rs.Path; @Path(\"/path\") class Resource { }");
+		SourceIndex index = SourceIndex.create();
+		Assert.assertTrue(index.isCandidate(sourceFile));
+		index.write(indexFile);
+
+		writeFile(sourceFile, "class Resource { }");
+		Assert.assertFalse(SourceIndex.read(indexFile).isCandidate(sourceFile));
+	}
+
+
+	@Test
+	public void testCorruptIndex() throws Exception {
+		writeFile(sourceFile, "import javax.ws.rs.Path; @Path(\"/path\") class Resource { }");
+		writeFile(indexFile, "not an index");
+		Assert.assertTrue(SourceIndex.read(indexFile).isCandidate(sourceFile));
+	}
+
+
+	@Test
+	public void testClassNameFilter() {
+		Assert.assertTrue(ClassNameFilter.ACCEPT_ALL.accepts("AdminResource"));
+		ClassNameFilter filter = new ClassNameFilter(".*Resource", "Admin.*");
+		Assert.assertTrue(filter.accepts("UserResource"));
+		Assert.assertFalse(filter.accepts("AdminResource"));
+		Assert.assertFalse(filter.accepts("UserService"));
+		Assert.assertTrue(new ClassNameFilter("", "").accepts("UserService"));
+	}
+
+
+	private static void writeFile(File file, String content) throws IOException {
+		try (FileWriter writer = new FileWriter(file)) {
+			writer.write(content);
+		}
+	}
+
+}
@@ -0,0 +1,70 @@
+package de.bitdroid.jaxrs2retrofit;
+
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+public final class SourceMappingTest {
+
+	private static final File
+			RESOURCE_A = new File("/src/ResourceA.java"),
+			RESOURCE_B = new File("/src/ResourceB.java"),
+			CONSTANTS = new File("/src/Constants.java"),
+			CLIENT_A = new File("/gen/ResourceA.java"),
+			CLIENT_B = new File("/gen/ResourceB.java");
+
+
+	@Test
+	public void testRemove() {
+		SourceMapping mapping = createMapping();
+		Assert.assertEquals(new HashSet<>(Arrays.asList(RESOURCE_A, RESOURCE_B)), mapping.getSources());
+		Assert.assertEquals(Collections.singleton(CLIENT_A), mapping.remove(RESOURCE_A));
+		Assert.assertEquals(Collections.singleton(RESOURCE_B), mapping.getSources());
+		Assert.assertTrue(mapping.remove(RESOURCE_A).isEmpty());
+	}
+
+
+	@Test
+	public void testDependentSources() {
+		SourceMapping mapping = createMapping();
+		Assert.assertEquals(Collections.singleton(RESOURCE_B), mapping.getDependentSources(Arrays.asList(CONSTANTS)));
+		Assert.assertTrue(mapping.getDependentSources(Arrays.asList(RESOURCE_B)).isEmpty());
+	}
+
+
+	@Test
+	public void testReadWrite() throws Exception {
+		File mappingFile = File.createTempFile(SourceMappingTest.class.getSimpleName(), null);
+		try {
+			createMapping().write(mappingFile);
+			SourceMapping mapping = SourceMapping.read(mappingFile);
+			Assert.assertEquals(new HashSet<>(Arrays.asList(RESOURCE_A, RESOURCE_B)), mapping.getSources());
+			Assert.assertEquals(Collections.singleton(RESOURCE_B), mapping.getDependentSources(Arrays.asList(CONSTANTS)));
+			Assert.assertEquals(Collections.singleton(CLIENT_B), mapping.remove(RESOURCE_B));
+		} finally {
+			mappingFile.delete();
+		}
+	}
+
+
+	@Test
+	public void testReadMissingFile() throws Exception {
+		Assert.assertTrue(SourceMapping.read(new File("missing-" + SourceMappingTest.class.getSimpleName())).getSources().isEmpty());
+	}
+
+
+	private SourceMapping createMapping() {
+		Set<File> noDependencies = Collections.emptySet();
+		SourceMapping mapping = new SourceMapping();
+		mapping.put(RESOURCE_A, CLIENT_A, noDependencies);
+		mapping.put(RESOURCE_B, CLIENT_B, Arrays.asList(CONSTANTS, RESOURCE_B));
+		return mapping;
+	}
+
+}
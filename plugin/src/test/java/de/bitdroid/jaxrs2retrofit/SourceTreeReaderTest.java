@@ -0,0 +1,82 @@
+package de.bitdroid.jaxrs2retrofit;
+
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+import de.bitdroid.jaxrs2retrofit.integration.resources.SimpleResource;
+import de.bitdroid.jaxrs2retrofit.model.ResourceModel;
+import de.bitdroid.jaxrs2retrofit.model.SourceModel;
+
+public final class SourceTreeReaderTest {
+
+	private static final File RESOURCES_DIR = new File(System.getProperty("user.dir") + "/src/test/java/" + SimpleResource.class.getPackage().getName().replaceAll("\\.", "/"));
+
+
+	@Test
+	public void testReadBatches() throws Exception {
+		List<File> sourceFiles = SourceTreeReader.findSourceFiles(RESOURCES_DIR);
+		Assert.assertTrue(sourceFiles.size() > 2);
+		List<SourceModel> expectedSources = new SourceTreeReader(RESOURCES_DIR, null).read(sourceFiles);
+
+		final List<SourceModel> batchSources = new ArrayList<>();
+		final List<Integer> batchSizes = new ArrayList<>();
+		new SourceTreeReader(RESOURCES_DIR, null, 2).read(sourceFiles, new SourceTreeReader.SourceHandler() {
+			@Override
+			public void onSourcesRead(List<SourceModel> sources) {
+				batchSources.addAll(sources);
+				batchSizes.add(sources.size());
+			}
+		});
+
+		Assert.assertEquals((sourceFiles.size() + 1) / 2, batchSizes.size());
+		for (int batchSize : batchSizes) Assert.assertTrue(batchSize <= 2);
+		Assert.assertEquals(expectedSources.size(), batchSources.size());
+		for (int i = 0; i < expectedSources.size(); ++i) {
+			SourceModel expectedSource = expectedSources.get(i);
+			SourceModel batchSource = batchSources.get(i);
+			Assert.assertEquals(expectedSource.getSourceFile(), batchSource.getSourceFile());
+			Assert.assertEquals(expectedSource.getDependencies(), batchSource.getDependencies());
+			Assert.assertEquals(getNames(expectedSource.getResources()), getNames(batchSource.getResources()));
+		}
+	}
+
+
+	@Test
+	public void testSkipFilteredFiles() throws Exception {
+		List<File> sourceFiles = SourceTreeReader.findSourceFiles(RESOURCES_DIR);
+		GenerationMetrics metrics = new GenerationMetrics();
+		List<SourceModel> sources = new SourceTreeReader(
+				RESOURCES_DIR,
+				null,
+				SourceTreeReader.DEFAULT_BATCH_SIZE,
+				metrics,
+				SourceIndex.create(),
+				new ClassNameFilter(null, "Simple.*"))
+				.read(sourceFiles);
+
+		Assert.assertEquals(sourceFiles.size(), sources.size());
+		for (SourceModel source : sources) {
+			String fileName = source.getSourceFile().getName();
+			// CustomAnnotation contains no resource, SimpleResource is excluded by name
+			if (fileName.startsWith("Simple") || fileName.equals("CustomAnnotation.java")) {
+				Assert.assertTrue(source.getResources().isEmpty());
+			} else {
+				Assert.assertFalse(fileName, source.getResources().isEmpty());
+			}
+		}
+		Assert.assertEquals(2, metrics.getFilteredFileCount());
+	}
+
+
+	private static List<String> getNames(List<ResourceModel> resources) {
+		List<String> names = new ArrayList<>();
+		for (ResourceModel resource : resources) names.add(resource.getQualifiedName());
+		return names;
+	}
+
+}
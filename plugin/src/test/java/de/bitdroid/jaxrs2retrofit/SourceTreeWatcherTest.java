@@ -0,0 +1,120 @@
+package de.bitdroid.jaxrs2retrofit;
+
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import de.bitdroid.jaxrs2retrofit.model.SourceModel;
+
+public final class SourceTreeWatcherTest {
+
+	private File sourceDir, resourceFile, constantsFile, otherFile;
+	private final Map<File, SourceModel> readSources = new HashMap<>();
+	private SourceTreeWatcher watcher;
+
+	@Before
+	public void setupWatcher() throws Exception {
+		sourceDir = Files.createTempDirectory(SourceTreeWatcherTest.class.getSimpleName()).toFile().getAbsoluteFile();
+		resourceFile = new File(sourceDir, "Resource.java");
+		constantsFile = new File(sourceDir, "Constants.java");
+		otherFile = new File(sourceDir, "OtherResource.java");
+		writeFile(constantsFile, "public class Constants { public static final String PATH = \"/path\"; }");
+		writeFile(resourceFile, "import javax.ws.rs.*; @Path(Constants.PATH) public class Resource { @GET public String get() { return null; } }");
+		writeFile(otherFile, "import javax.ws.rs.*; @Path(\"/other\") public class OtherResource { @GET public String get() { return null; } }");
+
+		watcher = new SourceTreeWatcher(sourceDir, new SourceTreeReader(sourceDir, null), new SourceTreeReader.SourceHandler() {
+			@Override
+			public void onSourcesRead(List<SourceModel> sources) {
+				for (SourceModel source : sources) readSources.put(source.getSourceFile(), source);
+			}
+		});
+		watcher.read(SourceTreeReader.findSourceFiles(sourceDir));
+	}
+
+
+	@After
+	public void removeFiles() throws Exception {
+		watcher.close();
+		for (File file : sourceDir.listFiles()) file.delete();
+		sourceDir.delete();
+	}
+
+
+	@Test
+	public void testReadDependents() throws Exception {
+		Assert.assertEquals(3, readSources.size());
+		Assert.assertEquals("/path", readSources.get(resourceFile).getResources().get(0).getPath());
+		readSources.clear();
+
+		writeFile(constantsFile, "public class Constants { public static final String PATH = \"/changed\"; }");
+		watcher.read(Arrays.asList(constantsFile));
+
+		// other resource does not use the constants
+		Assert.assertEquals(2, readSources.size());
+		Assert.assertTrue(readSources.get(constantsFile).getResources().isEmpty());
+		Assert.assertEquals("/changed", readSources.get(resourceFile).getResources().get(0).getPath());
+	}
+
+
+	@Test
+	public void testReadDeleted() throws Exception {
+		readSources.clear();
+		Assert.assertTrue(otherFile.delete());
+		watcher.read(Arrays.asList(otherFile));
+
+		Assert.assertEquals(1, readSources.size());
+		Assert.assertTrue(readSources.get(otherFile).getResources().isEmpty());
+	}
+
+
+	@Test(timeout = 30000)
+	public void testAwaitChanges() throws Exception {
+		File newFile = new File(sourceDir, "NewResource.java");
+		writeFile(newFile, "import javax.ws.rs.*; @Path(\"/new\") public class NewResource { }");
+
+		List<File> changedFiles = new ArrayList<>();
+		while (!changedFiles.contains(newFile)) changedFiles.addAll(watcher.awaitChanges());
+		Assert.assertFalse(changedFiles.contains(resourceFile));
+	}
+
+
+	@Test(timeout = 30000)
+	public void testAwaitMovedDir() throws Exception {
+		File subDir = new File(sourceDir, "sub");
+		File movedDir = new File(sourceDir, "moved");
+		File subFile = new File(subDir, "SubResource.java");
+		Assert.assertTrue(subDir.mkdir());
+		writeFile(subFile, "import javax.ws.rs.*; @Path(\"/sub\") public class SubResource { }");
+		watcher.read(Arrays.asList(subFile));
+
+		// moving the dir reports neither the files of the old nor of the new dir as deleted
+		try {
+			Files.move(subDir.toPath(), movedDir.toPath());
+			List<File> changedFiles = new ArrayList<>();
+			while (!changedFiles.contains(subFile)) changedFiles.addAll(watcher.awaitChanges());
+		} finally {
+			new File(movedDir, subFile.getName()).delete();
+			movedDir.delete();
+		}
+	}
+
+
+	private static void writeFile(File file, String content) throws IOException {
+		try (FileWriter writer = new FileWriter(file)) {
+			writer.write(content);
+		}
+	}
+
+}
@@ -0,0 +1,91 @@
+package de.bitdroid.jaxrs2retrofit;
+
+
+import com.squareup.javapoet.JavaFile;
+import com.squareup.javapoet.TypeSpec;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+import javax.lang.model.element.Modifier;
+
+public final class SrcJarWriterTest {
+
+	private File jarFile;
+
+	@Before
+	public void createJarFile() throws Exception {
+		jarFile = File.createTempFile(SrcJarWriterTest.class.getSimpleName(), ".srcjar");
+	}
+
+
+	@After
+	public void deleteJarFile() {
+		jarFile.delete();
+	}
+
+
+	@Test
+	public void testWrite() throws Exception {
+		JavaFile firstFile = createJavaFile("client", "FirstResource");
+		JavaFile secondFile = createJavaFile("client.nested", "SecondResource");
+		try (SrcJarWriter writer = new SrcJarWriter(jarFile)) {
+			writer.write(firstFile);
+			writer.write(secondFile);
+		}
+
+		try (ZipInputStream inputStream = new ZipInputStream(new FileInputStream(jarFile))) {
+			ZipEntry entry = inputStream.getNextEntry();
+			Assert.assertEquals("client/FirstResource.java", entry.getName());
+			Assert.assertEquals(firstFile.toString(), readEntry(inputStream));
+			entry = inputStream.getNextEntry();
+			Assert.assertEquals("client/nested/SecondResource.java", entry.getName());
+			Assert.assertEquals(secondFile.toString(), readEntry(inputStream));
+			Assert.assertNull(inputStream.getNextEntry());
+		}
+	}
+
+
+	@Test
+	public void testReproducible() throws Exception {
+		try (SrcJarWriter writer = new SrcJarWriter(jarFile)) {
+			writer.write(createJavaFile("client", "Resource"));
+		}
+		byte[] firstContent = Files.readAllBytes(jarFile.toPath());
+
+		Thread.sleep(2000); // zip entries have a resolution of two seconds
+		try (SrcJarWriter writer = new SrcJarWriter(jarFile)) {
+			writer.write(createJavaFile("client", "Resource"));
+		}
+		Assert.assertTrue(Arrays.equals(firstContent, Files.readAllBytes(jarFile.toPath())));
+	}
+
+
+	private JavaFile createJavaFile(String packageName, String name) {
+		TypeSpec typeSpec = TypeSpec
+				.interfaceBuilder(name)
+				.addModifiers(Modifier.PUBLIC)
+				.build();
+		return JavaFile.builder(packageName, typeSpec).build();
+	}
+
+
+	private static String readEntry(ZipInputStream inputStream) throws Exception {
+		ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+		byte[] buffer = new byte[1024];
+		int count;
+		while ((count = inputStream.read(buffer)) != -1) outputStream.write(buffer, 0, count);
+		return new String(outputStream.toByteArray(), "UTF-8");
+	}
+
+}
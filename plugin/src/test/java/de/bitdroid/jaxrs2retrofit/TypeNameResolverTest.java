@@ -0,0 +1,60 @@
+package de.bitdroid.jaxrs2retrofit;
+
+
+import com.squareup.javapoet.TypeName;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public final class TypeNameResolverTest {
+
+	private final TypeNameResolver resolver = new TypeNameResolver();
+
+	@Test
+	public void testResolve() {
+		assertResolved("int", "int");
+		assertResolved("void", "void");
+		assertResolved("java.lang.String", "java.lang.String");
+		assertResolved("retrofit.client.Response", "javax.ws.rs.core.Response");
+		assertResolved("java.util.List<java.lang.String>", "java.util.List<java.lang.String>");
+		assertResolved(
+				"java.util.Map<java.lang.String, java.util.List<de.bitdroid.Item>>",
+				"java.util.Map<java.lang.String,java.util.List<de.bitdroid.Item>>");
+		assertResolved(
+				"java.util.List<java.util.Map<java.lang.String, java.util.Set<java.lang.Long>>>",
+				"java.util.List<java.util.Map<java.lang.String, java.util.Set<java.lang.Long>>>");
+		assertResolved("java.util.List<?>", "java.util.List<?>");
+		assertResolved("java.util.List<? extends java.lang.Number>", "java.util.List<? extends java.lang.Number>");
+		assertResolved("java.util.List<? super java.lang.Integer>", "java.util.List<? super java.lang.Integer>");
+		assertResolved("byte[]", "byte[]");
+		assertResolved("java.lang.String[][]", "java.lang.String[][]");
+		assertResolved("java.util.List<java.lang.String[]>[]", "java.util.List<java.lang.String[]>[]");
+		assertResolved("de.bitdroid.Outer.Inner", "de.bitdroid.Outer.Inner");
+	}
+
+
+	@Test
+	public void testCache() {
+		TypeName typeName = resolver.resolve("java.util.List<java.lang.String>");
+		Assert.assertSame(typeName, resolver.resolve("java.util.List<java.lang.String>"));
+		Assert.assertSame(resolver.resolve("java.lang.String"), resolver.resolve("java.lang.String"));
+	}
+
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testInvalidType() {
+		resolver.resolve("java.util.List<java.lang.String");
+	}
+
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testPrimitiveTypeArguments() {
+		resolver.resolve("int<java.lang.String>");
+	}
+
+
+	private void assertResolved(String expectedCode, String type) {
+		Assert.assertEquals(expectedCode, resolver.resolve(type).toString());
+	}
+
+}
@@ -0,0 +1,33 @@
+package de.bitdroid.jaxrs2retrofit.converter;
+
+
+import com.squareup.javapoet.ClassName;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import javax.ws.rs.HeaderParam;
+
+import retrofit.http.Header;
+
+public final class ParamConverterManagerTest {
+
+	@Test
+	public void testFingerprint() {
+		String defaultFingerprint = ParamConverterManager.getDefaultInstance().getFingerprint();
+		Assert.assertEquals(defaultFingerprint, ParamConverterManager.getDefaultInstance().getFingerprint());
+		Assert.assertTrue(defaultFingerprint.contains("MappingConverter(retrofit.http.Path)"));
+
+		ParamConverterManager manager = ParamConverterManager.getDefaultInstance();
+		manager.registerConverter(ClassName.get(HeaderParam.class), new IgnoreConverter());
+		String ignoreFingerprint = manager.getFingerprint();
+		Assert.assertNotEquals(defaultFingerprint, ignoreFingerprint);
+		Assert.assertTrue(ignoreFingerprint.contains(IgnoreConverter.class.getName()));
+
+		manager.registerConverter(ClassName.get(HeaderParam.class), null);
+		Assert.assertNotEquals(ignoreFingerprint, manager.getFingerprint());
+		manager.registerConverter(ClassName.get(HeaderParam.class), new MappingConverter(ClassName.get(Header.class)));
+		Assert.assertEquals(defaultFingerprint, manager.getFingerprint());
+	}
+
+}
@@ -18,6 +18,8 @@ import java.io.File;
 import java.net.URI;
 import java.net.URL;
 import java.net.URLClassLoader;
+import java.util.ArrayList;
+import java.util.List;
 
 import javax.tools.JavaCompiler;
 import javax.tools.ToolProvider;
@@ -33,8 +35,8 @@ import retrofit.RestAdapter;
 @RunWith(JMockit.class)
 public abstract class AbstractResourceTest<T> {
 
+	protected static final String HOST_ADDRESS = "http://localhost:12345/";
 	private static final String
-			HOST_ADDRESS = "http://localhost:12345/",
 			OUTPUT_DIR = "testWorkingDir/",
 			RESOURCES_DIR = System.getProperty("user.dir") + "/src/test/java/" + SimpleResource.class.getPackage().getName().replaceAll("\\.", "/"),
 			CLIENT_PACKAGE = "client";
@@ -69,7 +71,7 @@ public abstract class AbstractResourceTest<T> {
 		JavaClass resource = builder.getClassByName(resourceClass.getName());
 
 		// generate retrofit client
-		RetrofitGenerator generator = new RetrofitGenerator(new GeneratorSettings(CLIENT_PACKAGE, "", true, true, true, getParamConverterManager()));
+		RetrofitGenerator generator = new RetrofitGenerator(getGeneratorSettings());
 		JavaFile clientSource = generator.createResource(resource);
 
 		// write client to file
@@ -77,18 +79,23 @@ public abstract class AbstractResourceTest<T> {
 		Assert.assertTrue(clientFile.mkdir());
 		clientSource.writeTo(clientFile);
 		clientSource.writeTo(System.out);
+		List<String> sourcePaths = new ArrayList<>();
+		sourcePaths.add(new File(OUTPUT_DIR).getPath() + "/" + CLIENT_PACKAGE + "/" + resourceClass.getSimpleName() + ".java");
+		if (getGeneratorSettings().getGenerateImplementations()) {
+			JavaFile supportSource = generator.createImplementationSupport();
+			supportSource.writeTo(clientFile);
+			sourcePaths.add(new File(OUTPUT_DIR).getPath() + "/" + CLIENT_PACKAGE + "/" + supportSource.typeSpec.name + ".java");
+		}
 
 		// compile
 		JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
-		compiler.run(null, null, null, new File(OUTPUT_DIR).getPath() + "/" + CLIENT_PACKAGE + "/" + resourceClass.getSimpleName() + ".java");
+		compiler.run(null, null, null, sourcePaths.toArray(new String[sourcePaths.size()]));
 
 		ClassLoader classLoader = new URLClassLoader(new URL[] { new URL("file://" + new File(OUTPUT_DIR).getAbsolutePath() + "/") });
 		this.clientClass = classLoader.loadClass(CLIENT_PACKAGE + "." + resourceClass.getSimpleName());
 
 		// setup retrofit client
-		RestAdapter adapter = getRestAdapterBuilder().build();
-
-		this.client = adapter.create(clientClass);
+		this.client = createClient(clientClass);
 		Assert.assertEquals(3 * resourceClass.getDeclaredMethods().length, clientClass.getDeclaredMethods().length);
 	}
 
@@ -108,6 +115,17 @@ public abstract class AbstractResourceTest<T> {
 	protected abstract T getMockedResource();
 
 
+	protected GeneratorSettings getGeneratorSettings() {
+		return new GeneratorSettings(CLIENT_PACKAGE, "", true, true, true, getParamConverterManager());
+	}
+
+
+	protected Object createClient(Class<?> clientClass) throws Exception {
+		RestAdapter adapter = getRestAdapterBuilder().build();
+		return adapter.create(clientClass);
+	}
+
+
 	protected RestAdapter.Builder getRestAdapterBuilder() {
 		return new RestAdapter.Builder().setEndpoint(HOST_ADDRESS);
 	}
@@ -0,0 +1,191 @@
+package de.bitdroid.jaxrs2retrofit.integration;
+
+
+import com.google.gson.Gson;
+import com.squareup.javapoet.JavaFile;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.io.File;
+import java.lang.reflect.Method;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+import de.bitdroid.jaxrs2retrofit.ClientJarCompiler;
+import de.bitdroid.jaxrs2retrofit.GeneratorLogger;
+import de.bitdroid.jaxrs2retrofit.GeneratorSettings;
+import de.bitdroid.jaxrs2retrofit.HttpMethod;
+import de.bitdroid.jaxrs2retrofit.RetrofitGenerator;
+import de.bitdroid.jaxrs2retrofit.integration.resources.SimpleResource;
+import de.bitdroid.jaxrs2retrofit.model.AnnotationModel;
+import de.bitdroid.jaxrs2retrofit.model.MethodModel;
+import de.bitdroid.jaxrs2retrofit.model.ParamModel;
+import de.bitdroid.jaxrs2retrofit.model.ResourceModel;
+import mockit.Mocked;
+import mockit.Verifications;
+import mockit.integration.junit4.JMockit;
+import retrofit.Callback;
+import retrofit.Endpoint;
+import retrofit.Endpoints;
+import retrofit.RestAdapter;
+import retrofit.RetrofitError;
+import retrofit.client.Client;
+import retrofit.client.Header;
+import retrofit.client.Request;
+import retrofit.client.Response;
+import retrofit.client.UrlConnectionClient;
+import retrofit.converter.Converter;
+import retrofit.converter.GsonConverter;
+import rx.Observable;
+
+
+@RunWith(JMockit.class)
+public final class ImplementationTest extends AbstractResourceTest<SimpleResource> {
+
+	private static final Executor SAME_THREAD_EXECUTOR = new Executor() {
+		@Override
+		public void execute(Runnable command) {
+			command.run();
+		}
+	};
+
+	@Mocked private SimpleResource resource;
+
+	public ImplementationTest() {
+		super(SimpleResource.class);
+	}
+
+
+	@Test
+	public void testImplementation() throws Exception {
+		final List<Integer> callbackStatuses = new ArrayList<>();
+		Callback<String> callback = new Callback<String>() {
+			@Override
+			public void success(String result, Response response) {
+				callbackStatuses.add(response.getStatus());
+			}
+
+			@Override
+			public void failure(RetrofitError error) {
+				throw error;
+			}
+		};
+
+		for (Method method : clientClass.getDeclaredMethods()) {
+			Class<?>[] paramTypes = method.getParameterTypes();
+			boolean useCallback = paramTypes.length > 0 && paramTypes[paramTypes.length - 1].equals(Callback.class);
+			List<Object> args = new ArrayList<>();
+			if (paramTypes.length > (useCallback ? 1 : 0)) {
+				args.addAll(Arrays.<Object>asList("some path", "some query", true, 42, 42d, 42f, (short) 42, 42l, (byte) 42, "some header"));
+			}
+			if (useCallback) args.add(callback);
+
+			Object result = method.invoke(client, args.toArray());
+			if (result instanceof Observable) ((Observable<?>) result).toBlocking().single();
+		}
+
+		// the mocked resource returns no content
+		Assert.assertEquals(Arrays.asList(204, 204, 204, 204, 204), callbackStatuses);
+		new Verifications() {{
+			resource.getHelloWorld(); times = 3;
+			resource.getHelloWorld("some path", "some query", true, 42, 42d, 42f, (short) 42, 42l, (byte) 42, "some header"); times = 3;
+			resource.postHello(); times = 3;
+			resource.deleteHello(); times = 3;
+			resource.putHello(); times = 3;
+		}};
+	}
+
+
+	@Test
+	public void testMultiValuedQuery() throws Exception {
+		ResourceModel queryResource = new ResourceModel("server.QueryResource", "QueryResource", "/items", null, Arrays.asList(
+				new MethodModel("getItems", HttpMethod.GET, null, null, Arrays.asList(
+						createQueryParam("q", "java.util.List<java.lang.String>"),
+						createQueryParam("ids", "int[]"),
+						createQueryParam("filter", "a b", "java.lang.String")), "void")));
+		RetrofitGenerator generator = new RetrofitGenerator(getGeneratorSettings(), GeneratorLogger.NONE);
+		JavaFile javaFile = generator.createResource(queryResource);
+		File jarFile = File.createTempFile(ImplementationTest.class.getSimpleName(), ".jar");
+		final List<String> urls = new ArrayList<>();
+		Client recordingClient = new Client() {
+			@Override
+			public Response execute(Request request) {
+				urls.add(request.getUrl());
+				return new Response(request.getUrl(), 204, "No Content", new ArrayList<Header>(), null);
+			}
+		};
+
+		try {
+			new ClientJarCompiler(new ArrayList<File>(), new ArrayList<String>()).compile(Arrays.asList(javaFile, generator.createImplementationSupport()), jarFile);
+			try (URLClassLoader classLoader = new URLClassLoader(new URL[] { jarFile.toURI().toURL() }, getClass().getClassLoader())) {
+				Class<?> queryClientClass = classLoader.loadClass("client.QueryResource");
+				Object proxy = new RestAdapter.Builder().setEndpoint(HOST_ADDRESS).setClient(recordingClient).build().create(queryClientClass);
+				Object implementation = classLoader.loadClass("client.QueryResource$Impl")
+						.getConstructor(Endpoint.class, Client.class, Converter.class, Executor.class, Executor.class)
+						.newInstance(Endpoints.newFixedEndpoint(HOST_ADDRESS), recordingClient, new GsonConverter(new Gson()), SAME_THREAD_EXECUTOR, SAME_THREAD_EXECUTOR);
+
+				Method method = queryClientClass.getMethod("getItemsSynchronously", List.class, int[].class, String.class);
+				Object[] args = { Arrays.asList("a", null, "b c"), new int[] { 1, 2 }, "d&e" };
+				method.invoke(proxy, args);
+				method.invoke(implementation, args);
+			}
+		} finally {
+			jarFile.delete();
+		}
+
+		// one pair per element, null elements are skipped. Unlike rest adapters (which only encode
+		// names of queries with encodeName = true) implementations encode names as well.
+		Assert.assertEquals(2, urls.size());
+		Assert.assertTrue(urls.get(0).endsWith("/items?q=a&q=b+c&ids=1&ids=2&a b=d%26e"));
+		Assert.assertTrue(urls.get(1).endsWith("/items?q=a&q=b+c&ids=1&ids=2&a+b=d%26e"));
+	}
+
+
+	@Override
+	protected GeneratorSettings getGeneratorSettings() {
+		return new GeneratorSettings.Builder("client")
+				.setParamConverterManager(getParamConverterManager())
+				.setGenerateImplementations(true)
+				.build();
+	}
+
+
+	@Override
+	protected Object createClient(Class<?> clientClass) throws Exception {
+		Class<?> implementationClass = clientClass.getClassLoader().loadClass(clientClass.getName() + "$Impl");
+		return implementationClass
+				.getConstructor(Endpoint.class, Client.class, Converter.class, Executor.class, Executor.class)
+				.newInstance(
+						Endpoints.newFixedEndpoint(HOST_ADDRESS),
+						new UrlConnectionClient(),
+						new GsonConverter(new Gson()),
+						SAME_THREAD_EXECUTOR,
+						SAME_THREAD_EXECUTOR);
+	}
+
+
+	@Override
+	protected SimpleResource getMockedResource() {
+		return resource;
+	}
+
+
+	private static ParamModel createQueryParam(String name, String type) {
+		return createQueryParam(name, name, type);
+	}
+
+
+	private static ParamModel createQueryParam(String name, String queryName, String type) {
+		return new ParamModel(name, type, Arrays.asList(new AnnotationModel(
+				"javax.ws.rs.QueryParam",
+				Collections.<String, Object>singletonMap("value", "\"" + queryName + "\""))));
+	}
+
+}